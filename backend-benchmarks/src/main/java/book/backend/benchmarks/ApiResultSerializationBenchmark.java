@@ -0,0 +1,59 @@
+package book.backend.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.global.ApiResult;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResultSerializationBenchmark {
+    @Param({ "20", "1000" })
+    public int items;
+
+    private ObjectMapper objectMapper;
+    private ApiResult<List<BookGetsResponse>> result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Cùng cấu hình mặc định ObjectMapper mà Spring MVC dùng (có JavaTimeModule)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<BookGetsResponse> books = new ArrayList<>();
+        for (long i = 0; i < items; i++) {
+            books.add(new BookGetsResponse(i, "Truyện Kiều " + i, "Nguyễn Du", 1L, "Văn học", 1L, "NXB Trẻ", 1L,
+                1820, BigDecimal.valueOf(125_000), 10, 7, "Tác phẩm kinh điển của văn học Việt Nam", "vi",
+                "Admin", LocalDateTime.now()));
+        }
+        result = ApiResult.success(books, "Lấy danh sách sách thành công");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(result);
+    }
+}
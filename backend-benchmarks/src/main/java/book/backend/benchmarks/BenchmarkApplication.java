@@ -0,0 +1,26 @@
+package book.backend.benchmarks;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import book.backend.models.entities.Book;
+import book.backend.repositories.BookRepository;
+import book.backend.services.implement.BookServices;
+import book.backend.services.implement.BorrowDetailService;
+import book.backend.services.implement.InventoryServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.search.BookSearchIndex;
+
+// Chỉ nạp tầng JPA và các service cần đo, không có web/security
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = { SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class })
+@EntityScan(basePackageClasses = Book.class)
+@EnableJpaRepositories(basePackageClasses = BookRepository.class)
+@Import({ BookServices.class, BorrowDetailService.class, InventoryServices.class, StatsServices.class, BookSearchIndex.class })
+public class BenchmarkApplication {
+}
@@ -0,0 +1,30 @@
+package book.backend.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.services.interfaces.IBookServices;
+
+// Đọc danh sách sách: câu JPQL chiếu thẳng vào BookGetsResponse (thay cho map entity -> DTO trước đây)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookListingBenchmark {
+
+    @Benchmark
+    public ApiResult<List<BookGetsResponse>> getsBook(EmbeddedBackend backend) {
+        return backend.bean(IBookServices.class).getsBook();
+    }
+}
@@ -0,0 +1,50 @@
+package book.backend.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.borrowdetail.BorrowDetailRequest;
+import book.backend.services.interfaces.IBorrowDetailServices;
+
+// Kiểm tra tồn kho khi mượn trên H2: mượn thành công (trừ kho + ghi chi tiết + hoàn kho khi xóa) và bị từ chối vì thiếu sách
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowDetailBenchmark {
+
+    @Benchmark
+    public Long borrowAndReturn(EmbeddedBackend backend) {
+        IBorrowDetailServices services = backend.bean(IBorrowDetailServices.class);
+        Long detailId = services.createBorrowDetail(request(backend, 1)).getData();
+        services.deleteBorrowDetail(detailId);
+        return detailId;
+    }
+
+    @Benchmark
+    public String rejectWhenOutOfStock(EmbeddedBackend backend) {
+        try {
+            backend.bean(IBorrowDetailServices.class).createBorrowDetail(request(backend, EmbeddedBackend.STOCK + 1));
+            throw new IllegalStateException("Lẽ ra phải bị từ chối vì không đủ sách");
+        } catch (UserMessageException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private static BorrowDetailRequest request(EmbeddedBackend backend, int quantity) {
+        return BorrowDetailRequest.builder()
+            .borrowId(backend.borrowId)
+            .bookId(backend.bookId)
+            .quantity(quantity)
+            .build();
+    }
+}
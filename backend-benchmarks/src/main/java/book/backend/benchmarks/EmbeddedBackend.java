@@ -0,0 +1,87 @@
+package book.backend.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import book.backend.models.entities.Author;
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.Category;
+import book.backend.models.entities.Publisher;
+import book.backend.models.entities.User;
+import book.backend.repositories.AuthorRepository;
+import book.backend.repositories.BookRepository;
+import book.backend.repositories.BorrowRepository;
+import book.backend.repositories.CategoryRepository;
+import book.backend.repositories.PublisherRepository;
+import book.backend.repositories.UserRepository;
+
+/**
+ * Backend chạy trên H2 in-memory, dựng một lần cho mỗi lần fork của JMH.
+ * Tham số dòng lệnh ghi đè application.properties (SQL Server) đóng gói trong jar backend.
+ */
+@State(Scope.Benchmark)
+public class EmbeddedBackend {
+    public static final int STOCK = 1_000_000;
+
+    @Param({ "1000" })
+    public int bookCount;
+
+    public ConfigurableApplicationContext context;
+    public Long borrowId;
+    public Long bookId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.root=WARN");
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        User user = bean(UserRepository.class).save(new User(null, "bench", "x", "admin", "Benchmark", null));
+        Author author = bean(AuthorRepository.class).save(new Author(null, "Nguyễn Du", 1765, "Việt Nam", null));
+        Category category = bean(CategoryRepository.class).save(new Category(null, "Văn học", null));
+        Publisher publisher = bean(PublisherRepository.class).save(
+            new Publisher(null, "NXB Trẻ", "TP.HCM", null, null, null, true, null));
+
+        BookRepository bookRepository = bean(BookRepository.class);
+        for (int i = 0; i < bookCount; i++) {
+            Book book = bookRepository.save(new Book(null, "Truyện Kiều " + i, author, category, publisher, 1820,
+                BigDecimal.TEN, STOCK, STOCK, "Tác phẩm kinh điển của văn học Việt Nam", "vi", user, null));
+            bookId = book.getId();
+        }
+        borrowId = bean(BorrowRepository.class).save(new Borrow(null, null, user,
+            LocalDate.now(), LocalDate.now().plusDays(14), null, "MUON", null, null)).getId();
+    }
+}
@@ -0,0 +1,72 @@
+package book.backend.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import book.backend.models.security.JwtTokenProvider;
+import book.backend.models.security.UserPrincipal;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private AnnotationConfigApplicationContext context;
+    private JwtTokenProvider tokenProvider;
+    private UserPrincipal principal;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Dựng JwtTokenProvider qua Spring để @Value và @PostConstruct chạy như trong ứng dụng
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("jwt", Map.of(
+            "jwt.secret", "benchmark_secret_key_that_is_long_enough_for_hs256_signing",
+            "jwt.expiration", "3600000",
+            "jwt.refresh-expiration", "86400000")));
+        context.register(JwtTokenProvider.class);
+        context.refresh();
+        tokenProvider = context.getBean(JwtTokenProvider.class);
+        principal = new UserPrincipal(1L, "reader", "x", "Bạn đọc", List.of(new SimpleGrantedAuthority("ROLE_user")));
+        token = tokenProvider.generateAccessToken(principal);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return tokenProvider.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return tokenProvider.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return tokenProvider.validateToken(token, principal);
+    }
+}
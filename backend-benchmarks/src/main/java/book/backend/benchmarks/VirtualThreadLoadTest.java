@@ -0,0 +1,209 @@
+package book.backend.benchmarks;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import book.backend.BackendApplication;
+import book.backend.models.entities.Author;
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Category;
+import book.backend.models.entities.Publisher;
+import book.backend.models.entities.User;
+import book.backend.models.security.JwtTokenProvider;
+import book.backend.models.security.UserPrincipal;
+import book.backend.repositories.AuthorRepository;
+import book.backend.repositories.BookRepository;
+import book.backend.repositories.CategoryRepository;
+import book.backend.repositories.PublisherRepository;
+import book.backend.repositories.UserRepository;
+
+/**
+ * Kiểm thử tải toàn bộ ứng dụng (Tomcat + Security + JPA trên H2) với cùng một số client đồng thời,
+ * lần lượt ở chế độ platform thread và virtual thread, rồi so sánh thông lượng và độ trễ p50/p99.
+ * Mỗi client gửi request nối tiếp nhau (đóng vòng), không có thời gian nghỉ.
+ *
+ * Chạy:
+ *   (cd ../backend && mvn install -DskipTests)
+ *   mvn package exec:exec@load-test -Dload.clients=1000 -Dload.seconds=20
+ */
+public final class VirtualThreadLoadTest {
+    private static final int BOOKS = 500;
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 1000);
+        int seconds = Integer.getInteger("load.seconds", 20);
+        int warmupSeconds = Integer.getInteger("load.warmup-seconds", 15);
+        String path = System.getProperty("load.path", "/api/books/page?size=20");
+        Path resultFile = Path.of(System.getProperty("load.result", "target/load-test-result.json"));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("clients", clients);
+        results.put("seconds", seconds);
+        results.put("path", path);
+        for (boolean virtual : new boolean[] { false, true }) {
+            Map<String, Object> result = run(virtual, clients, seconds, warmupSeconds, path);
+            results.put(virtual ? "virtual" : "platform", result);
+            System.out.printf("%-8s throughput=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms errors=%d%n",
+                virtual ? "virtual" : "platform", result.get("throughput"), result.get("p50Ms"),
+                result.get("p99Ms"), result.get("maxMs"), result.get("errors"));
+        }
+
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile.toFile(), results);
+        System.out.println("Kết quả ghi ra " + resultFile.toAbsolutePath());
+    }
+
+    private static Map<String, Object> run(boolean virtual, int clients, int seconds, int warmupSeconds, String path)
+            throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+            .logStartupInfo(false)
+            .run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + virtual + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.root=WARN");
+        try {
+            String token = seed(context);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+            measure(request, clients, warmupSeconds);
+            return measure(request, clients, seconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    // Mỗi client là một virtual thread bên phía gọi để chính bên gọi không trở thành nút cổ chai
+    private static Map<String, Object> measure(HttpRequest request, int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+                HttpClient http = HttpClient.newBuilder().executor(callers).build()) {
+            List<Future<long[]>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                futures.add(callers.submit(() -> client(http, request, deadline)));
+            }
+
+            long errors = 0;
+            int count = 0;
+            List<long[]> perClient = new ArrayList<>(clients);
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                perClient.add(latencies);
+                for (long latency : latencies) {
+                    if (latency < 0) {
+                        errors++;
+                    } else {
+                        count++;
+                    }
+                }
+            }
+
+            long[] all = new long[count];
+            int index = 0;
+            for (long[] latencies : perClient) {
+                for (long latency : latencies) {
+                    if (latency >= 0) {
+                        all[index++] = latency;
+                    }
+                }
+            }
+            Arrays.sort(all);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", count);
+            result.put("errors", errors);
+            result.put("throughput", count / (double) seconds);
+            result.put("p50Ms", percentile(all, 0.50));
+            result.put("p99Ms", percentile(all, 0.99));
+            result.put("maxMs", all.length == 0 ? 0.0 : all[all.length - 1] / 1e6);
+            return result;
+        }
+    }
+
+    // Độ trễ từng request (ns); request lỗi được ghi là -1
+    private static long[] client(HttpClient http, HttpRequest request, long deadline) {
+        long[] latencies = new long[1024];
+        int size = 0;
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            long latency;
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                latency = response.statusCode() == 200 ? System.nanoTime() - started : -1;
+            } catch (IOException ex) {
+                latency = -1;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+        return Arrays.copyOf(latencies, size);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static String seed(ConfigurableApplicationContext context) {
+        User user = context.getBean(UserRepository.class).save(new User(null, "load", "x", "user", "Load test", null));
+        Author author = context.getBean(AuthorRepository.class).save(new Author(null, "Nguyễn Du", 1765, "Việt Nam", null));
+        Category category = context.getBean(CategoryRepository.class).save(new Category(null, "Văn học", null));
+        Publisher publisher = context.getBean(PublisherRepository.class).save(
+            new Publisher(null, "NXB Trẻ", "TP.HCM", null, null, null, true, null));
+
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Book(null, "Truyện Kiều " + i, author, category, publisher, 1820,
+                BigDecimal.TEN, 10, 10, "Tác phẩm kinh điển của văn học Việt Nam", "vi", user, null));
+        }
+        context.getBean(BookRepository.class).saveAll(books);
+
+        UserPrincipal principal = new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(),
+            user.getFullName(), List.of(new SimpleGrantedAuthority("ROLE_user")));
+        return context.getBean(JwtTokenProvider.class).generateAccessToken(principal);
+    }
+}
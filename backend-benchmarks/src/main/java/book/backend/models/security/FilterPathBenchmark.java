@@ -0,0 +1,34 @@
+package book.backend.models.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cùng package với JwtAuthenticationFilter để gọi được shouldSkipFilter (package-private)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterPathBenchmark {
+    // Path public khớp sớm, khớp muộn, và path API phải duyệt hết danh sách
+    @Param({ "/login", "/favicon.ico", "/api/books/page" })
+    public String path;
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(null, null, null);
+
+    @Benchmark
+    public boolean shouldSkipFilter() {
+        return filter.shouldSkipFilter(path);
+    }
+}
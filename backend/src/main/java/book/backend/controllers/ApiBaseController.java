@@ -2,12 +2,25 @@ package book.backend.controllers;
 
 import java.util.function.Supplier;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import book.backend.controllers.exceptions.UserMessageException;
 import book.backend.models.global.ApiResult;
+import book.backend.services.support.ResponseSnapshotCache;
+import book.backend.services.support.ResponseSnapshotCache.Snapshot;
+import book.backend.services.support.TableVersions;
 
 public abstract class ApiBaseController {
+    // Trình duyệt được giữ bản sao nhưng lần nào cũng phải hỏi lại server bằng If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     // Method mới cho việc xử lý ApiResult được tạo sẵn trong service
     protected <T> ResponseEntity<ApiResult<T>> executeApiResult(Supplier<ApiResult<T>> supplier) {
         try {
@@ -23,4 +36,93 @@ public abstract class ApiBaseController {
             return ResponseEntity.internalServerError().body(error);
         }
     }
+
+    // GET có ETag lấy từ phiên bản các bảng mà response đọc tới: If-None-Match khớp thì trả 304 ngay,
+    // không gọi service, không đụng DB và không serialize body
+    protected <T> ResponseEntity<ApiResult<T>> executeVersioned(Supplier<ApiResult<T>> supplier,
+            TableVersions.Table... tables) {
+        String etag = TableVersions.etag(tables);
+        if (matches(currentHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        ResponseEntity<ApiResult<T>> response = executeApiResult(supplier);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(response.getBody());
+    }
+
+    // Như executeVersioned nhưng body lấy từ bản chụp JSON/gzip dựng sẵn, chỉ gọi service khi dữ liệu đã đổi
+    protected <T> ResponseEntity<?> executeSnapshot(ResponseSnapshotCache snapshotCache, String key,
+            Supplier<ApiResult<T>> supplier, TableVersions.Table... tables) {
+        String etag = TableVersions.etag(tables);
+        if (matches(currentHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        Snapshot snapshot = snapshotCache.lookup(key, etag);
+        if (snapshot == null) {
+            ResponseEntity<ApiResult<T>> response = executeApiResult(supplier);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return response;
+            }
+            snapshot = snapshotCache.store(key, etag, response.getBody());
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(REVALIDATE)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (snapshot.gzip() != null && acceptsGzip(currentHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            snapshotCache.servedGzip(snapshot);
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return builder.body(snapshot.json());
+    }
+
+    private static String currentHeader(String name) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getHeader(name);
+        }
+        return null;
+    }
+
+    // Bỏ qua gzip khi client ghi rõ q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // If-None-Match so sánh yếu: bỏ tiền tố W/ mà proxy nén có thể thêm vào
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
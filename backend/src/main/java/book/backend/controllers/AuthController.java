@@ -2,10 +2,12 @@ package book.backend.controllers;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,26 +16,57 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import book.backend.models.dtos.auth.LoginRequest;
+import book.backend.models.dtos.auth.RefreshTokenRequest;
+import book.backend.models.dtos.auth.TokenCacheStatsResponse;
 import book.backend.models.dtos.auth.TokenResponse;
 import book.backend.models.global.ApiResult;
+import book.backend.models.security.JwtAuthenticationCache;
+import book.backend.models.security.LoginThrottle;
+import book.backend.models.security.PasswordHashingBusyException;
 import book.backend.models.security.UserPrincipal;
 import book.backend.services.interfaces.ITokenService;
+import book.backend.services.support.BusinessMetrics;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/auth")
 @Tag(name = "Authentication")
 public class AuthController extends ApiBaseController {
+    private static final String AUTH_COOKIE = "authToken";
+    // Refresh token chỉ được trình duyệt gửi kèm các request tới /api/auth
+    private static final String REFRESH_COOKIE = "refreshToken";
+    private static final String REFRESH_COOKIE_PATH = "/api/auth";
+
     private final AuthenticationManager authenticationManager;
     private final ITokenService tokenService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final LoginThrottle loginThrottle;
+    private final long refreshExpirationSeconds;
 
     // Constructor injection
-    public AuthController(AuthenticationManager authenticationManager, ITokenService tokenService) {
+    public AuthController(AuthenticationManager authenticationManager, ITokenService tokenService,
+            JwtAuthenticationCache authenticationCache, LoginThrottle loginThrottle,
+            @Value("${jwt.refresh-expiration}") long refreshExpirationMs) {
         this.authenticationManager = authenticationManager;
         this.tokenService = tokenService;
+        this.authenticationCache = authenticationCache;
+        this.loginThrottle = loginThrottle;
+        this.refreshExpirationSeconds = refreshExpirationMs / 1000;
     }
     
     @PostMapping("/login")
-    public ResponseEntity<ApiResult<TokenResponse>> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<ApiResult<TokenResponse>> login(@RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
+        // Chặn trước khi chạy BCrypt để dò mật khẩu không tốn CPU của server
+        long retryAfter = loginThrottle.blockedForSeconds(loginRequest.getUsername(), clientIp);
+        if (retryAfter > 0) {
+            BusinessMetrics.loginFailed("throttled");
+            return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(ApiResult.fail("Đăng nhập sai quá nhiều lần, vui lòng thử lại sau " + retryAfter + " giây"));
+        }
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -56,42 +89,96 @@ public class AuthController extends ApiBaseController {
                 fullName = ((UserPrincipal) userDetails).getFullName();
             }
 
+            loginThrottle.reset(loginRequest.getUsername());
             TokenResponse tokens = tokenService.generateTokens(userDetails);
             tokens.setRole(role);
             tokens.setFullName(fullName);
             tokens.setUserId(((UserPrincipal) userDetails).getId());
 
-            ResponseCookie cookie = ResponseCookie.from("authToken", tokens.getAccessToken())
-                .httpOnly(true)
-                .secure(false)
-                .path("/")
-                .sameSite("Lax")
-                .maxAge(7 * 24 * 60 * 60)
-                .build();
-
             return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, cookie(AUTH_COOKIE, tokens.getAccessToken(), "/", 7 * 24 * 60 * 60).toString())
+                .header(HttpHeaders.SET_COOKIE, cookie(REFRESH_COOKIE, tokens.getRefreshToken(), REFRESH_COOKIE_PATH,
+                    refreshExpirationSeconds).toString())
                 .body(ApiResult.success(tokens, "Đăng nhập thành công"));
 
         } catch (BadCredentialsException ex) {
+            BusinessMetrics.loginFailed("bad_credentials");
+            loginThrottle.recordFailure(loginRequest.getUsername(), clientIp);
             return ResponseEntity
                 .status(HttpStatus.UNAUTHORIZED)
                 .body(ApiResult.fail("Tên đăng nhập hoặc mật khẩu không chính xác"));
+        } catch (PasswordHashingBusyException ex) {
+            BusinessMetrics.loginFailed("busy");
+            return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResult.fail(ex.getMessage()));
+        }
+    }
+
+    // Đổi refresh token (trong body hoặc cookie) lấy cặp token mới mà không phải đăng nhập lại qua BCrypt
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResult<TokenResponse>> refresh(@RequestBody(required = false) RefreshTokenRequest refreshRequest,
+            @CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie) {
+        String refreshToken = refreshRequest != null && refreshRequest.getRefreshToken() != null
+            ? refreshRequest.getRefreshToken() : refreshCookie;
+        try {
+            TokenResponse tokens = tokenService.refreshTokens(refreshToken);
+            return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, cookie(AUTH_COOKIE, tokens.getAccessToken(), "/", 7 * 24 * 60 * 60).toString())
+                .header(HttpHeaders.SET_COOKIE, cookie(REFRESH_COOKIE, tokens.getRefreshToken(), REFRESH_COOKIE_PATH,
+                    refreshExpirationSeconds).toString())
+                .body(ApiResult.success(tokens, "Làm mới phiên đăng nhập thành công"));
+        } catch (BadCredentialsException ex) {
+            return ResponseEntity
+                .status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.SET_COOKIE, cookie(REFRESH_COOKIE, "", REFRESH_COOKIE_PATH, 0).toString())
+                .body(ApiResult.fail(ex.getMessage()));
         }
     }
+
     @PostMapping("/logout")
-    public ResponseEntity<ApiResult<String>> logout() {
-        // Tạo cookie hết hạn để xóa ở browser
-        ResponseCookie deleteCookie = ResponseCookie.from("authToken", "")
+    public ResponseEntity<ApiResult<String>> logout(@RequestBody(required = false) RefreshTokenRequest refreshRequest,
+            @CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie,
+            @CookieValue(name = AUTH_COOKIE, required = false) String authCookie,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        // Thu hồi access token đang dùng và cả họ refresh token của phiên này
+        tokenService.revokeAccessToken(authorization != null && authorization.startsWith("Bearer ")
+            ? authorization.substring(7) : authCookie);
+        tokenService.revokeRefreshToken(refreshRequest != null && refreshRequest.getRefreshToken() != null
+            ? refreshRequest.getRefreshToken() : refreshCookie);
+
+        // Tạo cookie hết hạn ngay lập tức để xóa ở browser
+        return ResponseEntity.ok()
+            .header(HttpHeaders.SET_COOKIE, cookie(AUTH_COOKIE, "", "/", 0).toString())
+            .header(HttpHeaders.SET_COOKIE, cookie(REFRESH_COOKIE, "", REFRESH_COOKIE_PATH, 0).toString())
+            .body(ApiResult.success(null, "Đăng xuất thành công"));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/token-cache")
+    public ResponseEntity<ApiResult<TokenCacheStatsResponse>> tokenCacheStats() {
+        return executeApiResult(() -> {
+            long hits = authenticationCache.getHits();
+            long misses = authenticationCache.getMisses();
+            TokenCacheStatsResponse stats = TokenCacheStatsResponse.builder()
+                .hits(hits)
+                .misses(misses)
+                .evictions(authenticationCache.getEvictions())
+                .size(authenticationCache.size())
+                .hitRatio(hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+                .build();
+            return ApiResult.success(stats, "Lấy thống kê cache token thành công");
+        });
+    }
+
+    private static ResponseCookie cookie(String name, String value, String path, long maxAgeSeconds) {
+        return ResponseCookie.from(name, value == null ? "" : value)
             .httpOnly(true)
             .secure(false)
-            .path("/")
+            .path(path)
             .sameSite("Lax")
-            .maxAge(0) // Hết hạn ngay lập tức
+            .maxAge(maxAgeSeconds)
             .build();
-
-        return ResponseEntity.ok()
-            .header(HttpHeaders.SET_COOKIE, deleteCookie.toString())
-            .body(ApiResult.success(null, "Đăng xuất thành công"));
     }
 }
\ No newline at end of file
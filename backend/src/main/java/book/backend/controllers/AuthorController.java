@@ -1,5 +1,4 @@
 package book.backend.controllers;
-import java.util.List;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,26 +17,32 @@ import book.backend.models.dtos.author.AuthorUpdateRequest;
 
 import book.backend.models.global.ApiResult;
 import book.backend.services.interfaces.IAuthorServices;
+import book.backend.services.support.ResponseSnapshotCache;
+import book.backend.services.support.TableVersions.Table;
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/authors")
 public class AuthorController extends ApiBaseController {
+    private static final Table[] TABLES = {Table.AUTHORS};
+
     private final IAuthorServices authorServices;
+    private final ResponseSnapshotCache snapshotCache;
 
-    public AuthorController(IAuthorServices authorServices) {
+    public AuthorController(IAuthorServices authorServices, ResponseSnapshotCache snapshotCache) {
         this.authorServices = authorServices;
+        this.snapshotCache = snapshotCache;
     }
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @GetMapping
-    public ResponseEntity<ApiResult<List<AuthorResponse>>> getsAuthor() {
-        return executeApiResult(() -> authorServices.getsAuthor());
+    public ResponseEntity<?> getsAuthor() {
+        return executeSnapshot(snapshotCache, "authors", () -> authorServices.getsAuthor(), TABLES);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @GetMapping("/{id}")
     public ResponseEntity<ApiResult<AuthorResponse>> getAuthorDetail(@PathVariable Long id) {
-        return executeApiResult(() -> authorServices.getAuthorDetail(id));
+        return executeVersioned(() -> authorServices.getAuthorDetail(id), TABLES);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
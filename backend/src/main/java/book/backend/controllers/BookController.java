@@ -1,7 +1,6 @@
 package book.backend.controllers;
 
-import java.util.List;
-
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,34 +9,73 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.dtos.book.BookImportJobResponse;
 import book.backend.models.dtos.book.BookRequest;
+import book.backend.models.dtos.book.BookSearchResponse;
 import book.backend.models.dtos.book.BookUpdateRequest;
 import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
+import book.backend.services.interfaces.IBookImportServices;
+import book.backend.services.interfaces.IBookSearchServices;
 import book.backend.services.interfaces.IBookServices;
+import book.backend.services.support.ResponseSnapshotCache;
+import book.backend.services.support.TableVersions.Table;
 import org.springframework.web.bind.annotation.RequestBody;
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController extends ApiBaseController {
+    // Danh sách sách hiển thị cả tên tác giả, thể loại, NXB và người tạo nên phụ thuộc các bảng đó
+    private static final Table[] TABLES = {Table.BOOKS, Table.AUTHORS, Table.CATEGORIES, Table.PUBLISHERS, Table.USERS};
+
     private final IBookServices bookServices;
+    private final IBookSearchServices bookSearchServices;
+    private final IBookImportServices bookImportServices;
+    private final ResponseSnapshotCache snapshotCache;
 
-    public BookController(IBookServices bookServices) {
+    public BookController(IBookServices bookServices, IBookSearchServices bookSearchServices,
+            IBookImportServices bookImportServices, ResponseSnapshotCache snapshotCache) {
         this.bookServices = bookServices;
+        this.bookSearchServices = bookSearchServices;
+        this.bookImportServices = bookImportServices;
+        this.snapshotCache = snapshotCache;
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('user')")
     @GetMapping
-    public ResponseEntity<ApiResult<List<BookGetsResponse>>> getsBook() {
-        return executeApiResult(() -> bookServices.getsBook());
+    public ResponseEntity<?> getsBook() {
+        return executeSnapshot(snapshotCache, "books", () -> bookServices.getsBook(), TABLES);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('user')")
+    @GetMapping("/page")
+    public ResponseEntity<ApiResult<CursorPage<BookGetsResponse>>> getsBookPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeVersioned(() -> bookServices.getsBookPage(cursor, size), TABLES);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('user')")
+    @GetMapping("/search")
+    public ResponseEntity<ApiResult<BookSearchResponse>> searchBooks(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String publisher,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return executeVersioned(() -> bookSearchServices.search(q, category, publisher, language, page, size), TABLES);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResult<BookGetsResponse>> getBookDetail(@PathVariable Long id) {
-        return executeApiResult(() -> bookServices.getBookDetail(id));
+        return executeVersioned(() -> bookServices.getBookDetail(id), TABLES);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
@@ -46,6 +84,19 @@ public class BookController extends ApiBaseController {
         return executeApiResult(() -> bookServices.createBook(apiRequest));
     }
 
+    // Nhập hàng loạt từ file CSV / JSON, chạy nền và trả về ngay mã lần nhập để theo dõi tiến độ
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResult<BookImportJobResponse>> importBooks(@RequestParam("file") MultipartFile file) {
+        return executeApiResult(() -> bookImportServices.startImport(file));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ApiResult<BookImportJobResponse>> getImportJob(@PathVariable String jobId) {
+        return executeApiResult(() -> bookImportServices.getImportJob(jobId));
+    }
+
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @PutMapping("/{id}")
     public ResponseEntity<ApiResult<String>> updateBook(@PathVariable Long id, @Valid @RequestBody BookUpdateRequest apiRequest) {
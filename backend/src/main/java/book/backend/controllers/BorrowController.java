@@ -1,7 +1,10 @@
 package book.backend.controllers;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,25 +17,91 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestBody; 
 import org.springframework.web.bind.annotation.RestController;
 
+import book.backend.models.dtos.borrow.BorrowFilter;
 import book.backend.models.dtos.borrow.BorrowGetsResponse;
 import book.backend.models.dtos.borrow.BorrowRequest;
+import book.backend.models.dtos.borrow.OverdueReminderResponse;
 import book.backend.models.global.ApiResult;
+import book.backend.models.global.BorrowStatus;
+import book.backend.models.global.CursorPage;
 import book.backend.services.interfaces.IBorrowServices;
+import book.backend.services.interfaces.IOverdueServices;
+import book.backend.services.support.ResponseSnapshotCache;
+import book.backend.services.support.TableVersions.Table;
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/borrows")
 public class BorrowController extends ApiBaseController {
+    // Phiếu mượn trả kèm chi tiết và họ tên người mượn
+    private static final Table[] TABLES = {Table.BORROWS, Table.BORROW_DETAILS, Table.USERS};
+
     private final IBorrowServices borrowServices;
+    private final ResponseSnapshotCache snapshotCache;
+    private final IOverdueServices overdueServices;
 
-    public BorrowController(IBorrowServices borrowServices) {
+    public BorrowController(IBorrowServices borrowServices, ResponseSnapshotCache snapshotCache,
+            IOverdueServices overdueServices) {
         this.borrowServices = borrowServices;
+        this.snapshotCache = snapshotCache;
+        this.overdueServices = overdueServices;
     }
 
-    @PreAuthorize("hasRole('ADMIN') or hasRole('admin') or hasRole('user')")
+    // Phiếu mượn của mọi người dùng nên chỉ admin xem; người dùng thường dùng /api/users/me/borrows
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @GetMapping
-    public ApiResult<List<BorrowGetsResponse>> getsBorrow() {
-        return borrowServices.getsBorrow();
+    public ResponseEntity<?> getsBorrow() {
+        return executeSnapshot(snapshotCache, "borrows", () -> borrowServices.getsBorrow(), TABLES);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/page")
+    public ResponseEntity<ApiResult<CursorPage<BorrowGetsResponse>>> getsBorrowPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeVersioned(() -> borrowServices.getsBorrowPage(cursor, size), TABLES);
+    }
+
+    // Bàn thủ thư: lọc theo trạng thái (lặp tham số status, dùng mã MUON/QUA HAN/...), người mượn,
+    // khoảng ngày mượn/hẹn trả và chỉ phiếu quá hạn; chỉ đọc các dòng khớp qua chỉ mục tương ứng
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/search")
+    public ResponseEntity<ApiResult<CursorPage<BorrowGetsResponse>>> searchBorrows(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate returnFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate returnTo,
+            @RequestParam(defaultValue = "false") boolean overdue,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeVersioned(() -> borrowServices.searchBorrows(BorrowFilter.builder()
+                .statuses(status == null ? null : status.stream().map(BorrowStatus::from).collect(Collectors.toSet()))
+                .userId(userId)
+                .borrowFrom(borrowFrom)
+                .borrowTo(borrowTo)
+                .returnFrom(returnFrom)
+                .returnTo(returnTo)
+                .overdueOnly(overdue)
+                .build(), cursor, size), TABLES);
+    }
+
+    // Cập nhật theo chu kỳ quét overdue.scan-interval-ms, không tính lại trên toàn bộ phiếu mượn
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/overdue")
+    public ResponseEntity<ApiResult<CursorPage<BorrowGetsResponse>>> getsOverdue(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeVersioned(() -> borrowServices.getsOverdue(cursor, size), TABLES);
+    }
+
+    // Bên gửi thông báo lấy nhắc nhở ra khỏi hàng đợi; đã lấy là bị xóa
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @PostMapping("/overdue/reminders/claim")
+    public ResponseEntity<ApiResult<List<OverdueReminderResponse>>> claimReminders(
+            @RequestParam(required = false) Integer size) {
+        return executeApiResult(() -> overdueServices.claimReminders(size));
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
@@ -1,7 +1,5 @@
 package book.backend.controllers;
 
-import java.util.List;
-
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,28 +15,34 @@ import book.backend.models.dtos.category.CategoryRequest;
 import book.backend.models.dtos.category.CategoryUpdateRequest;
 import book.backend.models.global.ApiResult;
 import book.backend.services.interfaces.ICategoryServices;
+import book.backend.services.support.ResponseSnapshotCache;
+import book.backend.services.support.TableVersions.Table;
 import org.springframework.web.bind.annotation.RequestBody;
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController extends ApiBaseController {
+    private static final Table[] TABLES = {Table.CATEGORIES};
+
     private final ICategoryServices categoryServices;
+    private final ResponseSnapshotCache snapshotCache;
 
-    public CategoryController(ICategoryServices categoryServices) {
+    public CategoryController(ICategoryServices categoryServices, ResponseSnapshotCache snapshotCache) {
         this.categoryServices = categoryServices;
+        this.snapshotCache = snapshotCache;
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @GetMapping
-    public ResponseEntity<ApiResult<List<CategoryGetsResponse>>> getsCategory() {
-        return executeApiResult(() -> categoryServices.getsCategory());
+    public ResponseEntity<?> getsCategory() {
+        return executeSnapshot(snapshotCache, "categories", () -> categoryServices.getsCategory(), TABLES);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @GetMapping("/{id}")
     public ResponseEntity<ApiResult<CategoryGetsResponse>> getCategoryDetail(@PathVariable Long id) {
-        return executeApiResult(() -> categoryServices.getCategoryDetail(id));
+        return executeVersioned(() -> categoryServices.getCategoryDetail(id), TABLES);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
@@ -0,0 +1,58 @@
+package book.backend.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.ExportFormat;
+import book.backend.services.interfaces.IExportServices;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController extends ApiBaseController {
+    private final IExportServices exportServices;
+
+    public ExportController(IExportServices exportServices) {
+        this.exportServices = exportServices;
+    }
+
+    // Ghi thẳng từng dòng ra response trên luồng async, không bọc ApiResult
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/books")
+    public ResponseEntity<?> exportBooks(@RequestParam(required = false) String format) {
+        try {
+            ExportFormat exportFormat = ExportFormat.from(format);
+            StreamingResponseBody body = out -> exportServices.exportBooks(exportFormat, out);
+            return stream("books", exportFormat, body);
+        } catch (UserMessageException ex) {
+            return ResponseEntity.badRequest().body(ApiResult.fail(ex.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/borrows")
+    public ResponseEntity<?> exportBorrows(@RequestParam(required = false) String format) {
+        try {
+            ExportFormat exportFormat = ExportFormat.from(format);
+            StreamingResponseBody body = out -> exportServices.exportBorrows(exportFormat, out);
+            return stream("borrows", exportFormat, body);
+        } catch (UserMessageException ex) {
+            return ResponseEntity.badRequest().body(ApiResult.fail(ex.getMessage()));
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+}
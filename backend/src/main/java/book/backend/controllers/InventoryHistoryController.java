@@ -0,0 +1,41 @@
+package book.backend.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import book.backend.models.dtos.inventory.InventoryHistoryResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
+import book.backend.services.interfaces.IInventoryHistoryServices;
+
+// Lịch sử mượn/trả, mới nhất trước; dữ liệu trễ tối đa một chu kỳ chuyển outbox
+@RestController
+@RequestMapping("/api/inventory-history")
+public class InventoryHistoryController extends ApiBaseController {
+    private final IInventoryHistoryServices inventoryHistoryServices;
+
+    public InventoryHistoryController(IInventoryHistoryServices inventoryHistoryServices) {
+        this.inventoryHistoryServices = inventoryHistoryServices;
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/books/{bookId}")
+    public ResponseEntity<ApiResult<CursorPage<InventoryHistoryResponse>>> getsByBook(@PathVariable Long bookId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeApiResult(() -> inventoryHistoryServices.getsByBook(bookId, cursor, size));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<ApiResult<CursorPage<InventoryHistoryResponse>>> getsByUser(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeApiResult(() -> inventoryHistoryServices.getsByUser(userId, cursor, size));
+    }
+}
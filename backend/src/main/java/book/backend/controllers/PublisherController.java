@@ -1,7 +1,5 @@
 package book.backend.controllers;
 
-import java.util.List;
-
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,6 +11,8 @@ import book.backend.models.dtos.publisher.PublisherRequest;
 import book.backend.models.dtos.publisher.PublisherUpdateRequest;
 import book.backend.models.global.ApiResult;
 import book.backend.services.interfaces.IPublisherServices;
+import book.backend.services.support.ResponseSnapshotCache;
+import book.backend.services.support.TableVersions.Table;
 import org.springframework.web.bind.annotation.RequestBody;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -23,16 +23,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 @RestController
 @RequestMapping("/api/publishers")
 public class PublisherController extends ApiBaseController {
+    private static final Table[] TABLES = {Table.PUBLISHERS};
+
     private final IPublisherServices publisherServices;
+    private final ResponseSnapshotCache snapshotCache;
 
-    public PublisherController(IPublisherServices publisherServices) {
+    public PublisherController(IPublisherServices publisherServices, ResponseSnapshotCache snapshotCache) {
         this.publisherServices = publisherServices;
+        this.snapshotCache = snapshotCache;
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @GetMapping
-    public ResponseEntity<ApiResult<List<PublisherGetsResponse>>> getsPublisher() {
-        return executeApiResult(() -> publisherServices.getsPublisher());
+    public ResponseEntity<?> getsPublisher() {
+        return executeSnapshot(snapshotCache, "publishers", () -> publisherServices.getsPublisher(), TABLES);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
@@ -56,6 +60,6 @@ public class PublisherController extends ApiBaseController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @GetMapping("/{id}")
     public ResponseEntity<ApiResult<PublisherGetsResponse>> getPublisherDetail(@PathVariable Long id) {
-        return executeApiResult(() -> publisherServices.getPublisherDetail(id));
+        return executeVersioned(() -> publisherServices.getPublisherDetail(id), TABLES);
     }
 }
\ No newline at end of file
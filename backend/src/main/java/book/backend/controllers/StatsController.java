@@ -0,0 +1,39 @@
+package book.backend.controllers;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import book.backend.models.dtos.stats.CacheStatsResponse;
+import book.backend.models.dtos.stats.StatsResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.services.interfaces.ICacheServices;
+import book.backend.services.interfaces.IStatsServices;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController extends ApiBaseController {
+    private final IStatsServices statsServices;
+    private final ICacheServices cacheServices;
+
+    public StatsController(IStatsServices statsServices, ICacheServices cacheServices) {
+        this.statsServices = statsServices;
+        this.cacheServices = cacheServices;
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping
+    public ResponseEntity<ApiResult<StatsResponse>> getStats() {
+        return executeApiResult(() -> statsServices.getStats());
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
+    @GetMapping("/cache")
+    public ResponseEntity<ApiResult<List<CacheStatsResponse>>> getCacheStats() {
+        return executeApiResult(() -> cacheServices.getCacheStats());
+    }
+}
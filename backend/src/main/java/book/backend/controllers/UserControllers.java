@@ -4,18 +4,24 @@ import java.util.List;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import book.backend.models.dtos.borrow.UserBorrowResponse;
 import book.backend.models.dtos.user.UserGetsResponse;
 import book.backend.models.dtos.user.UserRequest;
 import book.backend.models.dtos.user.UserUpdateRequest;
 import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
+import book.backend.models.security.UserPrincipal;
+import book.backend.services.interfaces.IBorrowServices;
 import book.backend.services.interfaces.IUserServices;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,9 +30,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 @RequestMapping("/api/users")
 public class UserControllers extends ApiBaseController {
     private final IUserServices userServices;
+    private final IBorrowServices borrowServices;
 
-    public UserControllers(IUserServices userServices) {
+    public UserControllers(IUserServices userServices, IBorrowServices borrowServices) {
         this.userServices = userServices;
+        this.borrowServices = borrowServices;
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
@@ -40,6 +48,25 @@ public class UserControllers extends ApiBaseController {
     public ResponseEntity<ApiResult<UserGetsResponse>> getUserDetail(@PathVariable Long userId) {
         return executeApiResult(() -> userServices.getUserDetail(userId));
     }
+    // Phiếu mượn của người dùng đang đăng nhập (id lấy từ token), chỉ thấy phiếu của chính mình
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/me/borrows")
+    public ResponseEntity<ApiResult<CursorPage<UserBorrowResponse>>> getsMyBorrows(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeApiResult(() -> borrowServices.getsUserBorrows(principal.getId(), cursor, size));
+    }
+
+    // Admin xem phiếu mượn của bất kỳ ai, người dùng thường chỉ xem được của chính mình
+    @PreAuthorize("hasRole('ADMIN') or hasRole('admin') or #userId == principal.id")
+    @GetMapping("/{userId}/borrows")
+    public ResponseEntity<ApiResult<CursorPage<UserBorrowResponse>>> getsUserBorrows(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return executeApiResult(() -> borrowServices.getsUserBorrows(userId, cursor, size));
+    }
+
     @PreAuthorize("hasRole('ADMIN') or hasRole('admin')")
     @PostMapping
     public ResponseEntity<ApiResult<Long>> createUser(@Valid @RequestBody UserRequest apiRequest) {
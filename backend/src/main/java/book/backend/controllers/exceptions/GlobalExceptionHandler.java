@@ -2,15 +2,20 @@ package book.backend.controllers.exceptions;
 
 import java.nio.file.AccessDeniedException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import book.backend.models.global.ApiResult;
+import book.backend.models.security.PasswordHashingBusyException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiResult<String>> handleAccessDeniedException(AccessDeniedException ex) {
@@ -33,9 +38,18 @@ public class GlobalExceptionHandler {
                 .body(ApiResult.fail(ex.getMessage()));
     }
 
+    // Pool băm mật khẩu đầy (ví dụ khi tạo người dùng lúc đang có đợt đăng nhập dồn dập)
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ApiResult<String>> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResult.fail(ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResult<Object>> handleAllException(Exception ex) {
-        ex.printStackTrace();
+        log.error("Lỗi không xử lý được", ex);
         ApiResult<Object> result = new ApiResult<>();
         result.setUserMessage("Lỗi hệ thống, vui lòng thử lại sau.");
         result.setInternalMessage(ex.getMessage());
@@ -1,28 +1,39 @@
 package book.backend.models.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import book.backend.models.security.BoundedPasswordEncoder;
+import book.backend.models.security.CustomUserDetailsService;
+
 @Configuration
 public class AppConfig {
-    
+
+    // BCrypt chạy trên pool riêng; work factor lấy theo password-hashing.strength hoặc tự đo theo target-ms
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${password-hashing.strength:10}") int strength,
+            @Value("${password-hashing.target-ms:0}") long targetMs,
+            @Value("${password-hashing.threads:0}") int threads,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+        return new BoundedPasswordEncoder(BoundedPasswordEncoder.calibrate(strength, targetMs), poolSize, queueCapacity);
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService) {
+    public AuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Đăng nhập đúng với hash cũ yếu hơn cấu hình thì băm lại và lưu
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -30,4 +41,4 @@ public class AppConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
-}
\ No newline at end of file
+}
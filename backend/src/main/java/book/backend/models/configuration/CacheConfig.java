@@ -0,0 +1,33 @@
+package book.backend.models.configuration;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Cache trong tiến trình, giới hạn số phần tử; xóa cache trong transaction chỉ thực hiện sau khi commit
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.reference.max-entries:10000}") long maxEntries,
+            @Value("${cache.reference.ttl-minutes:60}") long ttlMinutes) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats());
+        cacheManager.setCacheNames(CacheNames.ALL);
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
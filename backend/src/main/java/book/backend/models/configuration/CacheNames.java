@@ -0,0 +1,21 @@
+package book.backend.models.configuration;
+
+import java.util.List;
+
+// Tên các cache Spring cho dữ liệu danh mục (tác giả, thể loại, NXB, người dùng)
+public final class CacheNames {
+    public static final String AUTHOR_IDS_BY_NAME = "authorIdsByName";
+    public static final String CATEGORY_IDS_BY_NAME = "categoryIdsByName";
+    public static final String PUBLISHER_IDS_BY_NAME = "publisherIdsByName";
+    public static final String USER_IDS_BY_FULL_NAME = "userIdsByFullName";
+    public static final String AUTHORS = "authors";
+    public static final String CATEGORIES = "categories";
+    public static final String PUBLISHERS = "publishers";
+
+    public static final List<String> ALL = List.of(
+        AUTHOR_IDS_BY_NAME, CATEGORY_IDS_BY_NAME, PUBLISHER_IDS_BY_NAME, USER_IDS_BY_FULL_NAME,
+        AUTHORS, CATEGORIES, PUBLISHERS);
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,101 @@
+package book.backend.models.configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Giới hạn số kết nối được mượn đồng thời bằng semaphore công bằng (FIFO).
+ * Với virtual thread có thể có hàng nghìn request cùng chờ kết nối: các luồng xếp hàng ở đây
+ * (park, không chiếm carrier thread) thay vì cùng tranh nhau trong pool của Hikari.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource implements AutoCloseable {
+    private final Semaphore permits;
+    private final long waitMs;
+
+    public ConnectionLimitingDataSource(DataSource target, int maxConnections, long waitMs) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.waitMs = waitMs;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    // Spring gọi close() khi tắt ứng dụng; chuyển tiếp để pool Hikari bên trong được đóng
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Hết thời gian chờ kết nối database sau " + waitMs + " ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Bị ngắt khi đang chờ kết nối database", ex);
+        }
+    }
+
+    // Trả permit đúng một lần khi kết nối được đóng (trả về pool)
+    private Connection releaseOnClose(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,81 @@
+package book.backend.models.configuration;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Theo dõi sự kiện JFR jdk.VirtualThreadPinned: virtual thread bị ghim vào carrier thread
+ * (thường do chặn I/O bên trong synchronized) lâu hơn ngưỡng.
+ * Mỗi vị trí (frame đầu tiên thuộc code của ứng dụng, nếu không có thì frame trên cùng) được cảnh báo một lần và đếm số lần lặp lại.
+ */
+public class PinnedThreadMonitor {
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final String APP_PACKAGE = "book.backend.";
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::report);
+        stream.startAsync();
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long getPinnedCount() {
+        return pinnedSites.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    // Số lần bị ghim theo từng vị trí trong code
+    public Map<String, Long> getPinnedSites() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        pinnedSites.forEach((site, count) -> counts.put(site, count.sum()));
+        return counts;
+    }
+
+    private void report(RecordedEvent event) {
+        String site = site(event);
+        LongAdder count = pinnedSites.computeIfAbsent(site, key -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            log.warn("Virtual thread bị ghim {} ms tại {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private String site(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "(không có stack trace)";
+        }
+        RecordedFrame top = event.getStackTrace().getFrames().get(0);
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return format(frame);
+            }
+        }
+        return format(top);
+    }
+
+    private String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
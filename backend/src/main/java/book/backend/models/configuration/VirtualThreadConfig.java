@@ -0,0 +1,67 @@
+package book.backend.models.configuration;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Chỉ có hiệu lực khi spring.threads.virtual.enabled=true. Khi đó Spring Boot tự chuyển Tomcat,
+ * executor của @Async / StreamingResponseBody và bộ lập lịch @Scheduled sang virtual thread;
+ * cấu hình này bổ sung phần giới hạn kết nối database và theo dõi thread bị ghim.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // Số request chạy đồng thời không còn bị giới hạn bởi 200 thread của Tomcat nên phải chặn ở tầng kết nối
+    @Bean
+    static BeanPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        long waitMs = environment.getProperty("virtual-threads.connection-wait-ms", Long.class, 30_000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), waitMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public PinnedThreadMonitor pinnedThreadMonitor(@Value("${virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        return new PinnedThreadMonitor(Duration.ofMillis(thresholdMs));
+    }
+
+    // Hàng đợi chờ kết nối của semaphore và số lần virtual thread bị ghim
+    @Bean
+    public MeterBinder virtualThreadMetrics(DataSource dataSource, PinnedThreadMonitor pinnedThreadMonitor) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limited) {
+                Gauge.builder("book.datasource.permits.waiting", limited, ConnectionLimitingDataSource::getQueueLength)
+                    .description("Số luồng đang xếp hàng chờ kết nối database")
+                    .register(registry);
+                Gauge.builder("book.datasource.permits.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Số kết nối database còn được phép mượn")
+                    .register(registry);
+            }
+            FunctionCounter.builder("jvm.threads.virtual.pinned", pinnedThreadMonitor, PinnedThreadMonitor::getPinnedCount)
+                .description("Số lần virtual thread bị ghim lâu hơn ngưỡng")
+                .register(registry);
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package book.backend.models.dtos.auth;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
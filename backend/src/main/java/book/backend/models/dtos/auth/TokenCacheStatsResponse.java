@@ -0,0 +1,18 @@
+package book.backend.models.dtos.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenCacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private double hitRatio;
+}
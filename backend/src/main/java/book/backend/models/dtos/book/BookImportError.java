@@ -0,0 +1,14 @@
+package book.backend.models.dtos.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportError {
+    // Số thứ tự bản ghi trong file (CSV tính cả dòng tiêu đề, JSON bắt đầu từ 1)
+    private long line;
+    private String message;
+}
@@ -0,0 +1,28 @@
+package book.backend.models.dtos.book;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportJobResponse {
+    private String jobId;
+    private String fileName;
+    private String status;
+    private long rowsRead;
+    private long rowsInserted;
+    private long rowsFailed;
+    // Chỉ giữ tối đa một số lỗi đầu tiên, rowsFailed vẫn đếm đủ
+    private List<BookImportError> errors;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMs;
+}
@@ -0,0 +1,20 @@
+package book.backend.models.dtos.book;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchResponse {
+    private List<BookGetsResponse> items;
+    private long total;
+    private int page;
+    private int size;
+    // category / publisher / language -> (giá trị -> số sách khớp)
+    private Map<String, Map<String, Long>> facets;
+}
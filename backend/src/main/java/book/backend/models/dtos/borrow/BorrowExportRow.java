@@ -0,0 +1,29 @@
+package book.backend.models.dtos.borrow;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import book.backend.models.global.BorrowStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Một dòng phẳng phiếu mượn + chi tiết dùng khi xuất dữ liệu
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowExportRow {
+    private Long borrowId;
+    private LocalDate borrowDate;
+    private LocalDate returnDate;
+    private LocalDate actualReturnDate;
+    private BorrowStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long userId;
+    private String fullName;
+    private Long detailId;
+    private Long bookId;
+    private String bookTitle;
+    private Integer quantity;
+}
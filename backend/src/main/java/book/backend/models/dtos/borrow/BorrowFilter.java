@@ -0,0 +1,26 @@
+package book.backend.models.dtos.borrow;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import book.backend.models.global.BorrowStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Điều kiện lọc phiếu mượn; trường null/rỗng nghĩa là không lọc theo trường đó
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BorrowFilter {
+    private Set<BorrowStatus> statuses;
+    private Long userId;
+    private LocalDate borrowFrom;
+    private LocalDate borrowTo;
+    private LocalDate returnFrom;
+    private LocalDate returnTo;
+    // Chỉ phiếu chưa trả đã qua hạn, kể cả phiếu bộ quét chưa kịp đánh dấu QUA HAN
+    private boolean overdueOnly;
+}
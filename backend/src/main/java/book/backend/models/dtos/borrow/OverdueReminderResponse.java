@@ -0,0 +1,21 @@
+package book.backend.models.dtos.borrow;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OverdueReminderResponse {
+    private Long id;
+    private Long borrowId;
+    private Long userId;
+    private LocalDate returnDate;
+    private LocalDateTime queuedAt;
+}
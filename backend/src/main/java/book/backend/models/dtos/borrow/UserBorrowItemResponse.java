@@ -0,0 +1,17 @@
+package book.backend.models.dtos.borrow;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserBorrowItemResponse {
+    private Long id;
+    private Long bookId;
+    private String bookTitle;
+    private Integer quantity;
+}
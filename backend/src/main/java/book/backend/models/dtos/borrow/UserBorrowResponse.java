@@ -0,0 +1,26 @@
+package book.backend.models.dtos.borrow;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Phiếu mượn của một người dùng: không kèm thông tin người mượn, chi tiết có sẵn tên sách
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserBorrowResponse {
+    private Long id;
+    private LocalDate borrowDate;
+    private LocalDate returnDate;
+    private LocalDate actualReturnDate;
+    private String status;
+    private LocalDateTime createdAt;
+    private Integer totalQuantity;
+    private List<UserBorrowItemResponse> details;
+}
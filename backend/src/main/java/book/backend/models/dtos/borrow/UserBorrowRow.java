@@ -0,0 +1,26 @@
+package book.backend.models.dtos.borrow;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import book.backend.models.global.BorrowStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Một dòng phẳng phiếu mượn + chi tiết + tên sách cho trang "phiếu mượn của tôi"
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBorrowRow {
+    private Long borrowId;
+    private LocalDate borrowDate;
+    private LocalDate returnDate;
+    private LocalDate actualReturnDate;
+    private BorrowStatus status;
+    private LocalDateTime createdAt;
+    private Long detailId;
+    private Long bookId;
+    private String bookTitle;
+    private Integer quantity;
+}
@@ -1,9 +1,13 @@
 package book.backend.models.dtos.borrowdetail;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class BorrowDetailGetsResponse {
     private Long id;
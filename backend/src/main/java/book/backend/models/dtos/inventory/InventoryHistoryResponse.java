@@ -0,0 +1,26 @@
+package book.backend.models.dtos.inventory;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryHistoryResponse {
+    private Long id;
+    // MUON, TRA, HUY, DOI SACH
+    private String type;
+    private Long borrowId;
+    private Long borrowDetailId;
+    private Long bookId;
+    private Long userId;
+    // Âm: sách ra khỏi kho, dương: sách về kho
+    private Integer quantity;
+    private String actor;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,14 @@
+package book.backend.models.dtos.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookTotals {
+    private long titles;
+    private long copies;
+    private long available;
+}
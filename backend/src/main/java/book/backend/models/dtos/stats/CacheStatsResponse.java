@@ -0,0 +1,27 @@
+package book.backend.models.dtos.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsResponse {
+    // "spring" cho cache tra cứu theo tên/danh sách, "hibernate-l2" cho cache entity cấp 2,
+    // "response-snapshot" cho bản chụp JSON/gzip của các API danh sách
+    private String layer;
+    private String name;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+    // -1 nếu provider không báo số phần tử
+    private long size;
+    private double hitRate;
+    // Chỉ có ở lớp response-snapshot: dung lượng đang giữ và số byte không phải serialize/truyền lại
+    private long bytes;
+    private long bytesSaved;
+}
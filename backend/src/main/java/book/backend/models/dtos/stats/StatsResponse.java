@@ -0,0 +1,28 @@
+package book.backend.models.dtos.stats;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsResponse {
+    private long totalBooks;
+    private long totalCopies;
+    private long availableCopies;
+    private long booksOnLoan;
+    private long totalAuthors;
+    private long totalCategories;
+    private long totalPublishers;
+    private long totalUsers;
+    private long totalBorrows;
+    private long activeBorrows;
+    private long returnedBorrows;
+    private long overdueBorrows;
+    private LocalDateTime reconciledAt;
+}
@@ -11,6 +11,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -23,7 +24,9 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "Books")
+@Table(name = "Books", indexes = {
+    @Index(name = "IX_Books_createdAt_id", columnList = "createdAt, id")
+})
 public class Book {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -55,7 +58,8 @@ public class Book {
     @Column(nullable = false)
     private Integer quantity; 
     @Nationalized
-    @Column(name = "quantity_available", nullable = false)
+    // Chỉ được thay đổi qua InventoryServices (UPDATE có điều kiện), save() entity không ghi đè cột này
+    @Column(name = "quantity_available", nullable = false, updatable = false)
     private Integer quantityAvailable;
 
     @Nationalized
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import book.backend.models.global.BorrowStatus;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -11,6 +12,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -24,7 +26,17 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "Borrows")
+@Table(name = "Borrows", indexes = {
+    @Index(name = "IX_Borrows_createdAt_id", columnList = "createdAt, id"),
+    // Bộ quét quá hạn và API /overdue chỉ đọc một khoảng (status, returnDate), không quét toàn bộ lịch sử
+    @Index(name = "IX_Borrows_status_returnDate", columnList = "status, returnDate"),
+    // Bộ lọc /api/borrows/search: theo trạng thái hoặc người mượn, sắp theo createdAt như danh sách phân trang
+    @Index(name = "IX_Borrows_status_createdAt_id", columnList = "status, createdAt, id"),
+    @Index(name = "IX_Borrows_userId_status_createdAt_id", columnList = "userId, status, createdAt, id"),
+    @Index(name = "IX_Borrows_borrowDate", columnList = "borrowDate"),
+    // Trang "phiếu mượn của tôi": mới mượn nhất trước, phân trang theo (borrowDate, id) của một người dùng
+    @Index(name = "IX_Borrows_userId_borrowDate_id", columnList = "userId, borrowDate DESC, id DESC")
+})
 public class Borrow {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,8 +53,9 @@ public class Borrow {
     private LocalDate returnDate;
     private LocalDate actualReturnDate;
 
-    @Column(nullable = false, length = 50)
-    private String status;
+    // Lưu mã ngắn qua BorrowStatusConverter
+    @Column(nullable = false, length = 10)
+    private BorrowStatus status;
 
     private LocalDateTime createdAt;
 
@@ -52,7 +65,7 @@ public class Borrow {
             createdAt = LocalDateTime.now();
         }
         if (status == null) {
-            status = "MUON"; 
+            status = BorrowStatus.BORROWING;
         }
     }
 
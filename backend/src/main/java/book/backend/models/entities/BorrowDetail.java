@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,7 +22,10 @@ import lombok.NoArgsConstructor;
 @Table(name = "BorrowDetails")
 public class BorrowDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence cấp id theo khối 100 (pooled) để Hibernate gom INSERT thành lô JDBC, IDENTITY thì không gom được.
+    // Database tạo từ trước (cột id còn IDENTITY) phải chạy db/sqlserver/borrow-details-sequence.sql một lần
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowDetailSeq")
+    @SequenceGenerator(name = "borrowDetailSeq", sequenceName = "BorrowDetails_seq", allocationSize = 100)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,58 @@
+package book.backend.models.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lịch sử mượn/trả chỉ ghi thêm, không sửa không xóa.
+ * outboxId duy nhất nên một sự kiện có chuyển lại lần nữa cũng không bị ghi trùng.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "InventoryHistory", indexes = {
+    @Index(name = "UX_InventoryHistory_outboxId", columnList = "outboxId", unique = true),
+    @Index(name = "IX_InventoryHistory_bookId_occurredAt_id", columnList = "bookId, occurredAt, id"),
+    @Index(name = "IX_InventoryHistory_userId_occurredAt_id", columnList = "userId, occurredAt, id")
+})
+public class InventoryHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long outboxId;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    private Long borrowId;
+    private Long borrowDetailId;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(length = 100)
+    private String actor;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    private LocalDateTime recordedAt;
+}
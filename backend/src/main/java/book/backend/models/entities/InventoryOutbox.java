@@ -0,0 +1,64 @@
+package book.backend.models.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Biến động kho chờ chuyển sang InventoryHistory. Ghi cùng transaction với thay đổi kho nên không mất
+ * và không thừa sự kiện; bộ chuyển chạy nền đọc theo lô rồi xóa, bảng này luôn nhỏ.
+ * Chỉ lưu id thô (không khóa ngoại) để xóa sách/phiếu mượn không kéo theo lịch sử.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "InventoryOutbox")
+public class InventoryOutbox {
+    @Id
+    // Sequence cấp id theo khối 1000: một phiếu mượn lớn chỉ tốn một lần lấy id, INSERT gom thành lô JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventoryOutboxSeq")
+    @SequenceGenerator(name = "inventoryOutboxSeq", sequenceName = "InventoryOutbox_seq", allocationSize = 1000)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    private Long borrowId;
+    private Long borrowDetailId;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    private Long userId;
+
+    // Âm: sách ra khỏi kho, dương: sách về kho
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(length = 100)
+    private String actor;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    // userId, actor và occurredAt do IInventoryHistoryServices.record điền
+    public static InventoryOutbox of(String type, Long borrowId, Long borrowDetailId, Long bookId, int quantity) {
+        InventoryOutbox event = new InventoryOutbox();
+        event.setType(type);
+        event.setBorrowId(borrowId);
+        event.setBorrowDetailId(borrowDetailId);
+        event.setBookId(bookId);
+        event.setQuantity(quantity);
+        return event;
+    }
+}
@@ -0,0 +1,39 @@
+package book.backend.models.entities;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hàng đợi nhắc trả sách: bộ quét quá hạn thêm dòng cùng transaction với việc đánh dấu QUA HAN,
+ * bên gửi thông báo lấy ra theo lô và dòng đã lấy bị xóa.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "OverdueReminders")
+public class OverdueReminder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long borrowId;
+
+    private Long userId;
+
+    private LocalDate returnDate;
+
+    @Column(nullable = false)
+    private LocalDateTime queuedAt;
+}
@@ -0,0 +1,56 @@
+package book.backend.models.global;
+
+import book.backend.controllers.exceptions.UserMessageException;
+
+/**
+ * Trạng thái phiếu mượn. Cột status vẫn lưu mã chữ cũ (MUON, DA TRA...) để dữ liệu sẵn có đọc được ngay,
+ * API cũng nhận/trả đúng mã đó; trong code chỉ so sánh enum, không so chuỗi.
+ */
+public enum BorrowStatus {
+    PENDING("PENDING"),
+    BORROWING("MUON"),
+    OVERDUE("QUA HAN"),
+    RETURNED("DA TRA");
+
+    private final String code;
+
+    BorrowStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    // Đang giữ sách: chưa trả, kể cả đã quá hạn
+    public boolean isOnLoan() {
+        return this == BORROWING || this == OVERDUE;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+
+    // Dữ liệu cũ có thể khác hoa/thường hoặc thừa khoảng trắng; trả null nếu không nhận ra
+    public static BorrowStatus fromCode(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim();
+        for (BorrowStatus status : values()) {
+            if (status.code.equalsIgnoreCase(normalized)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public static BorrowStatus from(String value) {
+        BorrowStatus status = fromCode(value);
+        if (status == null) {
+            throw new UserMessageException("Trạng thái phiếu mượn không hợp lệ, chỉ hỗ trợ PENDING, MUON, QUA HAN hoặc DA TRA!");
+        }
+        return status;
+    }
+}
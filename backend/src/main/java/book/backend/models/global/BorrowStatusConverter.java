@@ -0,0 +1,24 @@
+package book.backend.models.global;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class BorrowStatusConverter implements AttributeConverter<BorrowStatus, String> {
+    @Override
+    public String convertToDatabaseColumn(BorrowStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public BorrowStatus convertToEntityAttribute(String code) {
+        if (code == null) {
+            return null;
+        }
+        BorrowStatus status = BorrowStatus.fromCode(code);
+        if (status == null) {
+            throw new IllegalArgumentException("Trạng thái phiếu mượn không xác định trong database: " + code);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,44 @@
+package book.backend.models.global;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    // Các phần tử của trang hiện tại
+    private List<T> items;
+
+    // Con trỏ để lấy trang kế tiếp, null nếu đã hết dữ liệu
+    private String nextCursor;
+
+    // Còn trang kế tiếp hay không
+    private boolean hasMore;
+
+    // Kích thước trang client gửi lên: bỏ trống thì lấy mặc định, ngoài khoảng [1, MAX_SIZE] thì kẹp lại
+    public static int pageSize(Integer size) {
+        return size == null ? DEFAULT_SIZE : Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    // rows được truy vấn dư một dòng (pageSize + 1): có dòng dư là còn trang sau, con trỏ lấy từ phần tử cuối trang
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, KeysetCursor> cursorOf) {
+        return of(rows, pageSize, Function.identity(), cursorOf);
+    }
+
+    // Như trên nhưng chỉ chuyển đổi các dòng thuộc trang (đã bỏ dòng dư) bằng mapper
+    public static <R, T> CursorPage<T> of(List<R> rows, int pageSize, Function<List<R>, List<T>> mapper,
+            Function<T, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = mapper.apply(hasMore ? rows.subList(0, pageSize) : rows);
+        String nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,36 @@
+package book.backend.models.global;
+
+import book.backend.controllers.exceptions.UserMessageException;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv; charset=UTF-8", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new UserMessageException("Định dạng xuất không hợp lệ, chỉ hỗ trợ ndjson hoặc csv!");
+    }
+}
@@ -0,0 +1,49 @@
+package book.backend.models.global;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import book.backend.controllers.exceptions.UserMessageException;
+
+/**
+ * Con trỏ phân trang theo khóa (createdAt, id).
+ * Được mã hóa base64 để client chỉ cần gửi lại nguyên chuỗi, không phụ thuộc vào cấu trúc bên trong.
+ */
+public final class KeysetCursor {
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public KeysetCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(
+                LocalDateTime.parse(raw.substring(0, index)),
+                Long.valueOf(raw.substring(index + 1))
+            );
+        } catch (RuntimeException ex) {
+            throw new UserMessageException("Con trỏ phân trang không hợp lệ");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package book.backend.models.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Băm/so khớp BCrypt trên một pool riêng có số luồng và hàng đợi cố định.
+ * Đợt đăng nhập dồn dập chỉ chiếm tối đa {@code threads} lõi CPU; khi hàng đợi đầy thì từ chối ngay
+ * bằng {@link PasswordHashingBusyException} thay vì để mọi luồng Tomcat cùng kẹt trong BCrypt.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    // Không hạ work factor xuống dưới mức này dù máy chậm
+    public static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int strength;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this(new BCryptPasswordEncoder(strength), strength, threads, queueCapacity);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.strength = strength;
+        // BCrypt chỉ dùng CPU nên luồng platform là đủ; AbortPolicy để hàng đợi đầy thì báo bận ngay
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        Metrics.gauge("book.auth.hashing.queue", executor, pool -> pool.getQueue().size());
+        Metrics.gauge("book.auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    // Work factor lớn nhất mà một lần băm vẫn nằm trong targetMs (mỗi bậc tăng gấp đôi thời gian), không thấp hơn minStrength
+    public static int calibrate(int minStrength, long targetMs) {
+        int floor = Math.max(minStrength, MIN_STRENGTH);
+        if (targetMs <= 0) {
+            return floor;
+        }
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(floor);
+        probe.encode("khởi động");
+        long started = System.nanoTime();
+        probe.encode("đo thời gian băm");
+        double elapsedMs = Math.max((System.nanoTime() - started) / 1_000_000.0, 1);
+        int extra = (int) Math.floor(Math.log(targetMs / elapsedMs) / Math.log(2));
+        return Math.min(Math.max(floor + Math.max(extra, 0), floor), MAX_STRENGTH);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Hash cũ có work factor thấp hơn cấu hình hiện tại: DaoAuthenticationProvider sẽ băm lại sau khi đăng nhập đúng
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            Metrics.counter("book.auth.hashing.rejections").increment();
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
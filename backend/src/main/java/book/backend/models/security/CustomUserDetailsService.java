@@ -3,9 +3,11 @@ package book.backend.models.security;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import book.backend.models.entities.User;
 import book.backend.repositories.UserRepository;
@@ -14,7 +16,7 @@ import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     @Override
@@ -35,4 +37,15 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority(role))
         );
     }
+
+    // DaoAuthenticationProvider gọi sau khi đăng nhập đúng với hash có work factor cũ: lưu hash mới băm theo cấu hình hiện tại
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return loadUserByUsername(user.getUsername());
+    }
 }
\ No newline at end of file
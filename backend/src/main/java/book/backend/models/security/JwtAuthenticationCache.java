@@ -0,0 +1,151 @@
+package book.backend.models.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Cache các JWT đã xác thực, khóa theo SHA-256 của token.
+ * Mỗi entry hết hạn đúng thời điểm claim exp của token và bị xóa khi thông tin người dùng thay đổi.
+ * Request nạp principal trước lúc xóa không được ghi lại principal cũ: mỗi người dùng có một số thế hệ
+ * (rải theo băm vào bảng cố định), invalidateUser tăng số này và put chỉ giữ entry khi số thế hệ chưa đổi.
+ */
+@Component
+public class JwtAuthenticationCache {
+    private static final int GENERATION_SLOTS = 1024;
+
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_SLOTS);
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public JwtAuthenticationCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries) {
+        this(maxEntries, System::currentTimeMillis);
+    }
+
+    JwtAuthenticationCache(int maxEntries, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public Entry get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(clock.getAsLong())) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    // Đọc trước khi nạp principal từ database rồi truyền lại cho put
+    public long generation(Long userId) {
+        return generations.get(slotOf(userId));
+    }
+
+    // null nếu người dùng đã bị invalidateUser kể từ lúc đọc generation: principal vừa nạp có thể đã cũ
+    public Entry put(String token, Claims claims, UserPrincipal principal, long generation) {
+        int slot = slotOf(principal.getId());
+        if (generations.get(slot) != generation) {
+            return null;
+        }
+        if (entries.size() >= maxEntries) {
+            makeRoom();
+        }
+        String key = hash(token);
+        Entry entry = new Entry(claims, principal, claims.getExpiration().getTime());
+        entries.put(key, entry);
+        // invalidateUser tăng số thế hệ trước khi xóa: nếu nó chạy xen giữa thì bên này thấy và tự gỡ entry
+        if (generations.get(slot) != generation) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    public void invalidate(String token) {
+        entries.remove(hash(token));
+    }
+
+    public void invalidateUser(Long userId) {
+        generations.incrementAndGet(slotOf(userId));
+        entries.values().removeIf(entry -> entry.principal().getId().equals(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Ưu tiên xóa entry hết hạn; nếu vẫn đầy thì bỏ bớt khoảng 10% entry bất kỳ
+    private void makeRoom() {
+        purgeExpired();
+        int toEvict = entries.size() - maxEntries + Math.max(maxEntries / 10, 1);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (toEvict-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static int slotOf(Long userId) {
+        return Long.hashCode(userId * 0x9e3779b97f4a7c15L) & (GENERATION_SLOTS - 1);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public record Entry(Claims claims, UserPrincipal principal, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package book.backend.models.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +22,8 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final TokenRevocationList revocationList;
 
     // ✅ Danh sách các path không cần kiểm tra JWT
     private static final List<String> EXCLUDED_PATHS = List.of(
@@ -37,6 +40,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             "/maintenance",
             "/admin",
             "/api/auth/login",
+            "/api/auth/refresh",
             "/swagger-ui",
             "/v3/api-docs",
             "/css",
@@ -60,7 +64,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -68,11 +71,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = tokenProvider.extractUsername(jwt);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (tokenProvider.validateToken(jwt, userDetails)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolveUser(jwt);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -85,8 +87,46 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Token đã xác thực trước đó được lấy từ cache; nếu chưa có thì parse đúng một lần và nạp user
+    private UserDetails resolveUser(String jwt) {
+        JwtAuthenticationCache.Entry cached = authenticationCache.get(jwt);
+        if (cached != null) {
+            return isRevoked(cached.claims()) ? null : cached.principal();
+        }
+
+        Claims claims = tokenProvider.parseClaims(jwt);
+        // Refresh token chỉ dùng để đổi lấy token mới ở /api/auth/refresh
+        if (claims.getSubject() == null || tokenProvider.isRefreshToken(claims) || isRevoked(claims)) {
+            return null;
+        }
+        // Đọc số thế hệ trước khi nạp user: nếu người dùng bị sửa trong lúc nạp thì principal này không được cache
+        Long uid = tokenProvider.extractUserId(claims);
+        long generation = uid != null ? authenticationCache.generation(uid) : 0;
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+        if (!tokenProvider.validateClaims(claims, userDetails)) {
+            return null;
+        }
+        if (userDetails instanceof UserPrincipal principal) {
+            // uid phải khớp user hiện tại: token của tài khoản đã xóa không dùng được cho tài khoản mới cùng username,
+            // nhờ vậy các API "của tôi" đọc id từ principal là đúng id trong token
+            if (uid != null && !uid.equals(principal.getId())) {
+                return null;
+            }
+            // Token cũ không có uid thì không biết số thế hệ lúc nạp, chỉ dùng mà không cache
+            if (uid != null) {
+                authenticationCache.put(jwt, claims, principal, generation);
+            }
+        }
+        return userDetails;
+    }
+
+    // Token đã đăng xuất: tra Bloom filter trong bộ nhớ, không đụng database
+    private boolean isRevoked(Claims claims) {
+        return revocationList.isRevoked(claims.getId(), claims.getExpiration());
+    }
+
     // ✅ Hàm kiểm tra xem có cần bỏ qua path hiện tại không
-    private boolean shouldSkipFilter(String path) {
+    boolean shouldSkipFilter(String path) {
         return EXCLUDED_PATHS.stream().anyMatch(path::startsWith);
     }
 }
@@ -2,6 +2,7 @@ package book.backend.models.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -10,11 +11,16 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Component
 public class JwtTokenProvider {
+    // Refresh token mang typ=refresh, họ token (fid) và số thứ tự trong họ (seq); filter không nhận nó làm access token
+    public static final String TYPE_CLAIM = "typ";
+    public static final String REFRESH_TYPE = "refresh";
+    public static final String FAMILY_CLAIM = "fid";
+    public static final String SEQUENCE_CLAIM = "seq";
 
     @Value("${jwt.secret}")
     private String secret;
@@ -25,49 +31,81 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Khóa HMAC và parser đều thread-safe, chỉ cần khởi tạo một lần
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateAccessToken(UserDetails userDetails) {
+        Long userId = userDetails instanceof UserPrincipal principal ? principal.getId() : null;
+        return generateAccessToken(userDetails.getUsername(), userId);
+    }
+
+    // Dựng lại access token từ claim của refresh token, không cần nạp user hay so mật khẩu
+    public String generateAccessToken(String username, Long userId) {
         Map<String, Object> claims = new HashMap<>();
-        if (userDetails instanceof UserPrincipal) {
-            claims.put("uid", ((UserPrincipal) userDetails).getId().toString());
+        if (userId != null) {
+            claims.put("uid", userId.toString());
         }
-        return createToken(claims, userDetails.getUsername(), expiration);
+        return createToken(claims, username, expiration);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
+    public String generateRefreshToken(String username, Long userId, String familyId, long sequence) {
         Map<String, Object> claims = new HashMap<>();
-        if (userDetails instanceof UserPrincipal) {
-            claims.put("uid", ((UserPrincipal) userDetails).getId().toString());
-        }
-        return createToken(claims, userDetails.getUsername(), refreshExpiration);
+        claims.put("uid", userId.toString());
+        claims.put(TYPE_CLAIM, REFRESH_TYPE);
+        claims.put(FAMILY_CLAIM, familyId);
+        claims.put(SEQUENCE_CLAIM, sequence);
+        return createToken(claims, username, refreshExpiration);
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
     }
 
     private String createToken(Map<String, Object> claims, String subject, Long expiration) {
+        // jti ngẫu nhiên để đăng xuất có thể thu hồi đúng token này (TokenRevocationList)
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateClaims(parseClaims(token), userDetails);
+    }
+
+    public Boolean validateClaims(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
-    public UUID extractUserId(String token) {
-        String idStr = extractClaim(token, claims -> claims.get("uid", String.class));
-        return idStr == null ? null : UUID.fromString(idStr);
+    // uid là id kiểu Long của User, ghi dạng chuỗi khi tạo token
+    public Long extractUserId(String token) {
+        return extractUserId(parseClaims(token));
+    }
+
+    public Long extractUserId(Claims claims) {
+        String idStr = claims.get("uid", String.class);
+        return idStr == null ? null : Long.valueOf(idStr);
     }
 
     public Date extractExpiration(String token) {
@@ -75,19 +113,11 @@ public class JwtTokenProvider {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package book.backend.models.security;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Đếm số lần đăng nhập sai theo tên đăng nhập và theo IP trong cửa sổ trượt.
+ * Chỉ đếm lần sai nên đợt đăng nhập đúng lúc mở cửa (cùng một IP NAT) không bị chặn;
+ * dò mật khẩu một tài khoản hoặc thử hàng loạt tài khoản từ một IP thì bị từ chối trước khi chạy BCrypt.
+ */
+@Component
+public class LoginThrottle {
+    private final long windowMs;
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerIp;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LoginThrottle(@Value("${login-throttle.window-ms:300000}") long windowMs,
+            @Value("${login-throttle.max-failures-per-user:5}") int maxFailuresPerUser,
+            @Value("${login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+            @Value("${login-throttle.max-keys:100000}") int maxKeys) {
+        this(windowMs, maxFailuresPerUser, maxFailuresPerIp, maxKeys, System::currentTimeMillis);
+    }
+
+    LoginThrottle(long windowMs, int maxFailuresPerUser, int maxFailuresPerIp, int maxKeys, LongSupplier clock) {
+        this.windowMs = windowMs;
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    // 0 nếu được thử đăng nhập, ngược lại là số giây nên chờ (dùng cho header Retry-After)
+    public long blockedForSeconds(String username, String ip) {
+        long now = clock.getAsLong();
+        return Math.max(blockedFor(userKey(username), maxFailuresPerUser, now), blockedFor(ipKey(ip), maxFailuresPerIp, now));
+    }
+
+    public void recordFailure(String username, String ip) {
+        if (windows.size() >= maxKeys) {
+            makeRoom();
+        }
+        long now = clock.getAsLong();
+        windows.compute(userKey(username), (key, window) -> Window.roll(window, now, windowMs).increment());
+        windows.compute(ipKey(ip), (key, window) -> Window.roll(window, now, windowMs).increment());
+    }
+
+    // Đăng nhập đúng thì xóa số lần sai của tài khoản; số lần sai của IP vẫn giữ
+    public void reset(String username) {
+        windows.remove(userKey(username));
+    }
+
+    @Scheduled(fixedDelayString = "${login-throttle.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        windows.values().removeIf(window -> window.isIdle(now, windowMs));
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    private long blockedFor(String key, int limit, long now) {
+        Window window = windows.get(key);
+        if (window == null) {
+            return 0;
+        }
+        Window current = Window.roll(window, now, windowMs);
+        if (current.estimate(now, windowMs) < limit) {
+            return 0;
+        }
+        return Math.max((current.unblockAt(limit, windowMs) - now + 999) / 1000, 1);
+    }
+
+    // Ưu tiên xóa cửa sổ đã hết hạn; nếu vẫn đầy thì bỏ bớt khoảng 10% khóa bất kỳ
+    private void makeRoom() {
+        purgeExpired();
+        int toEvict = windows.size() - maxKeys + Math.max(maxKeys / 10, 1);
+        Iterator<String> iterator = windows.keySet().iterator();
+        while (toEvict-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String userKey(String username) {
+        return "u:" + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + (ip == null ? "" : ip);
+    }
+
+    // Cửa sổ trượt xấp xỉ: số lần của cửa sổ trước được tính theo phần còn chồng lên khoảng windowMs gần nhất
+    record Window(long start, int previous, int current) {
+        static Window roll(Window window, long now, long windowMs) {
+            if (window == null || now - window.start >= 2 * windowMs) {
+                return new Window(now - Math.floorMod(now, windowMs), 0, 0);
+            }
+            if (now - window.start >= windowMs) {
+                return new Window(window.start + windowMs, window.current, 0);
+            }
+            return window;
+        }
+
+        Window increment() {
+            return new Window(start, previous, current + 1);
+        }
+
+        double estimate(long now, long windowMs) {
+            double overlap = 1.0 - (double) (now - start) / windowMs;
+            return previous * overlap + current;
+        }
+
+        // Thời điểm ước lượng tụt xuống dưới limit nếu không có thêm lần sai nào
+        long unblockAt(int limit, long windowMs) {
+            if (current >= limit) {
+                return start + windowMs + (long) Math.ceil(windowMs * (1.0 - (double) limit / current));
+            }
+            return start + (long) Math.ceil(windowMs * (1.0 - (double) (limit - current) / previous));
+        }
+
+        boolean isIdle(long now, long windowMs) {
+            return now - start >= 2 * windowMs;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package book.backend.models.security;
+
+// Pool băm mật khẩu đã đầy hàng đợi; không phải AuthenticationException nên ProviderManager ném thẳng ra controller
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        super("Hệ thống đang bận xử lý đăng nhập, vui lòng thử lại sau giây lát");
+    }
+}
@@ -0,0 +1,216 @@
+package book.backend.models.security;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import book.backend.models.global.ApiResult;
+import book.backend.services.support.BusinessMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Giới hạn tần suất gọi /api theo hai tầng token bucket, chạy ngay sau JwtAuthenticationFilter:
+ * <ul>
+ * <li>mỗi người dùng (uid của principal, chưa đăng nhập thì theo IP) có một bucket chung cho mọi route,
+ * mỗi request trừ số token bằng trọng số của route (GET /api/books đắt hơn GET /api/books/{id});</li>
+ * <li>route đắt có thêm bucket chung cho mọi người dùng để chặn tổng tải (admission control).</li>
+ * </ul>
+ * Bucket cài bằng GCRA: trạng thái chỉ là một long "thời điểm lý thuyết" đổi bằng CAS trong AtomicLongArray,
+ * bucket người dùng rải theo băm của khóa vào một bảng cố định (trùng ô thì hai người chia chung một bucket).
+ * Đường đi bình thường không khóa và không cấp phát đối tượng.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String API_PREFIX = "/api/";
+    // Tách không gian khóa của uid và của IP
+    private static final long ANONYMOUS_SALT = 0x9e3779b97f4a7c15L;
+    // OncePerRequestFilter mặc định ghép tên này mỗi request; dùng sẵn một hằng để không cấp phát chuỗi
+    private static final String ALREADY_FILTERED = RateLimitFilter.class.getName() + ".FILTERED";
+
+    private final boolean enabled;
+    private final Route[] routes;
+    private final int defaultCost;
+    // Khoảng cách (ns) giữa hai token của bucket người dùng và sức chứa tính theo ns
+    private final long userInterval;
+    private final long userCapacity;
+    private final AtomicLongArray userBuckets;
+    private final int userMask;
+    private final AtomicLongArray routeBuckets;
+    private final LongSupplier clock;
+    private final long origin;
+    private final byte[] rejectionBody;
+
+    @Autowired
+    public RateLimitFilter(@Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.user.tokens-per-second:50}") int userRate,
+            @Value("${rate-limit.user.burst:200}") int userBurst,
+            @Value("${rate-limit.user.slots:65536}") int userSlots,
+            @Value("${rate-limit.default-cost:1}") int defaultCost,
+            @Value("${rate-limit.routes:}") String[] routeRules,
+            ObjectMapper objectMapper) {
+        this(enabled, userRate, userBurst, userSlots, defaultCost, routeRules, objectMapper, System::nanoTime);
+    }
+
+    RateLimitFilter(boolean enabled, int userRate, int userBurst, int userSlots, int defaultCost, String[] routeRules,
+            ObjectMapper objectMapper, LongSupplier clock) {
+        this.enabled = enabled;
+        this.defaultCost = defaultCost;
+        this.userInterval = TimeUnit.SECONDS.toNanos(1) / Math.max(userRate, 1);
+        this.userCapacity = userInterval * Math.max(userBurst, 1);
+        // Làm tròn lên lũy thừa của 2 để lấy ô bằng phép AND
+        int slots = Integer.highestOneBit(Math.max(userSlots, 2) - 1) << 1;
+        this.userBuckets = new AtomicLongArray(slots);
+        this.userMask = slots - 1;
+        this.routes = parseRoutes(routeRules);
+        for (Route route : routes) {
+            if (userInterval * route.cost > userCapacity) {
+                throw new IllegalArgumentException("Trọng số của " + route.path + " vượt quá rate-limit.user.burst");
+            }
+        }
+        this.routeBuckets = new AtomicLongArray(routes.length);
+        this.clock = clock;
+        // nanoTime có thể âm: đo từ mốc khởi tạo để ô rỗng (0) luôn là "đầy token"
+        this.origin = clock.getAsLong();
+        try {
+            this.rejectionBody = objectMapper.writeValueAsBytes(
+                ApiResult.fail("Bạn gửi quá nhiều yêu cầu, vui lòng thử lại sau"));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getServletPath().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = clock.getAsLong() - origin;
+        Route route = match(request.getMethod(), request.getServletPath());
+        int cost = route == null ? defaultCost : route.cost;
+
+        int slot = slotOf(request);
+        long userWait = acquire(userBuckets, slot, now, userInterval * cost, userCapacity);
+        if (userWait > 0) {
+            reject(response, userWait, "user");
+            return;
+        }
+        if (route != null && route.interval > 0) {
+            long routeWait = acquire(routeBuckets, route.index, now, route.interval, route.capacity);
+            if (routeWait > 0) {
+                // Route đã đầy thì trả lại token vừa trừ của người dùng
+                userBuckets.addAndGet(slot, -userInterval * cost);
+                reject(response, routeWait, "route");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // GCRA: 0 nếu được nhận (đã ghi nhận chi phí), ngược lại là số ns phải chờ
+    private static long acquire(AtomicLongArray buckets, int index, long now, long increment, long capacity) {
+        while (true) {
+            long theoretical = buckets.get(index);
+            long next = Math.max(theoretical, now) + increment;
+            long wait = next - now - capacity;
+            if (wait > 0) {
+                return wait;
+            }
+            if (buckets.compareAndSet(index, theoretical, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private int slotOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        long key;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            key = principal.getId();
+        } else {
+            key = request.getRemoteAddr().hashCode() ^ ANONYMOUS_SALT;
+        }
+        return (int) mix(key) & userMask;
+    }
+
+    private Route match(String method, String path) {
+        for (Route route : routes) {
+            if ((route.method == null || route.method.equals(method))
+                    && (route.prefix ? path.startsWith(route.path) : path.equals(route.path))) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos, String scope) throws IOException {
+        BusinessMetrics.rateLimited(scope);
+        long seconds = Math.max(TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1), 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejectionBody.length);
+        response.getOutputStream().write(rejectionBody);
+    }
+
+    // Bước trộn của SplitMix64: uid liên tiếp rải đều khắp bảng
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Mỗi luật: "METHOD PATH COST [ROUTE_RATE]", METHOD * là mọi method, PATH kết thúc bằng /** là khớp tiền tố,
+    // ROUTE_RATE là số request/giây tối đa của cả route (bỏ trống hoặc 0 là không giới hạn chung)
+    private static Route[] parseRoutes(String[] rules) {
+        List<Route> parsed = new ArrayList<>();
+        for (String rule : rules == null ? new String[0] : rules) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] parts = rule.trim().split("\\s+");
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Luật rate-limit không hợp lệ: " + rule);
+            }
+            String method = parts[0].equals("*") ? null : parts[0].toUpperCase(Locale.ROOT);
+            boolean prefix = parts[1].endsWith("/**");
+            String path = prefix ? parts[1].substring(0, parts[1].length() - 2) : parts[1];
+            int cost = Integer.parseInt(parts[2]);
+            int routeRate = parts.length > 3 ? Integer.parseInt(parts[3]) : 0;
+            long interval = routeRate > 0 ? TimeUnit.SECONDS.toNanos(1) / routeRate : 0;
+            // Sức chứa của bucket route bằng số request trong một giây
+            parsed.add(new Route(parsed.size(), method, path, prefix, cost, interval, interval * routeRate));
+        }
+        return parsed.toArray(new Route[0]);
+    }
+
+    private record Route(int index, String method, String path, boolean prefix, int cost, long interval, long capacity) {
+    }
+}
@@ -0,0 +1,142 @@
+package book.backend.models.security;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sổ các họ refresh token (mỗi lần đăng nhập mở một họ, khóa theo fid trong token).
+ * Mỗi họ chỉ nhớ số thứ tự của refresh token mới nhất: token đổi xong là hết hiệu lực, nếu bị dùng lại
+ * thì coi như đã lộ và thu hồi cả họ. Bị giới hạn số họ mỗi người dùng và tổng số họ; mất khi khởi động lại
+ * (người dùng chỉ phải đăng nhập lại).
+ */
+@Component
+public class RefreshTokenStore {
+    public enum Outcome {
+        ROTATED,
+        // Token cũ bị dùng lại: họ đã bị thu hồi
+        REUSED,
+        // Họ không tồn tại, đã hết hạn hoặc đã bị thu hồi
+        UNKNOWN
+    }
+
+    private final int maxFamiliesPerUser;
+    private final int maxEntries;
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> familiesByUser = new ConcurrentHashMap<>();
+    // Thứ tự mở họ (không dùng thời gian vì nhiều lần đăng nhập có thể trùng một mili giây)
+    private final AtomicLong openCounter = new AtomicLong();
+
+    public RefreshTokenStore(@Value("${jwt.refresh.max-families-per-user:5}") int maxFamiliesPerUser,
+            @Value("${jwt.refresh.max-entries:100000}") int maxEntries) {
+        this.maxFamiliesPerUser = maxFamiliesPerUser;
+        this.maxEntries = maxEntries;
+    }
+
+    // Họ mới bắt đầu ở số thứ tự 0; người dùng đăng nhập trên quá nhiều thiết bị thì họ cũ nhất bị bỏ
+    public void open(String familyId, Long userId, long expiresAtMillis) {
+        if (families.size() >= maxEntries) {
+            makeRoom();
+        }
+        families.put(familyId, new Family(userId, 0, openCounter.incrementAndGet(), expiresAtMillis));
+        Set<String> owned = familiesByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        owned.add(familyId);
+        while (owned.size() > maxFamiliesPerUser) {
+            owned.stream()
+                .min(Comparator.comparingLong(id -> {
+                    Family family = families.get(id);
+                    return family == null ? Long.MIN_VALUE : family.openedOrder();
+                }))
+                .ifPresent(oldest -> {
+                    families.remove(oldest);
+                    forget(oldest, userId);
+                });
+        }
+    }
+
+    // Đổi token số thứ tự sequence lấy token kế tiếp; chỉ thành công đúng một lần cho mỗi số thứ tự
+    public Outcome rotate(String familyId, Long userId, long sequence, long expiresAtMillis) {
+        Outcome[] outcome = { Outcome.UNKNOWN };
+        long now = System.currentTimeMillis();
+        families.computeIfPresent(familyId, (id, family) -> {
+            if (!family.userId().equals(userId) || family.isExpired(now)) {
+                return null;
+            }
+            if (family.sequence() != sequence) {
+                outcome[0] = Outcome.REUSED;
+                return null;
+            }
+            outcome[0] = Outcome.ROTATED;
+            return family.next(expiresAtMillis);
+        });
+        if (outcome[0] != Outcome.ROTATED) {
+            forget(familyId, userId);
+        }
+        return outcome[0];
+    }
+
+    public void revoke(String familyId) {
+        Family family = families.remove(familyId);
+        if (family != null) {
+            forget(familyId, family.userId());
+        }
+    }
+
+    // Đổi thông tin hoặc xóa người dùng: mọi refresh token của họ đều hết hiệu lực
+    public void revokeUser(Long userId) {
+        Set<String> owned = familiesByUser.remove(userId);
+        if (owned != null) {
+            owned.forEach(families::remove);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        families.entrySet().removeIf(entry -> {
+            if (!entry.getValue().isExpired(now)) {
+                return false;
+            }
+            forget(entry.getKey(), entry.getValue().userId());
+            return true;
+        });
+    }
+
+    public int size() {
+        return families.size();
+    }
+
+    private void forget(String familyId, Long userId) {
+        familiesByUser.computeIfPresent(userId, (id, owned) -> {
+            owned.remove(familyId);
+            return owned.isEmpty() ? null : owned;
+        });
+    }
+
+    // Ưu tiên xóa họ đã hết hạn; nếu vẫn đầy thì bỏ bớt khoảng 10% họ bất kỳ
+    private void makeRoom() {
+        purgeExpired();
+        int toEvict = families.size() - maxEntries + Math.max(maxEntries / 10, 1);
+        Iterator<String> iterator = families.keySet().iterator();
+        while (toEvict-- > 0 && iterator.hasNext()) {
+            revoke(iterator.next());
+        }
+    }
+
+    record Family(Long userId, long sequence, long openedOrder, long expiresAtMillis) {
+        Family next(long expiresAtMillis) {
+            return new Family(userId, sequence + 1, openedOrder, expiresAtMillis);
+        }
+
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+}
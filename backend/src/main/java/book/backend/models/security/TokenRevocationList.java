@@ -0,0 +1,133 @@
+package book.backend.models.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Danh sách jti của các access token đã thu hồi (đăng xuất), chia ngăn theo giờ hết hạn của token.
+ * Mỗi request chỉ hỏi Bloom filter của đúng ngăn chứa exp; chỉ khi Bloom báo "có thể có" mới tra tập chính xác.
+ * Khi cả giờ đó đã qua thì mọi token trong ngăn đều hết hạn nên bỏ nguyên ngăn,
+ * bộ nhớ chỉ tỉ lệ với số token vừa còn hạn vừa đã bị thu hồi.
+ */
+@Component
+public class TokenRevocationList {
+    private static final long PARTITION_MS = 3_600_000;
+
+    private final int bitsPerPartition;
+    private final int hashFunctions;
+    private final LongSupplier clock;
+    private final Map<Long, Partition> partitions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenRevocationList(@Value("${jwt.revocation.expected-per-hour:10000}") int expectedPerPartition,
+            @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this(expectedPerPartition, falsePositiveRate, System::currentTimeMillis);
+    }
+
+    TokenRevocationList(int expectedPerPartition, double falsePositiveRate, LongSupplier clock) {
+        // Kích thước tối ưu: m = -n ln p / (ln 2)^2 bit, k = m/n ln 2 hàm băm
+        int expected = Math.max(expectedPerPartition, 1);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitsPerPartition = (int) Math.min(Math.max(bits, 64), Integer.MAX_VALUE - 63);
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitsPerPartition / expected * Math.log(2)));
+        this.clock = clock;
+    }
+
+    // Token đã hết hạn thì bộ lọc chữ ký tự loại, không cần ghi lại
+    public void revoke(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= clock.getAsLong()) {
+            return;
+        }
+        partitions.computeIfAbsent(partitionOf(expiresAt), key -> new Partition(bitsPerPartition)).add(jti, hashFunctions);
+    }
+
+    public boolean isRevoked(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return false;
+        }
+        Partition partition = partitions.get(partitionOf(expiresAt));
+        return partition != null && partition.contains(jti, hashFunctions);
+    }
+
+    // Bỏ các ngăn có giờ hết hạn đã trôi qua hoàn toàn
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        partitions.keySet().removeIf(hour -> (hour + 1) * PARTITION_MS <= now);
+    }
+
+    public int size() {
+        return partitions.values().stream().mapToInt(partition -> partition.exact.size()).sum();
+    }
+
+    public int partitionCount() {
+        return partitions.size();
+    }
+
+    private static long partitionOf(Date expiresAt) {
+        return expiresAt.getTime() / PARTITION_MS;
+    }
+
+    private static final class Partition {
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+
+        Partition(int bitCount) {
+            this.bitCount = bitCount;
+            this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        // Ghi vào tập chính xác trước rồi mới bật bit: ai thấy bit bật thì tra tập đều thấy jti
+        void add(String jti, int hashFunctions) {
+            exact.add(jti);
+            long h1 = hash(jti);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                int index = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                long mask = 1L << (index & 63);
+                bits.getAndUpdate(index >>> 6, word -> word | mask);
+            }
+        }
+
+        boolean contains(String jti, int hashFunctions) {
+            long h1 = hash(jti);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                int index = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                if ((bits.get(index >>> 6) & (1L << (index & 63))) == 0) {
+                    return false;
+                }
+            }
+            // Bloom có thể báo nhầm: xác nhận lại bằng tập chính xác
+            return exact.contains(jti);
+        }
+
+        // FNV-1a 64 bit trên UTF-8 của jti
+        private static long hash(String jti) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : jti.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        // Bước trộn của SplitMix64 để rải đều bit cho băm kép
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
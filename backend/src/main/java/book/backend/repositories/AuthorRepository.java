@@ -1,13 +1,25 @@
 package book.backend.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.entities.Author;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
-        Optional<Author> findByAuthorname(String authorName);
+    // Tra id theo tên (khóa tự nhiên) qua cache, entity đầy đủ lấy bằng getReferenceById và cache cấp 2 của Hibernate
+    @Cacheable(cacheNames = CacheNames.AUTHOR_IDS_BY_NAME, unless = "#result == null")
+    @Query("SELECT a.id FROM Author a WHERE a.authorname = :authorname")
+    Optional<Long> findIdByAuthorname(@Param("authorname") String authorname);
+
+    // Toàn bộ cặp (tên, id) để nạp sẵn khi nhập sách hàng loạt
+    @Query("SELECT a.authorname, a.id FROM Author a")
+    List<Object[]> findAllNameIds();
 }
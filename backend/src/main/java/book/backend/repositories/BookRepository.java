@@ -1,11 +1,78 @@
 package book.backend.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.dtos.stats.BookTotals;
 import book.backend.models.entities.Book;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
+    // Chiếu thẳng vào DTO, JOIN các bảng liên quan trong một câu lệnh để tránh N+1
+    String SELECT_RESPONSE = "SELECT new book.backend.models.dtos.book.BookGetsResponse("
+        + "b.id, b.title, a.authorname, a.id, c.categoryname, c.id, p.publisherName, p.id, "
+        + "b.yearPublished, b.price, b.quantity, b.quantityAvailable, b.description, b.language, "
+        + "u.fullName, b.createdAt) "
+        + "FROM Book b LEFT JOIN b.author a LEFT JOIN b.category c LEFT JOIN b.publisher p LEFT JOIN b.user u ";
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    @Query(SELECT_RESPONSE + "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookGetsResponse> findAllResponses();
+
+    @Query(SELECT_RESPONSE + "WHERE b.id = :id")
+    Optional<BookGetsResponse> findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + "WHERE b.id IN :ids")
+    List<BookGetsResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Đọc tuần tự theo khóa chính để xuất dữ liệu, driver lấy từng khối EXPORT_FETCH_SIZE dòng thay vì cả bảng
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_RESPONSE + "ORDER BY b.id")
+    Stream<BookGetsResponse> streamAllResponses();
+
+    // Trang đầu tiên, sắp xếp mới nhất trước theo chỉ mục (createdAt, id).
+    // Dòng cũ có createdAt null không có khóa (createdAt, id) nên không nằm trong danh sách phân trang
+    @Query(SELECT_RESPONSE + "WHERE b.createdAt IS NOT NULL ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookGetsResponse> findFirstPage(Pageable pageable);
+
+    // Các trang tiếp theo: chỉ đọc các dòng nằm sau con trỏ, không dùng OFFSET
+    @Query(SELECT_RESPONSE + "WHERE b.createdAt IS NOT NULL "
+        + "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) "
+        + "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookGetsResponse> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Duyệt toàn bộ bảng theo khóa chính (kể cả dòng không có createdAt), dùng khi dựng lại chỉ mục tìm kiếm
+    @Query(SELECT_RESPONSE + "WHERE b.id > :id ORDER BY b.id")
+    List<BookGetsResponse> findBatchAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT new book.backend.models.dtos.stats.BookTotals(COUNT(b), COALESCE(SUM(b.quantity), 0L), COALESCE(SUM(b.quantityAvailable), 0L)) FROM Book b")
+    BookTotals findTotals();
+
+    // Trừ kho nguyên tử: chỉ thành công (trả về 1) khi còn đủ sách
+    @Modifying
+    @Query("UPDATE Book b SET b.quantityAvailable = b.quantityAvailable - :quantity WHERE b.id = :id AND b.quantityAvailable >= :quantity")
+    int reserve(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.quantityAvailable = b.quantityAvailable + :quantity WHERE b.id = :id")
+    int release(@Param("id") Long id, @Param("quantity") int quantity);
 
+    long countByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,14 @@
+package book.backend.repositories;
+
+import java.util.Map;
+
+public interface BookRepositoryCustom {
+    /**
+     * Trừ kho nhiều sách trong một câu UPDATE (bookId -> số lượng).
+     * Trả về số dòng được cập nhật, nhỏ hơn số sách truyền vào nghĩa là có sách không tồn tại hoặc không đủ.
+     */
+    int reserveAll(Map<Long, Integer> quantities);
+
+    // Cộng trả kho nhiều sách trong một câu UPDATE, trả về số dòng được cập nhật
+    int releaseAll(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,55 @@
+package book.backend.repositories;
+
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+    // Mỗi sách dùng 5 tham số (2 CASE + IN), giữ dưới giới hạn 2100 tham số của SQL Server
+    private static final int MAX_BOOKS_PER_STATEMENT = 400;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int reserveAll(Map<Long, Integer> quantities) {
+        return updateStock(quantities, "-", true);
+    }
+
+    @Override
+    public int releaseAll(Map<Long, Integer> quantities) {
+        return updateStock(quantities, "+", false);
+    }
+
+    private int updateStock(Map<Long, Integer> quantities, String operator, boolean requireAvailable) {
+        if (quantities.size() > MAX_BOOKS_PER_STATEMENT) {
+            throw new IllegalArgumentException("Tối đa " + MAX_BOOKS_PER_STATEMENT + " sách mỗi lần cập nhật");
+        }
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder cases = new StringBuilder("CASE b.id");
+        for (int i = 0; i < quantities.size(); i++) {
+            cases.append(" WHEN :id").append(i).append(" THEN :qty").append(i);
+        }
+        cases.append(" ELSE 0 END");
+
+        String jpql = "UPDATE Book b SET b.quantityAvailable = b.quantityAvailable " + operator + " (" + cases + ")"
+                + " WHERE b.id IN :ids";
+        if (requireAvailable) {
+            jpql += " AND b.quantityAvailable >= (" + cases + ")";
+        }
+        Query query = entityManager.createQuery(jpql);
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            query.setParameter("id" + i, entry.getKey());
+            query.setParameter("qty" + i, entry.getValue());
+            i++;
+        }
+        query.setParameter("ids", quantities.keySet());
+        return query.executeUpdate();
+    }
+}
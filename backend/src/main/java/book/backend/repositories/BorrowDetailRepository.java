@@ -1,15 +1,35 @@
 package book.backend.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import book.backend.models.dtos.borrowdetail.BorrowDetailGetsResponse;
 import book.backend.models.entities.BorrowDetail;
 
 public interface BorrowDetailRepository extends JpaRepository<BorrowDetail, Long> {
     List<BorrowDetail> findByBorrowId(Long borrowId);
     @Query("SELECT bd FROM BorrowDetail bd JOIN FETCH bd.borrow JOIN FETCH bd.book WHERE bd.borrow.id = :borrowId")
     List<BorrowDetail> findByBorrowIdWithFetch(@Param("borrowId") Long borrowId);
+
+    // Nạp chi tiết của nhiều phiếu mượn trong một câu lệnh, chỉ đọc khóa ngoại nên không JOIN
+    @Query("SELECT new book.backend.models.dtos.borrowdetail.BorrowDetailGetsResponse(bd.id, bd.borrow.id, bd.book.id, bd.quantity) "
+        + "FROM BorrowDetail bd WHERE bd.borrow.id IN :borrowIds ORDER BY bd.borrow.id, bd.id")
+    List<BorrowDetailGetsResponse> findResponsesByBorrowIdIn(@Param("borrowIds") Collection<Long> borrowIds);
+
+    @Query("SELECT new book.backend.models.dtos.borrowdetail.BorrowDetailGetsResponse(bd.id, bd.borrow.id, bd.book.id, bd.quantity) "
+        + "FROM BorrowDetail bd WHERE bd.id IN :ids")
+    List<BorrowDetailGetsResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM BorrowDetail bd WHERE bd.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM BorrowDetail bd WHERE bd.borrow.id = :borrowId")
+    int deleteByBorrowId(@Param("borrowId") Long borrowId);
 }
@@ -1,16 +1,116 @@
 package book.backend.repositories;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import book.backend.models.dtos.borrow.BorrowExportRow;
+import book.backend.models.dtos.borrow.UserBorrowRow;
 import book.backend.models.entities.Borrow;
+import book.backend.models.global.BorrowStatus;
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface BorrowRepository extends JpaRepository<Borrow, Long> {
-    @Query("SELECT b FROM Borrow b LEFT JOIN FETCH b.user LEFT JOIN FETCH b.borrowDetails")
-    List<Borrow> findAllWithFetch();
+public interface BorrowRepository extends JpaRepository<Borrow, Long>, BorrowRepositoryCustom {
+    // Chỉ JOIN FETCH quan hệ một-một tới User, chi tiết được nạp riêng theo lô để không nhân bản dòng
+    @Query("SELECT b FROM Borrow b LEFT JOIN FETCH b.user ORDER BY b.createdAt DESC, b.id DESC")
+    List<Borrow> findAllWithUser();
+
+    @Query("SELECT b FROM Borrow b LEFT JOIN FETCH b.user ORDER BY b.createdAt DESC, b.id DESC")
+    List<Borrow> findFirstPage(Pageable pageable);
+
+    @Query("SELECT b FROM Borrow b LEFT JOIN FETCH b.user "
+        + "WHERE b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id) "
+        + "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Borrow> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Mỗi dòng là một chi tiết (phiếu không có chi tiết vẫn ra một dòng), các dòng cùng phiếu đứng liền nhau.
+    // Dùng một câu lệnh duy nhất vì SQL Server không cho mở câu lệnh thứ hai khi result set đang đọc dở
+    // mà không đệm toàn bộ phần còn lại vào bộ nhớ
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookRepository.EXPORT_FETCH_SIZE))
+    @Query("SELECT new book.backend.models.dtos.borrow.BorrowExportRow("
+        + "b.id, b.borrowDate, b.returnDate, b.actualReturnDate, b.status, b.createdAt, b.updatedAt, "
+        + "u.id, u.fullName, d.id, bk.id, bk.title, d.quantity) "
+        + "FROM Borrow b LEFT JOIN b.user u LEFT JOIN b.borrowDetails d LEFT JOIN d.book bk "
+        + "ORDER BY b.id, d.id")
+    Stream<BorrowExportRow> streamExportRows();
+
+    @Query("SELECT b.status, COUNT(b) FROM Borrow b GROUP BY b.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT COUNT(b) FROM Borrow b WHERE b.actualReturnDate IS NULL AND b.returnDate < :today "
+        + "AND b.status <> book.backend.models.global.BorrowStatus.RETURNED")
+    long countOverdue(@Param("today") LocalDate today);
+
+    // Phiếu đang mượn đã tới hạn, quét theo chỉ mục (status, returnDate) bắt đầu từ mốc đã xử lý
+    @Query("SELECT b.id, b.returnDate FROM Borrow b WHERE b.status = book.backend.models.global.BorrowStatus.BORROWING "
+        + "AND b.actualReturnDate IS NULL AND b.returnDate >= :from AND b.returnDate < :today ORDER BY b.returnDate, b.id")
+    List<Object[]> findDueSince(@Param("from") LocalDate from, @Param("today") LocalDate today, Pageable pageable);
+
+    // Điều kiện lặp lại trong UPDATE: phiếu vừa được trả hoặc sửa sau lúc đọc thì không bị đánh dấu nhầm
+    @Modifying
+    @Query("UPDATE Borrow b SET b.status = :status, b.updatedAt = :now WHERE b.id IN :ids "
+        + "AND b.status = book.backend.models.global.BorrowStatus.BORROWING AND b.actualReturnDate IS NULL "
+        + "AND b.returnDate < :today")
+    int markOverdue(@Param("ids") Collection<Long> ids, @Param("status") BorrowStatus status,
+            @Param("today") LocalDate today, @Param("now") LocalDateTime now);
+
+    // Phiếu không có hạn trả thì không có khóa phân trang (returnDate, id) nên bị loại khỏi danh sách
+    @Query("SELECT b FROM Borrow b LEFT JOIN FETCH b.user WHERE b.status = :status AND b.returnDate IS NOT NULL "
+        + "ORDER BY b.returnDate, b.id")
+    List<Borrow> findStatusFirstPage(@Param("status") BorrowStatus status, Pageable pageable);
+
+    @Query("SELECT b FROM Borrow b LEFT JOIN FETCH b.user WHERE b.status = :status AND b.returnDate IS NOT NULL "
+        + "AND (b.returnDate > :returnDate OR (b.returnDate = :returnDate AND b.id > :id)) "
+        + "ORDER BY b.returnDate, b.id")
+    List<Borrow> findStatusPageAfter(@Param("status") BorrowStatus status, @Param("returnDate") LocalDate returnDate,
+            @Param("id") Long id, Pageable pageable);
+
+    // Một câu lệnh cho cả trang: truy vấn con chọn limit phiếu theo chỉ mục (userId, borrowDate, id),
+    // truy vấn ngoài trải ra chi tiết và tên sách của đúng các phiếu đó.
+    // Phiếu không có ngày mượn thì không có khóa phân trang (borrowDate, id) nên bị loại khỏi danh sách
+    @Query("SELECT new book.backend.models.dtos.borrow.UserBorrowRow("
+        + "b.id, b.borrowDate, b.returnDate, b.actualReturnDate, b.status, b.createdAt, d.id, bk.id, bk.title, d.quantity) "
+        + "FROM Borrow b LEFT JOIN b.borrowDetails d LEFT JOIN d.book bk "
+        + "WHERE b.id IN (SELECT p.id FROM Borrow p WHERE p.user.id = :userId AND p.borrowDate IS NOT NULL "
+        + "ORDER BY p.borrowDate DESC, p.id DESC LIMIT :limit) "
+        + "ORDER BY b.borrowDate DESC, b.id DESC, d.id")
+    List<UserBorrowRow> findUserFirstPage(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query("SELECT new book.backend.models.dtos.borrow.UserBorrowRow("
+        + "b.id, b.borrowDate, b.returnDate, b.actualReturnDate, b.status, b.createdAt, d.id, bk.id, bk.title, d.quantity) "
+        + "FROM Borrow b LEFT JOIN b.borrowDetails d LEFT JOIN d.book bk "
+        + "WHERE b.id IN (SELECT p.id FROM Borrow p WHERE p.user.id = :userId AND p.borrowDate IS NOT NULL "
+        + "AND (p.borrowDate < :borrowDate OR (p.borrowDate = :borrowDate AND p.id < :id)) "
+        + "ORDER BY p.borrowDate DESC, p.id DESC LIMIT :limit) "
+        + "ORDER BY b.borrowDate DESC, b.id DESC, d.id")
+    List<UserBorrowRow> findUserPageAfter(@Param("userId") Long userId, @Param("borrowDate") LocalDate borrowDate,
+            @Param("id") Long id, @Param("limit") int limit);
+
+    @Query("SELECT b.id FROM Borrow b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Cặp [id phiếu mượn, id người mượn] cho lịch sử kho
+    @Query("SELECT b.id, u.id FROM Borrow b LEFT JOIN b.user u WHERE b.id IN :ids")
+    List<Object[]> findUserIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.status FROM Borrow b WHERE b.id = :id")
+    Optional<BorrowStatus> findStatusById(@Param("id") Long id);
 
+    @Modifying
+    @Query("DELETE FROM Borrow b WHERE b.id = :id")
+    int deleteByIdDirect(@Param("id") Long id);
 }
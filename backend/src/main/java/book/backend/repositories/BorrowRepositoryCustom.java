@@ -0,0 +1,15 @@
+package book.backend.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import book.backend.models.dtos.borrow.BorrowFilter;
+import book.backend.models.entities.Borrow;
+
+public interface BorrowRepositoryCustom {
+    /**
+     * Lọc phiếu mượn (kèm người mượn), mới nhất trước, phân trang theo khóa (createdAt, id).
+     * Chỉ điều kiện có giá trị mới vào câu truy vấn để SQL Server chọn đúng chỉ mục cho từng tổ hợp lọc.
+     */
+    List<Borrow> search(BorrowFilter filter, LocalDateTime afterCreatedAt, Long afterId, int limit);
+}
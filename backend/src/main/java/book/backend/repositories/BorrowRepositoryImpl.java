@@ -0,0 +1,64 @@
+package book.backend.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import book.backend.models.dtos.borrow.BorrowFilter;
+import book.backend.models.entities.Borrow;
+import book.backend.models.global.BorrowStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class BorrowRepositoryImpl implements BorrowRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Borrow> search(BorrowFilter filter, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT b FROM Borrow b LEFT JOIN FETCH b.user WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            jpql.append(" AND b.status IN :statuses");
+            parameters.put("statuses", filter.getStatuses());
+        }
+        if (filter.getUserId() != null) {
+            // So trực tiếp cột khóa ngoại userId, không JOIN sang Users
+            jpql.append(" AND b.user.id = :userId");
+            parameters.put("userId", filter.getUserId());
+        }
+        appendRange(jpql, parameters, "borrowDate", filter.getBorrowFrom(), filter.getBorrowTo());
+        appendRange(jpql, parameters, "returnDate", filter.getReturnFrom(), filter.getReturnTo());
+        if (filter.isOverdueOnly()) {
+            jpql.append(" AND b.status IN :onLoan AND b.actualReturnDate IS NULL AND b.returnDate < :today");
+            parameters.put("onLoan", List.of(BorrowStatus.BORROWING, BorrowStatus.OVERDUE));
+            parameters.put("today", LocalDate.now());
+        }
+        if (afterCreatedAt != null) {
+            jpql.append(" AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id))");
+            parameters.put("createdAt", afterCreatedAt);
+            parameters.put("id", afterId);
+        }
+        jpql.append(" ORDER BY b.createdAt DESC, b.id DESC");
+
+        TypedQuery<Borrow> query = entityManager.createQuery(jpql.toString(), Borrow.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static void appendRange(StringBuilder jpql, Map<String, Object> parameters, String field,
+            LocalDate from, LocalDate to) {
+        if (from != null) {
+            jpql.append(" AND b.").append(field).append(" >= :").append(field).append("From");
+            parameters.put(field + "From", from);
+        }
+        if (to != null) {
+            jpql.append(" AND b.").append(field).append(" <= :").append(field).append("To");
+            parameters.put(field + "To", to);
+        }
+    }
+}
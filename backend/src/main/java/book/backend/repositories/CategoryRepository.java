@@ -1,13 +1,23 @@
 package book.backend.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.entities.Category;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-        Optional<Category> findByCategoryname(String categoryname);
+    @Cacheable(cacheNames = CacheNames.CATEGORY_IDS_BY_NAME, unless = "#result == null")
+    @Query("SELECT c.id FROM Category c WHERE c.categoryname = :categoryname")
+    Optional<Long> findIdByCategoryname(@Param("categoryname") String categoryname);
+
+    @Query("SELECT c.categoryname, c.id FROM Category c")
+    List<Object[]> findAllNameIds();
 }
@@ -0,0 +1,41 @@
+package book.backend.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import book.backend.models.entities.InventoryHistory;
+
+public interface InventoryHistoryRepository extends JpaRepository<InventoryHistory, Long> {
+    // Chép thẳng trong database bằng INSERT ... SELECT, dữ liệu sự kiện không đi qua ứng dụng
+    @Modifying
+    @Query("INSERT INTO InventoryHistory (outboxId, type, borrowId, borrowDetailId, bookId, userId, quantity, actor, "
+        + "occurredAt, recordedAt) "
+        + "SELECT o.id, o.type, o.borrowId, o.borrowDetailId, o.bookId, o.userId, o.quantity, o.actor, o.occurredAt, "
+        + ":recordedAt FROM InventoryOutbox o WHERE o.id IN :ids")
+    int copyFromOutbox(@Param("ids") Collection<Long> ids, @Param("recordedAt") LocalDateTime recordedAt);
+
+    @Query("SELECT h FROM InventoryHistory h WHERE h.bookId = :bookId ORDER BY h.occurredAt DESC, h.id DESC")
+    List<InventoryHistory> findBookFirstPage(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query("SELECT h FROM InventoryHistory h WHERE h.bookId = :bookId "
+        + "AND (h.occurredAt < :occurredAt OR (h.occurredAt = :occurredAt AND h.id < :id)) "
+        + "ORDER BY h.occurredAt DESC, h.id DESC")
+    List<InventoryHistory> findBookPageAfter(@Param("bookId") Long bookId, @Param("occurredAt") LocalDateTime occurredAt,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT h FROM InventoryHistory h WHERE h.userId = :userId ORDER BY h.occurredAt DESC, h.id DESC")
+    List<InventoryHistory> findUserFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT h FROM InventoryHistory h WHERE h.userId = :userId "
+        + "AND (h.occurredAt < :occurredAt OR (h.occurredAt = :occurredAt AND h.id < :id)) "
+        + "ORDER BY h.occurredAt DESC, h.id DESC")
+    List<InventoryHistory> findUserPageAfter(@Param("userId") Long userId, @Param("occurredAt") LocalDateTime occurredAt,
+            @Param("id") Long id, Pageable pageable);
+}
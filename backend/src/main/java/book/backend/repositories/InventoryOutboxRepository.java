@@ -0,0 +1,21 @@
+package book.backend.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import book.backend.models.entities.InventoryOutbox;
+
+public interface InventoryOutboxRepository extends JpaRepository<InventoryOutbox, Long> {
+    @Query("SELECT o.id FROM InventoryOutbox o ORDER BY o.id")
+    List<Long> findNextIds(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM InventoryOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
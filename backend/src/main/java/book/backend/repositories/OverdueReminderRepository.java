@@ -0,0 +1,31 @@
+package book.backend.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import book.backend.models.entities.OverdueReminder;
+import book.backend.models.global.BorrowStatus;
+
+public interface OverdueReminderRepository extends JpaRepository<OverdueReminder, Long> {
+    // Thêm nhắc nhở cho cả lô bằng một câu INSERT ... SELECT, chỉ lấy phiếu vừa được đánh dấu trong lượt này
+    @Modifying
+    @Query("INSERT INTO OverdueReminder (borrowId, userId, returnDate, queuedAt) "
+        + "SELECT b.id, u.id, b.returnDate, :markedAt FROM Borrow b LEFT JOIN b.user u "
+        + "WHERE b.id IN :ids AND b.status = :status AND b.updatedAt = :markedAt")
+    int enqueueMarked(@Param("ids") Collection<Long> ids, @Param("status") BorrowStatus status,
+            @Param("markedAt") LocalDateTime markedAt);
+
+    @Query("SELECT r FROM OverdueReminder r ORDER BY r.id")
+    List<OverdueReminder> findNext(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OverdueReminder r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
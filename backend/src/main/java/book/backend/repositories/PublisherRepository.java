@@ -1,13 +1,23 @@
 package book.backend.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.entities.Publisher;
 
 @Repository
 public interface PublisherRepository extends JpaRepository<Publisher, Long> {
-    Optional<Publisher> findByPublisherName(String publisherName);
+    @Cacheable(cacheNames = CacheNames.PUBLISHER_IDS_BY_NAME, unless = "#result == null")
+    @Query("SELECT p.id FROM Publisher p WHERE p.publisherName = :publisherName")
+    Optional<Long> findIdByPublisherName(@Param("publisherName") String publisherName);
+
+    @Query("SELECT p.publisherName, p.id FROM Publisher p")
+    List<Object[]> findAllNameIds();
 }
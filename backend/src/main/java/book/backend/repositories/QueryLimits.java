@@ -0,0 +1,10 @@
+package book.backend.repositories;
+
+// Giới hạn dùng chung cho các câu truy vấn viết tay trên repository
+public final class QueryLimits {
+    // Số id tối đa trong một mệnh đề IN (...), giữ dưới giới hạn 2100 tham số của SQL Server
+    public static final int MAX_IN_PARAMETERS = 1000;
+
+    private QueryLimits() {
+    }
+}
@@ -1,14 +1,25 @@
 package book.backend.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.entities.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByFullName(String fullName);
     Optional<User> findByUsername(String username);
+
+    @Cacheable(cacheNames = CacheNames.USER_IDS_BY_FULL_NAME, unless = "#result == null")
+    @Query("SELECT u.id FROM User u WHERE u.fullName = :fullName")
+    Optional<Long> findIdByFullName(@Param("fullName") String fullName);
+
+    @Query("SELECT u.fullName, u.id FROM User u")
+    List<Object[]> findAllNameIds();
 }
@@ -3,9 +3,12 @@ package book.backend.services.implement;
 import java.util.Comparator;
 import java.util.List;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.dtos.author.AuthorRequest;
 import book.backend.models.dtos.author.AuthorResponse;
 import book.backend.models.dtos.author.AuthorUpdateRequest;
@@ -13,13 +16,21 @@ import book.backend.models.entities.Author;
 import book.backend.models.global.ApiResult;
 import book.backend.repositories.AuthorRepository;
 import book.backend.services.interfaces.IAuthorServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.ReferenceListCache;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
 
 @Service
 public class AuthorServices implements IAuthorServices {
     private final AuthorRepository authorRepository;
+    private final IStatsServices statsServices;
+    private final ReferenceListCache referenceLists;
 
-    public AuthorServices(AuthorRepository authorRepository) {
+    public AuthorServices(AuthorRepository authorRepository, IStatsServices statsServices, ReferenceListCache referenceLists) {
         this.authorRepository = authorRepository;
+        this.statsServices = statsServices;
+        this.referenceLists = referenceLists;
     }
     @Override
     public ApiResult<AuthorResponse> getAuthorDetail(Long id) {
@@ -37,16 +48,21 @@ public class AuthorServices implements IAuthorServices {
 
     @Override
     public ApiResult<List<AuthorResponse>> getsAuthor() {
+        List<AuthorResponse> authors = referenceLists.get(CacheNames.AUTHORS, this::loadAuthors);
+        return ApiResult.success(authors, "Lấy danh sách tác giả thành công");
+    }
+
+    private List<AuthorResponse> loadAuthors() {
         List<Author> authors = authorRepository.findAll();
-        List<AuthorResponse> responseList = authors.stream()
+        return authors.stream()
                 .map(author -> new AuthorResponse(author.getId(), author.getAuthorname(), author.getBirthYear(), author.getNationality(), author.getCreatedAt()))
                 .sorted(Comparator.comparing(AuthorResponse::getCreatedAt).reversed())
                 .toList();
-        return ApiResult.success(responseList, "Lấy danh sách tác giả thành công");
     }
 
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.AUTHORS, allEntries = true)
     public ApiResult<Long> createAuthor(AuthorRequest request) {
         Author author = new Author();
         author.setAuthorname(request.getAuthorname());
@@ -54,10 +70,16 @@ public class AuthorServices implements IAuthorServices {
         author.setBirthYear(request.getBirthYear());
 
         authorRepository.save(author);
+        statsServices.adjustAuthors(1);
+        TableVersions.bump(Table.AUTHORS);
         return ApiResult.success(author.getId(), "Tạo tác giả thành công");
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheNames.AUTHORS, allEntries = true),
+        @CacheEvict(cacheNames = CacheNames.AUTHOR_IDS_BY_NAME, allEntries = true)
+    })
     public ApiResult<String> updateAuthor(Long id, AuthorUpdateRequest apiRequest) {
         Author author = authorRepository.findById(id)
                 .orElseThrow(() -> new UserMessageException("Tác giả không tồn tại"));
@@ -66,14 +88,21 @@ public class AuthorServices implements IAuthorServices {
         author.setNationality(apiRequest.getNationality());
         author.setBirthYear(apiRequest.getBirthYear());
         authorRepository.save(author);
+        TableVersions.bump(Table.AUTHORS);
         return ApiResult.success(null, "Cập nhật tác giả thành công");
     }
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheNames.AUTHORS, allEntries = true),
+        @CacheEvict(cacheNames = CacheNames.AUTHOR_IDS_BY_NAME, allEntries = true)
+    })
     public ApiResult<String> deleteAuthor(Long id) {
         Author author = authorRepository.findById(id)
                 .orElseThrow(() -> new UserMessageException("Tác giả không tồn tại"));
         authorRepository.delete(author);
+        statsServices.adjustAuthors(-1);
 
+        TableVersions.bump(Table.AUTHORS);
         return ApiResult.success(null, "Xóa tác giả thành công");
     }
 }
@@ -0,0 +1,117 @@
+package book.backend.services.implement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.book.BookImportJobResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.services.importing.BookImportJob;
+import book.backend.services.importing.BookImportPipeline;
+import book.backend.services.interfaces.IBookImportServices;
+import book.backend.services.interfaces.IBookSearchServices;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class BookImportServices implements IBookImportServices {
+    // Số lần nhập đã xong còn được giữ lại để xem kết quả
+    private static final int MAX_FINISHED_JOBS = 20;
+
+    private final BookImportPipeline pipeline;
+    private final IBookSearchServices bookSearchServices;
+    private final Map<String, BookImportJob> jobs = new ConcurrentHashMap<>();
+    // Mỗi lần chỉ chạy một lần nhập, các file gửi sau xếp hàng chờ
+    private final ExecutorService runner;
+
+    public BookImportServices(BookImportPipeline pipeline, IBookSearchServices bookSearchServices,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.pipeline = pipeline;
+        this.bookSearchServices = bookSearchServices;
+        Thread.Builder thread = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        this.runner = Executors.newSingleThreadExecutor(thread.name("book-import").factory());
+    }
+
+    @Override
+    public ApiResult<BookImportJobResponse> startImport(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new UserMessageException("Vui lòng chọn file cần nhập!");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+        String extension = fileName.contains(".")
+                ? fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT) : "";
+        if (!extension.equals("csv") && !extension.equals("json") && !extension.equals("ndjson")) {
+            throw new UserMessageException("Chỉ hỗ trợ file .csv, .json hoặc .ndjson!");
+        }
+
+        // File upload bị xóa khi request kết thúc nên phải chép ra file tạm trước khi chạy nền
+        Path temp;
+        try {
+            temp = Files.createTempFile("book-import-", "." + extension);
+            file.transferTo(temp);
+        } catch (IOException ex) {
+            throw new UserMessageException("Không lưu được file nhập!");
+        }
+
+        BookImportJob job = new BookImportJob(UUID.randomUUID().toString(), fileName);
+        evictFinishedJobs();
+        jobs.put(job.getId(), job);
+        runner.submit(() -> run(job, temp, !extension.equals("csv")));
+        return ApiResult.success(job.toResponse(), "Đã nhận file, đang nhập sách");
+    }
+
+    @Override
+    public ApiResult<BookImportJobResponse> getImportJob(String jobId) {
+        BookImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new UserMessageException("Không tìm thấy lần nhập sách!");
+        }
+        return ApiResult.success(job.toResponse(), "Lấy tiến độ nhập sách thành công");
+    }
+
+    private void run(BookImportJob job, Path file, boolean json) {
+        job.start();
+        try {
+            pipeline.run(job, file, json);
+            job.complete();
+        } catch (UserMessageException ex) {
+            job.fail(ex.getMessage());
+        } catch (Exception ex) {
+            job.fail("Nhập sách bị dừng: " + ex.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // File tạm sẽ được hệ điều hành dọn
+            }
+        }
+        // Sách được INSERT thẳng bằng JDBC nên dựng lại chỉ mục tìm kiếm một lần sau khi nhập xong
+        if (job.getRowsInserted() > 0) {
+            bookSearchServices.rebuild();
+        }
+    }
+
+    private void evictFinishedJobs() {
+        jobs.values().stream()
+                .filter(BookImportJob::isFinished)
+                .sorted(Comparator.comparing(BookImportJob::getFinishedAt).reversed())
+                .skip(MAX_FINISHED_JOBS)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+}
@@ -0,0 +1,90 @@
+package book.backend.services.implement;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.dtos.book.BookSearchResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
+import book.backend.repositories.BookRepository;
+import book.backend.services.interfaces.IBookSearchServices;
+import book.backend.services.search.BookDocument;
+import book.backend.services.search.BookSearchIndex;
+import book.backend.services.search.SearchHits;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+
+@Service
+public class BookSearchServices implements IBookSearchServices {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+
+    public BookSearchServices(BookRepository bookRepository, BookSearchIndex searchIndex) {
+        this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+    }
+
+    // Dựng chỉ mục từ database khi ứng dụng khởi động, sau đó BookServices cập nhật dần theo từng thay đổi
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Nạp vào chỉ mục mới rồi mới đổi, tìm kiếm vẫn thấy đủ sách trong suốt lúc dựng lại
+    @Override
+    public void rebuild() {
+        searchIndex.rebuild(rebuilt -> {
+            Pageable limit = PageRequest.of(0, REBUILD_BATCH_SIZE);
+            List<BookGetsResponse> batch = bookRepository.findBatchAfterId(0L, limit);
+            while (!batch.isEmpty()) {
+                batch.forEach(book -> rebuilt.index(BookDocument.from(book)));
+                if (batch.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                batch = bookRepository.findBatchAfterId(batch.get(batch.size() - 1).getId(), limit);
+            }
+        });
+        // Kết quả tìm kiếm đổi theo chỉ mục mới mà không có lần ghi nào qua service,
+        // tăng phiên bản để ETag cũ của /search không còn trả 304 với kết quả trước khi dựng lại
+        TableVersions.bump(Table.BOOKS);
+    }
+
+    @Override
+    public ApiResult<BookSearchResponse> search(String query, String category, String publisher, String language,
+            Integer page, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        int pageIndex = page == null ? 0 : Math.max(page, 0);
+        // Tính bằng long để page lớn không tràn số; trang sâu hơn cửa sổ xếp hạng thì từ chối thay vì dựng heap khổng lồ
+        long offset = (long) pageIndex * pageSize;
+        if (offset + pageSize > BookSearchIndex.MAX_WINDOW) {
+            throw new UserMessageException("Chỉ xem được " + BookSearchIndex.MAX_WINDOW
+                    + " kết quả đầu tiên, vui lòng thu hẹp từ khóa hoặc bộ lọc");
+        }
+        SearchHits hits = searchIndex.search(query, category, publisher, language, (int) offset, pageSize);
+
+        // Chỉ mục chỉ trả id theo thứ tự điểm, dữ liệu hiển thị lấy bằng một câu IN rồi sắp lại theo thứ tự đó
+        List<BookGetsResponse> items = List.of();
+        if (!hits.bookIds().isEmpty()) {
+            Map<Long, Integer> order = hits.bookIds().stream()
+                    .collect(Collectors.toMap(Function.identity(), hits.bookIds()::indexOf));
+            items = bookRepository.findResponsesByIdIn(hits.bookIds()).stream()
+                    .sorted(Comparator.comparing(book -> order.get(book.getId())))
+                    .collect(Collectors.toList());
+        }
+        BookSearchResponse response = new BookSearchResponse(items, hits.total(), pageIndex, pageSize, hits.facets());
+        return ApiResult.success(response, "Tìm kiếm sách thành công");
+    }
+}
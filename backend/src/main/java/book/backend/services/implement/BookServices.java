@@ -1,9 +1,11 @@
 package book.backend.services.implement;
 
-import java.util.Comparator;
 import java.util.List;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import book.backend.models.dtos.book.BookGetsResponse;
 import book.backend.models.dtos.book.BookRequest;
@@ -14,63 +16,80 @@ import book.backend.models.entities.Category;
 import book.backend.models.entities.Publisher;
 import book.backend.models.entities.User;
 import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
+import book.backend.models.global.KeysetCursor;
 import book.backend.repositories.AuthorRepository;
 import book.backend.repositories.BookRepository;
 import book.backend.repositories.CategoryRepository;
 import book.backend.repositories.PublisherRepository;
 import book.backend.repositories.UserRepository;
 import book.backend.services.interfaces.IBookServices;
+import book.backend.services.interfaces.IInventoryServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.search.BookDocument;
+import book.backend.services.search.BookSearchIndex;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+import book.backend.services.support.TransactionHooks;
 
 @Service
 public class BookServices implements IBookServices {
+
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final CategoryRepository categoryRepository;
     private final PublisherRepository publisherRepository;
     private final UserRepository userRepository;
+    private final IInventoryServices inventoryServices;
+    private final IStatsServices statsServices;
+    private final BookSearchIndex searchIndex;
 
     public BookServices(
         BookRepository bookRepository,
         CategoryRepository categoryRepository,
         AuthorRepository authorRepository,
         PublisherRepository publisherRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        IInventoryServices inventoryServices,
+        IStatsServices statsServices,
+        BookSearchIndex searchIndex
     ) {
         this.bookRepository = bookRepository;
         this.categoryRepository = categoryRepository;
         this.authorRepository = authorRepository;
         this.publisherRepository = publisherRepository;
         this.userRepository = userRepository;
+        this.inventoryServices = inventoryServices;
+        this.statsServices = statsServices;
+        this.searchIndex = searchIndex;
     }
 
     @Override
     public ApiResult<List<BookGetsResponse>> getsBook() {
-        List<Book> books = bookRepository.findAll();
-        List<BookGetsResponse> responseList = books.stream()
-            .map(book -> new BookGetsResponse(
-                book.getId(),
-                book.getTitle(),
-                book.getAuthor() != null ? book.getAuthor().getAuthorname() : null,
-                book.getAuthor() != null ? book.getAuthor().getId() : null,
-                book.getCategory() != null ? book.getCategory().getCategoryname() : null,
-                book.getCategory() != null ? book.getCategory().getId() : null,
-                book.getPublisher() != null ? book.getPublisher().getPublisherName() : null,
-                book.getPublisher() != null ? book.getPublisher().getId() : null,
-                book.getYearPublished(),
-                book.getPrice(),
-                book.getQuantity(),
-                book.getQuantityAvailable(),
-                book.getDescription(),
-                book.getLanguage(),
-                book.getUser() != null ? book.getUser().getFullName() : null,
-                book.getCreatedAt()
-            ))
-            .sorted(Comparator.comparing(BookGetsResponse::getCreatedAt).reversed())
-            .toList();
+        List<BookGetsResponse> responseList = bookRepository.findAllResponses();
         return ApiResult.success(responseList, "Lấy danh sách sách thành công");
     }
 
     @Override
+    public ApiResult<CursorPage<BookGetsResponse>> getsBookPage(String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        // Lấy dư một dòng để biết còn trang sau hay không mà không cần COUNT(*)
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<BookGetsResponse> books;
+        if (cursor == null || cursor.isBlank()) {
+            books = bookRepository.findFirstPage(limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            books = bookRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+
+        CursorPage<BookGetsResponse> page = CursorPage.of(books, pageSize,
+                last -> new KeysetCursor(last.getCreatedAt(), last.getId()));
+        return ApiResult.success(page, "Lấy danh sách sách thành công");
+    }
+
+    @Override
+    @Transactional
     public ApiResult<Long> createBook(BookRequest request) {
         Book book = new Book();
         book.setTitle(request.getTitle());
@@ -81,30 +100,40 @@ public class BookServices implements IBookServices {
         book.setLanguage(request.getLanguage());
 
         // Đúng repository cho từng entity
-        Author author = authorRepository.findByAuthorname(request.getAuthorName())
+        Author author = authorRepository.findIdByAuthorname(request.getAuthorName())
+            .map(authorRepository::getReferenceById)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy tác giả"));
         book.setAuthor(author);
 
-        Category category = categoryRepository.findByCategoryname(request.getCategory())
+        Category category = categoryRepository.findIdByCategoryname(request.getCategory())
+            .map(categoryRepository::getReferenceById)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy thể loại"));
         book.setCategory(category);
 
-        Publisher publisher = publisherRepository.findByPublisherName(request.getPublisher())
+        Publisher publisher = publisherRepository.findIdByPublisherName(request.getPublisher())
+            .map(publisherRepository::getReferenceById)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy nhà xuất bản"));
         book.setPublisher(publisher);
 
-        User user = userRepository.findByFullName(request.getUser())
+        User user = userRepository.findIdByFullName(request.getUser())
+            .map(userRepository::getReferenceById)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         book.setUser(user);
 
         bookRepository.save(book);
+        statsServices.adjustBooks(1, book.getQuantity(), book.getQuantityAvailable());
+        BookDocument document = BookDocument.from(book);
+        TransactionHooks.afterCommit(() -> searchIndex.index(document));
+        TableVersions.bump(Table.BOOKS);
         return ApiResult.success(book.getId(), "Tạo sách thành công");
     }
 
     @Override
+    @Transactional
     public ApiResult<String> updateBook(Long id, BookUpdateRequest request) {
         Book book = bookRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy sách"));
+        int oldQuantity = book.getQuantity();
         book.setTitle(request.getTitle());
         book.setYearPublished(request.getYearPublished());
         book.setPrice(request.getPrice());
@@ -112,18 +141,27 @@ public class BookServices implements IBookServices {
         book.setDescription(request.getDescription());
         book.setLanguage(request.getLanguage());
 
-        Author author = authorRepository.findByAuthorname(request.getAuthorName())
+        Author author = authorRepository.findIdByAuthorname(request.getAuthorName())
+            .map(authorRepository::getReferenceById)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy tác giả"));
         book.setAuthor(author);
 
-        Category category = categoryRepository.findByCategoryname(request.getCategory())
+        Category category = categoryRepository.findIdByCategoryname(request.getCategory())
+            .map(categoryRepository::getReferenceById)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy thể loại"));
         book.setCategory(category);
 
-        Publisher publisher = publisherRepository.findByPublisherName(request.getPublisher())
+        Publisher publisher = publisherRepository.findIdByPublisherName(request.getPublisher())
+            .map(publisherRepository::getReferenceById)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy nhà xuất bản"));
         book.setPublisher(publisher);
         bookRepository.save(book);
+        // Tăng/giảm tổng số lượng thì số lượng khả dụng cũng thay đổi tương ứng (không cho giảm dưới số đang cho mượn)
+        inventoryServices.adjust(book.getId(), book.getQuantity() - oldQuantity);
+        statsServices.adjustBooks(0, book.getQuantity() - oldQuantity, 0);
+        BookDocument document = BookDocument.from(book);
+        TransactionHooks.afterCommit(() -> searchIndex.index(document));
+        TableVersions.bump(Table.BOOKS);
         return ApiResult.success(null, "Cập nhật sách thành công");
     }
 
@@ -132,31 +170,16 @@ public class BookServices implements IBookServices {
         Book book = bookRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy sách"));
         bookRepository.delete(book);
+        statsServices.adjustBooks(-1, -book.getQuantity(), -book.getQuantityAvailable());
+        TransactionHooks.afterCommit(() -> searchIndex.remove(id));
+        TableVersions.bump(Table.BOOKS);
         return ApiResult.success(null, "Xóa sách thành công");
     }
 
     @Override
     public ApiResult<BookGetsResponse> getBookDetail(Long id) {
-        Book book = bookRepository.findById(id)
+        BookGetsResponse response = bookRepository.findResponseById(id)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy sách"));
-        BookGetsResponse response = new BookGetsResponse(
-            book.getId(),
-            book.getTitle(),
-            book.getAuthor() != null ? book.getAuthor().getAuthorname() : null,
-            book.getAuthor() != null ? book.getAuthor().getId() : null,
-            book.getCategory() != null ? book.getCategory().getCategoryname() : null,
-            book.getCategory() != null ? book.getCategory().getId() : null,
-            book.getPublisher() != null ? book.getPublisher().getPublisherName() : null,
-            book.getPublisher() != null ? book.getPublisher().getId() : null,
-            book.getYearPublished(),
-            book.getPrice(),
-            book.getQuantity(),
-            book.getQuantityAvailable(),
-            book.getDescription(),
-            book.getLanguage(),
-            book.getUser() != null ? book.getUser().getFullName() : null,
-            book.getCreatedAt()
-        );
         return ApiResult.success(response, "Lấy chi tiết sách thành công");
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package book.backend.services.implement;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -13,24 +17,41 @@ import book.backend.models.dtos.borrowdetail.BorrowDetailRequest;
 import book.backend.models.entities.Book;
 import book.backend.models.entities.Borrow;
 import book.backend.models.entities.BorrowDetail;
+import book.backend.models.entities.InventoryOutbox;
 import book.backend.models.global.ApiResult;
+import book.backend.models.global.BorrowStatus;
 import book.backend.repositories.BookRepository;
 import book.backend.repositories.BorrowDetailRepository;
 import book.backend.repositories.BorrowRepository;
+import book.backend.repositories.QueryLimits;
 import book.backend.services.interfaces.IBorrowDetailServices;
+import book.backend.services.interfaces.IInventoryHistoryServices;
+import book.backend.services.interfaces.IInventoryServices;
+import book.backend.services.interfaces.IOverdueServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
 
 @Service
 public class BorrowDetailService implements IBorrowDetailServices {
-
     private final BorrowDetailRepository borrowDetailRepository;
     private final BorrowRepository borrowRepository;
     private final BookRepository bookRepository;
+    private final IInventoryServices inventoryServices;
+    private final IStatsServices statsServices;
+    private final IInventoryHistoryServices inventoryHistoryServices;
+    private final IOverdueServices overdueServices;
 
     public BorrowDetailService(BorrowDetailRepository borrowDetailRepository, BorrowRepository borrowRepository,
-            BookRepository bookRepository) {
+            BookRepository bookRepository, IInventoryServices inventoryServices, IStatsServices statsServices,
+            IInventoryHistoryServices inventoryHistoryServices, IOverdueServices overdueServices) {
         this.borrowDetailRepository = borrowDetailRepository;
         this.borrowRepository = borrowRepository;
         this.bookRepository = bookRepository;
+        this.inventoryServices = inventoryServices;
+        this.statsServices = statsServices;
+        this.inventoryHistoryServices = inventoryHistoryServices;
+        this.overdueServices = overdueServices;
     }
 
     @Override
@@ -62,56 +83,61 @@ public class BorrowDetailService implements IBorrowDetailServices {
     public ApiResult<Long> createBorrowDetail(BorrowDetailRequest request) {
         Borrow borrow = borrowRepository.findById(request.getBorrowId())
                 .orElseThrow(() -> new UserMessageException("Không tìm thấy phiếu mượn!"));
-        Book book = bookRepository.findById(request.getBookId())
-                .orElseThrow(() -> new UserMessageException("Sách không tồn tại!"));
         if (request.getQuantity() == null || request.getQuantity() <= 0) {
             throw new UserMessageException("Số lượng phải lớn hơn 0!");
         }
-        if (book.getQuantityAvailable() < request.getQuantity()) {
-            throw new UserMessageException("Số lượng sách không đủ để mượn!");
-        }
+        inventoryServices.reserve(request.getBookId(), request.getQuantity());
 
         BorrowDetail borrowDetail = new BorrowDetail();
         borrowDetail.setBorrow(borrow);
-        borrowDetail.setBook(book);
+        borrowDetail.setBook(bookRepository.getReferenceById(request.getBookId()));
         borrowDetail.setQuantity(request.getQuantity());
-
-        book.setQuantityAvailable(book.getQuantityAvailable() - request.getQuantity());
-        bookRepository.save(book);
         borrowDetailRepository.save(borrowDetail);
+        inventoryHistoryServices.record(List.of(InventoryOutbox.of(IInventoryHistoryServices.BORROWED,
+                borrow.getId(), borrowDetail.getId(), request.getBookId(), -request.getQuantity())));
 
+        TableVersions.bump(Table.BORROW_DETAILS);
         return ApiResult.success(borrowDetail.getId(), "Tạo chi tiết phiếu mượn thành công");
     }
 
+    // Toàn bộ lô chỉ tốn: 1 câu kiểm tra phiếu mượn, 1 câu UPDATE kho cho mỗi 400 sách,
+    // và các lô INSERT JDBC (id lấy trước theo khối từ sequence)
     @Transactional
     public ApiResult<List<Long>> createBorrowDetails(List<BorrowDetailRequest> requests) {
         if (requests == null || requests.isEmpty()) {
             throw new UserMessageException("Danh sách chi tiết phiếu mượn không được rỗng!");
         }
 
-        List<Long> detailIds = requests.stream().map(request -> {
-            Borrow borrow = borrowRepository.findById(request.getBorrowId())
-                    .orElseThrow(() -> new UserMessageException("Không tìm thấy phiếu mượn!"));
-            Book book = bookRepository.findById(request.getBookId())
-                    .orElseThrow(() -> new UserMessageException("Sách không tồn tại!"));
+        Set<Long> borrowIds = new HashSet<>();
+        Map<Long, Integer> quantitiesByBook = new LinkedHashMap<>();
+        for (BorrowDetailRequest request : requests) {
             if (request.getQuantity() == null || request.getQuantity() <= 0) {
                 throw new UserMessageException("Số lượng phải lớn hơn 0!");
             }
-            if (book.getQuantityAvailable() < request.getQuantity()) {
-                throw new UserMessageException("Số lượng sách không đủ để mượn!");
-            }
+            borrowIds.add(request.getBorrowId());
+            quantitiesByBook.merge(request.getBookId(), request.getQuantity(), Integer::sum);
+        }
+
+        if (borrowRepository.findExistingIds(borrowIds).size() != borrowIds.size()) {
+            throw new UserMessageException("Không tìm thấy phiếu mượn!");
+        }
+        inventoryServices.reserveAll(quantitiesByBook);
 
+        List<BorrowDetail> details = requests.stream().map(request -> {
             BorrowDetail borrowDetail = new BorrowDetail();
-            borrowDetail.setBorrow(borrow);
-            borrowDetail.setBook(book);
+            borrowDetail.setBorrow(borrowRepository.getReferenceById(request.getBorrowId()));
+            borrowDetail.setBook(bookRepository.getReferenceById(request.getBookId()));
             borrowDetail.setQuantity(request.getQuantity());
-
-            book.setQuantityAvailable(book.getQuantityAvailable() - request.getQuantity());
-            bookRepository.save(book);
-            borrowDetailRepository.save(borrowDetail);
-            return borrowDetail.getId();
+            return borrowDetail;
         }).collect(Collectors.toList());
-
+        borrowDetailRepository.saveAll(details);
+        inventoryHistoryServices.record(details.stream()
+                .map(detail -> InventoryOutbox.of(IInventoryHistoryServices.BORROWED, detail.getBorrow().getId(),
+                        detail.getId(), detail.getBook().getId(), -detail.getQuantity()))
+                .collect(Collectors.toList()));
+
+        List<Long> detailIds = details.stream().map(BorrowDetail::getId).collect(Collectors.toList());
+        TableVersions.bump(Table.BORROW_DETAILS);
         return ApiResult.success(detailIds, "Tạo danh sách chi tiết phiếu mượn thành công");
     }
 
@@ -121,44 +147,54 @@ public class BorrowDetailService implements IBorrowDetailServices {
         BorrowDetail detail = borrowDetailRepository.findById(id)
                 .orElseThrow(() -> new UserMessageException("Chi tiết phiếu mượn không tồn tại!"));
         Borrow borrow = detail.getBorrow();
-        Book book = detail.getBook();
+        Long bookId = detail.getBook().getId();
+        BorrowStatus oldStatus = borrow.getStatus();
         int oldQuantity = detail.getQuantity();
+        List<InventoryOutbox> events = new ArrayList<>();
         int newQuantity = request.getQuantity() != null ? request.getQuantity() : oldQuantity;
 
         if (newQuantity <= 0) {
             throw new UserMessageException("Số lượng phải lớn hơn 0!");
         }
 
-        if (request.getBookId() != null) {
+        // Đổi sang sách khác: trả số lượng cũ về sách cũ và luôn trừ đủ số lượng mới ở sách mới (thiếu sách thì báo lỗi),
+        // bất kể trạng thái; phần MUON/DA TRA bên dưới chỉ còn tính chênh lệch so với số vừa trừ
+        if (request.getBookId() != null && !request.getBookId().equals(bookId)) {
             Book newBook = bookRepository.findById(request.getBookId())
                     .orElseThrow(() -> new UserMessageException("Sách không tồn tại!"));
-            if (newBook.getQuantityAvailable() < newQuantity) {
-                throw new UserMessageException("Số lượng sách không đủ để mượn!");
-            }
-            book.setQuantityAvailable(book.getQuantityAvailable() + oldQuantity);
-            bookRepository.save(book);
+            inventoryServices.release(bookId, oldQuantity);
+            events.add(InventoryOutbox.of(IInventoryHistoryServices.BOOK_CHANGED, borrow.getId(), id, bookId, oldQuantity));
+            inventoryServices.reserve(newBook.getId(), newQuantity);
+            events.add(InventoryOutbox.of(IInventoryHistoryServices.BORROWED, borrow.getId(), id, newBook.getId(), -newQuantity));
             detail.setBook(newBook);
-            book = newBook;
+            bookId = newBook.getId();
+            oldQuantity = newQuantity;
         }
 
-        if ("MUON".equalsIgnoreCase(status)) {
-            int quantityDifference = newQuantity - oldQuantity;
-            if (book.getQuantityAvailable() < quantityDifference) {
-                throw new UserMessageException("Số lượng sách không đủ để mượn thêm!");
+        int quantityDifference = newQuantity - oldQuantity;
+        BorrowStatus requested = BorrowStatus.fromCode(status);
+        if (requested == BorrowStatus.BORROWING) {
+            inventoryServices.adjust(bookId, -quantityDifference);
+            if (quantityDifference != 0) {
+                events.add(InventoryOutbox.of(IInventoryHistoryServices.BORROWED, borrow.getId(), id, bookId, -quantityDifference));
             }
-            book.setQuantityAvailable(book.getQuantityAvailable() - quantityDifference);
-            borrow.setStatus("MUON");
-        } else if ("DA TRA".equalsIgnoreCase(status)) {
-            int quantityDifference = newQuantity - oldQuantity;
-            book.setQuantityAvailable(book.getQuantityAvailable() + quantityDifference);
-            borrow.setStatus("DA TRA");
+            borrow.setStatus(BorrowStatus.BORROWING);
+        } else if (requested == BorrowStatus.RETURNED) {
+            inventoryServices.adjust(bookId, quantityDifference);
+            if (quantityDifference != 0) {
+                events.add(InventoryOutbox.of(IInventoryHistoryServices.RETURNED, borrow.getId(), id, bookId, quantityDifference));
+            }
+            borrow.setStatus(BorrowStatus.RETURNED);
         }
 
         detail.setQuantity(newQuantity);
 
         borrowRepository.save(borrow);
         borrowDetailRepository.save(detail);
-        bookRepository.save(book);
+        inventoryHistoryServices.record(events);
+        overdueServices.rewind(borrow);
+        statsServices.adjustBorrowStatus(oldStatus, borrow.getStatus());
+        TableVersions.bump(Table.BORROWS, Table.BORROW_DETAILS);
         return ApiResult.success(null, "Cập nhật chi tiết phiếu mượn thành công");
     }
 
@@ -167,10 +203,11 @@ public class BorrowDetailService implements IBorrowDetailServices {
     public ApiResult<String> deleteBorrowDetail(Long id) {
         BorrowDetail detail = borrowDetailRepository.findById(id)
                 .orElseThrow(() -> new UserMessageException("Chi tiết phiếu mượn không tồn tại!"));
-        Book book = detail.getBook();
-        book.setQuantityAvailable(book.getQuantityAvailable() + detail.getQuantity());
-        bookRepository.save(book);
+        inventoryServices.release(detail.getBook().getId(), detail.getQuantity());
+        inventoryHistoryServices.record(List.of(InventoryOutbox.of(IInventoryHistoryServices.CANCELLED,
+                detail.getBorrow().getId(), id, detail.getBook().getId(), detail.getQuantity())));
         borrowDetailRepository.delete(detail);
+        TableVersions.bump(Table.BORROW_DETAILS);
         return ApiResult.success(null, "Xóa chi tiết phiếu mượn thành công");
     }
 
@@ -180,18 +217,32 @@ public class BorrowDetailService implements IBorrowDetailServices {
             throw new UserMessageException("Danh sách ID không được rỗng!");
         }
 
-        List<BorrowDetail> details = borrowDetailRepository.findAllById(ids);
-        if (details.size() != ids.size()) {
-            throw new UserMessageException("Một số chi tiết phiếu mượn không tồn tại!");
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += QueryLimits.MAX_IN_PARAMETERS) {
+            batches.add(distinctIds.subList(from, Math.min(from + QueryLimits.MAX_IN_PARAMETERS, distinctIds.size())));
         }
 
-        for (BorrowDetail detail : details) {
-            Book book = detail.getBook();
-            book.setQuantityAvailable(book.getQuantityAvailable() + detail.getQuantity());
-            bookRepository.save(book);
+        List<BorrowDetailGetsResponse> details = new ArrayList<>();
+        for (List<Long> batch : batches) {
+            details.addAll(borrowDetailRepository.findResponsesByIdIn(batch));
+        }
+        if (details.size() != distinctIds.size()) {
+            throw new UserMessageException("Một số chi tiết phiếu mượn không tồn tại!");
         }
 
-        borrowDetailRepository.deleteAll(details);
+        // Gom số lượng theo sách để hoàn trả kho bằng một câu UPDATE thay vì từng dòng chi tiết
+        Map<Long, Integer> quantitiesByBook = details.stream()
+                .filter(detail -> detail.getBookId() != null)
+                .collect(Collectors.groupingBy(BorrowDetailGetsResponse::getBookId, LinkedHashMap::new,
+                        Collectors.summingInt(BorrowDetailGetsResponse::getQuantity)));
+        inventoryServices.releaseAll(quantitiesByBook);
+        inventoryHistoryServices.recordCancelled(details);
+
+        for (List<Long> batch : batches) {
+            borrowDetailRepository.deleteByIdIn(batch);
+        }
+        TableVersions.bump(Table.BORROW_DETAILS);
         return ApiResult.success(null, "Xóa danh sách chi tiết phiếu mượn thành công");
     }
-}
\ No newline at end of file
+}
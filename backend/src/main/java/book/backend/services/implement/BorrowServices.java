@@ -2,88 +2,216 @@ package book.backend.services.implement;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.borrow.BorrowFilter;
 import book.backend.models.dtos.borrow.BorrowGetsResponse;
 import book.backend.models.dtos.borrow.BorrowRequest;
+import book.backend.models.dtos.borrow.UserBorrowItemResponse;
+import book.backend.models.dtos.borrow.UserBorrowResponse;
+import book.backend.models.dtos.borrow.UserBorrowRow;
 import book.backend.models.dtos.borrowdetail.BorrowDetailGetsResponse;
-import book.backend.models.entities.Book;
 import book.backend.models.entities.Borrow;
 import book.backend.models.entities.BorrowDetail;
 import book.backend.models.entities.User;
 import book.backend.models.global.ApiResult;
-import book.backend.repositories.BookRepository;
+import book.backend.models.global.BorrowStatus;
+import book.backend.models.global.CursorPage;
+import book.backend.models.global.KeysetCursor;
 import book.backend.repositories.BorrowDetailRepository;
 import book.backend.repositories.BorrowRepository;
+import book.backend.repositories.QueryLimits;
 import book.backend.repositories.UserRepository;
 import book.backend.services.interfaces.IBorrowDetailServices;
 import book.backend.services.interfaces.IBorrowServices;
+import book.backend.services.interfaces.IInventoryHistoryServices;
+import book.backend.services.interfaces.IInventoryServices;
+import book.backend.services.interfaces.IOverdueServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.BusinessMetrics;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+import book.backend.services.support.TransactionHooks;
 
 @Service
 public class BorrowServices implements IBorrowServices {
+    private static final Logger log = LoggerFactory.getLogger(BorrowServices.class);
 
     private final BorrowRepository borrowRepository;
     private final BorrowDetailRepository borrowDetailRepository;
     private final IBorrowDetailServices borrowDetailServices;
     private final UserRepository userRepository;
-    private final BookRepository bookRepository;
+    private final IInventoryServices inventoryServices;
+    private final IStatsServices statsServices;
+    private final IInventoryHistoryServices inventoryHistoryServices;
+    private final IOverdueServices overdueServices;
 
     public BorrowServices(BorrowRepository borrowRepository, BorrowDetailRepository borrowDetailRepository,
-            IBorrowDetailServices borrowDetailServices, UserRepository userRepository, BookRepository bookRepository) {
+            IBorrowDetailServices borrowDetailServices, UserRepository userRepository,
+            IInventoryServices inventoryServices, IStatsServices statsServices,
+            IInventoryHistoryServices inventoryHistoryServices, IOverdueServices overdueServices) {
         this.borrowRepository = borrowRepository;
         this.borrowDetailRepository = borrowDetailRepository;
         this.borrowDetailServices = borrowDetailServices;
         this.userRepository = userRepository;
-        this.bookRepository = bookRepository;
+        this.inventoryServices = inventoryServices;
+        this.statsServices = statsServices;
+        this.inventoryHistoryServices = inventoryHistoryServices;
+        this.overdueServices = overdueServices;
     }
 
     @Override
     @Transactional(readOnly = true)
     public ApiResult<List<BorrowGetsResponse>> getsBorrow() {
-        List<Borrow> borrows = borrowRepository.findAllWithFetch();
-        List<BorrowGetsResponse> response = borrows.stream()
-                .map((Borrow borrow) -> {
-                    try {
-                        // Lấy danh sách BorrowDetailGetsResponse
-                        List<BorrowDetailGetsResponse> detailResponses = borrowDetailServices.getsBorrowDetail(borrow.getId()).getData();
-                        // Lấy userId an toàn
-                        Long userId = (borrow.getUser() != null && borrow.getUser().getId() != null) ? borrow.getUser().getId() : null;
-                        String fullName = (borrow.getUser() != null && borrow.getUser().getFullName() != null) ? borrow.getUser().getFullName() : "";
-                        return BorrowGetsResponse.builder()
-                                .id(borrow.getId())
-                                .borrowDate(borrow.getBorrowDate())
-                                .returnDate(borrow.getReturnDate())
-                                .actualReturnDate(borrow.getActualReturnDate())
-                                .status(borrow.getStatus())
-                                .createdAt(borrow.getCreatedAt())
-                                .updatedAt(borrow.getUpdatedAt())
-                                .userId(userId)
-                                .fullName(fullName)
-                                .details(detailResponses)
-                                .build();
-                    } catch (Exception e) {
-                        System.err.println("Error processing borrow ID " + (borrow.getId() != null ? borrow.getId() : "null") + ": " + e.getMessage());
-                        Long userId = (borrow.getUser() != null && borrow.getUser().getId() != null) ? borrow.getUser().getId() : null;
-                        return BorrowGetsResponse.builder()
-                                .id(borrow.getId())
-                                .borrowDate(borrow.getBorrowDate())
-                                .returnDate(borrow.getReturnDate())
-                                .actualReturnDate(borrow.getActualReturnDate())
-                                .status(borrow.getStatus())
-                                .createdAt(borrow.getCreatedAt())
-                                .updatedAt(borrow.getUpdatedAt())
-                                .userId(userId)
-                                .details(new ArrayList<>())
-                                .build();
-                    }
+        List<Borrow> borrows = borrowRepository.findAllWithUser();
+        return ApiResult.success(toResponses(borrows), "Lấy danh sách phiếu mượn thành công");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResult<CursorPage<BorrowGetsResponse>> getsBorrowPage(String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Borrow> borrows;
+        if (cursor == null || cursor.isBlank()) {
+            borrows = borrowRepository.findFirstPage(limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            borrows = borrowRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+
+        CursorPage<BorrowGetsResponse> page = CursorPage.of(borrows, pageSize, this::toResponses,
+                last -> new KeysetCursor(last.getCreatedAt(), last.getId()));
+        return ApiResult.success(page, "Lấy danh sách phiếu mượn thành công");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResult<CursorPage<BorrowGetsResponse>> searchBorrows(BorrowFilter filter, String cursor, Integer size) {
+        if (isReversed(filter.getBorrowFrom(), filter.getBorrowTo())
+                || isReversed(filter.getReturnFrom(), filter.getReturnTo())) {
+            throw new UserMessageException("Ngày bắt đầu phải trước ngày kết thúc!");
+        }
+        int pageSize = CursorPage.pageSize(size);
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        List<Borrow> borrows = borrowRepository.search(filter,
+                after != null ? after.getCreatedAt() : null, after != null ? after.getId() : null, pageSize + 1);
+
+        CursorPage<BorrowGetsResponse> page = CursorPage.of(borrows, pageSize, this::toResponses,
+                last -> new KeysetCursor(last.getCreatedAt(), last.getId()));
+        return ApiResult.success(page, "Lấy danh sách phiếu mượn thành công");
+    }
+
+    private static boolean isReversed(LocalDate from, LocalDate to) {
+        return from != null && to != null && from.isAfter(to);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResult<CursorPage<UserBorrowResponse>> getsUserBorrows(Long userId, String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<UserBorrowRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = borrowRepository.findUserFirstPage(userId, pageSize + 1);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = borrowRepository.findUserPageAfter(userId, after.getCreatedAt().toLocalDate(), after.getId(),
+                    pageSize + 1);
+        }
+
+        // Các dòng cùng phiếu đứng liền nhau (ORDER BY b.borrowDate DESC, b.id DESC) nên chỉ cần so với phiếu đang gom
+        List<UserBorrowResponse> borrows = new ArrayList<>();
+        UserBorrowResponse current = null;
+        for (UserBorrowRow row : rows) {
+            if (current == null || !current.getId().equals(row.getBorrowId())) {
+                current = UserBorrowResponse.builder()
+                        .id(row.getBorrowId())
+                        .borrowDate(row.getBorrowDate())
+                        .returnDate(row.getReturnDate())
+                        .actualReturnDate(row.getActualReturnDate())
+                        .status(row.getStatus().getCode())
+                        .createdAt(row.getCreatedAt())
+                        .totalQuantity(0)
+                        .details(new ArrayList<>())
+                        .build();
+                borrows.add(current);
+            }
+            if (row.getDetailId() != null) {
+                current.getDetails().add(UserBorrowItemResponse.builder()
+                        .id(row.getDetailId())
+                        .bookId(row.getBookId())
+                        .bookTitle(row.getBookTitle())
+                        .quantity(row.getQuantity())
+                        .build());
+                current.setTotalQuantity(current.getTotalQuantity() + row.getQuantity());
+            }
+        }
+
+        CursorPage<UserBorrowResponse> page = CursorPage.of(borrows, pageSize,
+                last -> new KeysetCursor(last.getBorrowDate().atStartOfDay(), last.getId()));
+        return ApiResult.success(page, "Lấy danh sách phiếu mượn thành công");
+    }
+
+    // Phiếu đã bị bộ quét đánh dấu QUA HAN, hạn trả cũ nhất trước; con trỏ theo (returnDate, id)
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResult<CursorPage<BorrowGetsResponse>> getsOverdue(String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Borrow> borrows;
+        if (cursor == null || cursor.isBlank()) {
+            borrows = borrowRepository.findStatusFirstPage(BorrowStatus.OVERDUE, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            borrows = borrowRepository.findStatusPageAfter(BorrowStatus.OVERDUE,
+                    after.getCreatedAt().toLocalDate(), after.getId(), limit);
+        }
+
+        CursorPage<BorrowGetsResponse> page = CursorPage.of(borrows, pageSize, this::toResponses,
+                last -> new KeysetCursor(last.getReturnDate().atStartOfDay(), last.getId()));
+        return ApiResult.success(page, "Lấy danh sách phiếu quá hạn thành công");
+    }
+
+    // Nạp chi tiết theo lô: mỗi lô QueryLimits.MAX_IN_PARAMETERS phiếu mượn chỉ tốn một câu lệnh IN (...)
+    private List<BorrowGetsResponse> toResponses(List<Borrow> borrows) {
+        Map<Long, List<BorrowDetailGetsResponse>> detailsByBorrow = new HashMap<>();
+        List<Long> borrowIds = borrows.stream().map(Borrow::getId).toList();
+        for (int from = 0; from < borrowIds.size(); from += QueryLimits.MAX_IN_PARAMETERS) {
+            List<Long> batch = borrowIds.subList(from, Math.min(from + QueryLimits.MAX_IN_PARAMETERS, borrowIds.size()));
+            for (BorrowDetailGetsResponse detail : borrowDetailRepository.findResponsesByBorrowIdIn(batch)) {
+                detailsByBorrow.computeIfAbsent(detail.getBorrowId(), key -> new ArrayList<>()).add(detail);
+            }
+        }
+
+        return borrows.stream()
+                .map(borrow -> {
+                    User user = borrow.getUser();
+                    return BorrowGetsResponse.builder()
+                            .id(borrow.getId())
+                            .borrowDate(borrow.getBorrowDate())
+                            .returnDate(borrow.getReturnDate())
+                            .actualReturnDate(borrow.getActualReturnDate())
+                            .status(borrow.getStatus().getCode())
+                            .createdAt(borrow.getCreatedAt())
+                            .updatedAt(borrow.getUpdatedAt())
+                            .userId(user != null ? user.getId() : null)
+                            .fullName(user != null && user.getFullName() != null ? user.getFullName() : "")
+                            .details(detailsByBorrow.getOrDefault(borrow.getId(), new ArrayList<>()))
+                            .build();
                 })
                 .collect(Collectors.toList());
-        return ApiResult.success(response, "Lấy danh sách phiếu mượn thành công");
     }
 
     @Override
@@ -100,7 +228,7 @@ public class BorrowServices implements IBorrowServices {
         try {
             detailResponses = borrowDetailServices.getsBorrowDetail(borrow.getId()).getData();
         } catch (Exception e) {
-            System.err.println("Error getting borrow details for ID " + id + ": " + e.getMessage());
+            log.warn("Không lấy được chi tiết của phiếu mượn {}", id, e);
             detailResponses = new ArrayList<>();
         }
 
@@ -111,7 +239,7 @@ public class BorrowServices implements IBorrowServices {
                 .borrowDate(borrow.getBorrowDate())
                 .returnDate(borrow.getReturnDate())
                 .actualReturnDate(borrow.getActualReturnDate())
-                .status(borrow.getStatus())
+                .status(borrow.getStatus().getCode())
                 .createdAt(borrow.getCreatedAt())
                 .updatedAt(borrow.getUpdatedAt())
                 .userId(userId)
@@ -136,11 +264,15 @@ public class BorrowServices implements IBorrowServices {
         borrow.setUser(user);
         borrow.setBorrowDate(request.getBorrowDate() != null ? request.getBorrowDate() : LocalDate.now());
         borrow.setReturnDate(request.getReturnDate());
-        borrow.setStatus(request.getStatus() != null ? request.getStatus() : "PENDING");
+        borrow.setStatus(request.getStatus() != null ? BorrowStatus.from(request.getStatus()) : BorrowStatus.PENDING);
         borrow.setActualReturnDate(request.getActualReturnDate());
         borrow.setBorrowDetails(new ArrayList<>());
 
         borrowRepository.save(borrow);
+        overdueServices.rewind(borrow);
+        statsServices.adjustBorrowStatus(null, borrow.getStatus());
+        TransactionHooks.afterCommit(BusinessMetrics::borrowCreated);
+        TableVersions.bump(Table.BORROWS, Table.BORROW_DETAILS);
         return ApiResult.success(borrow.getId(), "Tạo phiếu mượn thành công");
     }
 
@@ -149,6 +281,7 @@ public class BorrowServices implements IBorrowServices {
     public ApiResult<String> updateBorrow(Long id, BorrowRequest request) {
         Borrow borrow = borrowRepository.findById(id)
                 .orElseThrow(() -> new UserMessageException("Phiếu mượn không tồn tại!"));
+        BorrowStatus oldStatus = borrow.getStatus();
 
         if (request.getBorrowDate() != null) {
             borrow.setBorrowDate(request.getBorrowDate());
@@ -157,7 +290,7 @@ public class BorrowServices implements IBorrowServices {
             borrow.setReturnDate(request.getReturnDate());
         }
         if (request.getStatus() != null) {
-            borrow.setStatus(request.getStatus());
+            borrow.setStatus(BorrowStatus.from(request.getStatus()));
         }
         if (request.getActualReturnDate() != null) {
             borrow.setActualReturnDate(request.getActualReturnDate());
@@ -167,34 +300,38 @@ public class BorrowServices implements IBorrowServices {
                 && borrow.getReturnDate().isBefore(borrow.getBorrowDate())) {
             throw new UserMessageException("Ngày trả phải sau ngày mượn!");
         }
+        if (borrow.getStatus() == BorrowStatus.OVERDUE && borrow.getReturnDate() == null) {
+            throw new UserMessageException("Phiếu quá hạn phải có ngày trả!");
+        }
 
         borrowRepository.save(borrow);
+        overdueServices.rewind(borrow);
+        statsServices.adjustBorrowStatus(oldStatus, borrow.getStatus());
+        TableVersions.bump(Table.BORROWS, Table.BORROW_DETAILS);
         return ApiResult.success(null, "Cập nhật phiếu mượn thành công");
     }
 
     @Override
     @Transactional
     public ApiResult<String> deleteBorrow(Long id) {
-        // Tìm phiếu mượn
-        Borrow borrow = borrowRepository.findById(id)
+        BorrowStatus status = borrowRepository.findStatusById(id)
                 .orElseThrow(() -> new UserMessageException("Phiếu mượn không tồn tại!"));
 
-        // Tìm tất cả chi tiết phiếu mượn với FETCH JOIN để tránh N+1 query
-        List<BorrowDetail> details = borrowDetailRepository.findByBorrowIdWithFetch(id);
+        // Gom số lượng theo sách để hoàn trả kho bằng một câu UPDATE thay vì từng dòng chi tiết
+        List<BorrowDetailGetsResponse> details = borrowDetailRepository.findResponsesByBorrowIdIn(List.of(id));
+        Map<Long, Integer> quantitiesByBook = details.stream()
+                .filter(detail -> detail.getBookId() != null)
+                .collect(Collectors.groupingBy(BorrowDetailGetsResponse::getBookId, LinkedHashMap::new,
+                        Collectors.summingInt(BorrowDetailGetsResponse::getQuantity)));
+        inventoryServices.releaseAll(quantitiesByBook);
+        inventoryHistoryServices.recordCancelled(details);
 
-        // Hoàn trả số lượng sách về kho
-        for (BorrowDetail detail : details) {
-            if (detail.getBook() != null) {
-                Book book = detail.getBook();
-                // Cộng lại số lượng sách đã mượn vào số lượng khả dụng
-                book.setQuantityAvailable(book.getQuantityAvailable() + detail.getQuantity());
-                bookRepository.save(book);
-            }
-        }
+        // Xóa chi tiết rồi tới phiếu mượn bằng câu DELETE trực tiếp, không nạp entity và cascade từng dòng
+        borrowDetailRepository.deleteByBorrowId(id);
+        borrowRepository.deleteByIdDirect(id);
+        statsServices.adjustBorrowStatus(status, null);
+        TableVersions.bump(Table.BORROWS, Table.BORROW_DETAILS);
 
-        // Xóa phiếu mượn (sẽ tự động xóa các chi tiết nhờ cascade)
-        borrowRepository.delete(borrow);
-        
         return ApiResult.success(null, "Xóa phiếu mượn và các chi tiết thành công");
     }
-}
\ No newline at end of file
+}
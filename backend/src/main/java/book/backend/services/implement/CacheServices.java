@@ -0,0 +1,88 @@
+package book.backend.services.implement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import book.backend.models.dtos.stats.CacheStatsResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.services.interfaces.ICacheServices;
+import book.backend.services.support.ResponseSnapshotCache;
+import jakarta.persistence.EntityManagerFactory;
+
+@Service
+public class CacheServices implements ICacheServices {
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ResponseSnapshotCache snapshotCache;
+
+    public CacheServices(CacheManager cacheManager, EntityManagerFactory entityManagerFactory,
+            ResponseSnapshotCache snapshotCache) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.snapshotCache = snapshotCache;
+    }
+
+    @Override
+    public ApiResult<List<CacheStatsResponse>> getCacheStats() {
+        List<CacheStatsResponse> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                CacheStats stats = caffeine.stats();
+                result.add(CacheStatsResponse.builder()
+                        .layer("spring")
+                        .name(name)
+                        .hits(stats.hitCount())
+                        .misses(stats.missCount())
+                        .puts(stats.loadCount())
+                        .evictions(stats.evictionCount())
+                        .size(caffeine.estimatedSize())
+                        .hitRate(stats.hitRate())
+                        .build());
+            }
+        }
+
+        // Số liệu cache cấp 2 chỉ có khi bật hibernate.generate_statistics
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (statistics.isStatisticsEnabled()) {
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+                long lookups = stats.getHitCount() + stats.getMissCount();
+                result.add(CacheStatsResponse.builder()
+                        .layer("hibernate-l2")
+                        .name(region)
+                        .hits(stats.getHitCount())
+                        .misses(stats.getMissCount())
+                        .puts(stats.getPutCount())
+                        .evictions(-1)
+                        .size(stats.getElementCountInMemory())
+                        .hitRate(lookups == 0 ? 0 : (double) stats.getHitCount() / lookups)
+                        .build());
+            }
+        }
+
+        CacheStats snapshotStats = snapshotCache.stats();
+        result.add(CacheStatsResponse.builder()
+                .layer("response-snapshot")
+                .name("api-lists")
+                .hits(snapshotStats.hitCount())
+                .misses(snapshotStats.missCount())
+                .puts(snapshotStats.loadSuccessCount())
+                .evictions(snapshotStats.evictionCount())
+                .size(snapshotCache.size())
+                .hitRate(snapshotStats.hitRate())
+                .bytes(snapshotCache.weightedSize())
+                .bytesSaved(snapshotCache.bytesSaved())
+                .build());
+        return ApiResult.success(result, "Lấy thống kê cache thành công");
+    }
+}
@@ -3,9 +3,12 @@ package book.backend.services.implement;
 import java.util.Comparator;
 import java.util.List;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.dtos.category.CategoryGetsResponse;
 import book.backend.models.dtos.category.CategoryRequest;
 import book.backend.models.dtos.category.CategoryUpdateRequest;
@@ -13,45 +16,74 @@ import book.backend.models.entities.Category;
 import book.backend.models.global.ApiResult;
 import book.backend.repositories.CategoryRepository;
 import book.backend.services.interfaces.ICategoryServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.ReferenceListCache;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
 
 @Service
 public class CategoryServices implements ICategoryServices {
     private final CategoryRepository categoryRepository;
+    private final IStatsServices statsServices;
+    private final ReferenceListCache referenceLists;
 
-    public CategoryServices(CategoryRepository categoryRepository) {
+    public CategoryServices(CategoryRepository categoryRepository, IStatsServices statsServices, ReferenceListCache referenceLists) {
         this.categoryRepository = categoryRepository;
+        this.statsServices = statsServices;
+        this.referenceLists = referenceLists;
     }
 
     @Override
     public ApiResult<List<CategoryGetsResponse>> getsCategory() {
+        List<CategoryGetsResponse> categories = referenceLists.get(CacheNames.CATEGORIES, this::loadCategories);
+        return ApiResult.success(categories, "Lấy danh sách thể loại thành công");
+    }
+
+    private List<CategoryGetsResponse> loadCategories() {
         List<Category> categories = categoryRepository.findAll();
-        List<CategoryGetsResponse> responseList = categories.stream()
+        return categories.stream()
                 .map(category -> new CategoryGetsResponse(category.getId(), category.getCategoryname(), category.getCreatedAt()))
                 .sorted(Comparator.comparing(CategoryGetsResponse::getCreatedAt).reversed())
                 .toList();
-        return ApiResult.success(responseList, "Lấy danh sách thể loại thành công");
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.CATEGORIES, allEntries = true)
     public ApiResult<Long> createCategory(CategoryRequest request) {
         Category category = new Category();
         category.setCategoryname(request.getCategoryname());
         categoryRepository.save(category);
+        statsServices.adjustCategories(1);
+        TableVersions.bump(Table.CATEGORIES);
         return ApiResult.success(category.getId(), "Tạo thể loại thành công");
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheNames.CATEGORIES, allEntries = true),
+        @CacheEvict(cacheNames = CacheNames.CATEGORY_IDS_BY_NAME, allEntries = true)
+    })
     public ApiResult<String> updateCategory(Long id, CategoryUpdateRequest request) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new UserMessageException("Thể loại không tồn tại"));
         category.setCategoryname(request.getCategoryname());
         categoryRepository.save(category);
+        TableVersions.bump(Table.CATEGORIES);
         return ApiResult.success(null, "Cập nhật thể loại thành công");
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheNames.CATEGORIES, allEntries = true),
+        @CacheEvict(cacheNames = CacheNames.CATEGORY_IDS_BY_NAME, allEntries = true)
+    })
     public ApiResult<String> deleteCategory(Long id) {
+        boolean existed = categoryRepository.existsById(id);
         categoryRepository.deleteById(id);
+        if (existed) {
+            statsServices.adjustCategories(-1);
+        }
+        TableVersions.bump(Table.CATEGORIES);
         return ApiResult.success(null,"Xóa thể loại thành công");
     }
 
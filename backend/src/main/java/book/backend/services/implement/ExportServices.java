@@ -0,0 +1,191 @@
+package book.backend.services.implement;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.dtos.borrow.BorrowExportRow;
+import book.backend.models.dtos.borrow.BorrowGetsResponse;
+import book.backend.models.dtos.borrowdetail.BorrowDetailGetsResponse;
+import book.backend.models.global.ExportFormat;
+import book.backend.repositories.BookRepository;
+import book.backend.repositories.BorrowRepository;
+import book.backend.services.interfaces.IExportServices;
+
+/**
+ * Xuất toàn bộ sách / phiếu mượn theo từng dòng.
+ * Đọc bằng Stream có fetch size và chiếu thẳng vào DTO nên persistence context không giữ entity nào,
+ * mỗi dòng được ghi ra ngay rồi bỏ đi: bộ nhớ dùng không phụ thuộc vào số dòng trong bảng.
+ */
+@Service
+public class ExportServices implements IExportServices {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // BOM để Excel đọc đúng tiếng Việt trong file CSV
+    private static final char UTF8_BOM = '\uFEFF';
+
+    private static final String[] BOOK_HEADER = {
+        "id", "title", "author", "authorId", "category", "categoryId", "publisher", "publisherId",
+        "yearPublished", "price", "quantity", "quantityAvailable", "description", "language", "user", "createdAt"
+    };
+    private static final String[] BORROW_HEADER = {
+        "borrowId", "borrowDate", "returnDate", "actualReturnDate", "status", "createdAt", "updatedAt",
+        "userId", "fullName", "detailId", "bookId", "bookTitle", "quantity"
+    };
+
+    private final BookRepository bookRepository;
+    private final BorrowRepository borrowRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+
+    public ExportServices(BookRepository bookRepository, BorrowRepository borrowRepository, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.borrowRepository = borrowRepository;
+        this.objectMapper = objectMapper;
+        // Để BufferedWriter tự quyết định lúc ghi xuống socket thay vì flush sau từng dòng
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (Stream<BookGetsResponse> books = bookRepository.streamAllResponses()) {
+            if (format == ExportFormat.CSV) {
+                writer.write(UTF8_BOM);
+                writeCsvLine(writer, (Object[]) BOOK_HEADER);
+                for (Iterator<BookGetsResponse> it = books.iterator(); it.hasNext();) {
+                    BookGetsResponse book = it.next();
+                    writeCsvLine(writer, book.getId(), book.getTitle(), book.getAuthor(), book.getAuthorId(),
+                            book.getCategory(), book.getCategoryId(), book.getPublisher(), book.getPublisherId(),
+                            book.getYearPublished(), book.getPrice(), book.getQuantity(), book.getQuantityAvailable(),
+                            book.getDescription(), book.getLanguage(), book.getUser(), book.getCreatedAt());
+                }
+            } else {
+                JsonGenerator generator = newLineGenerator(writer);
+                for (Iterator<BookGetsResponse> it = books.iterator(); it.hasNext();) {
+                    writeJsonLine(generator, it.next());
+                }
+                generator.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBorrows(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (Stream<BorrowExportRow> rows = borrowRepository.streamExportRows()) {
+            if (format == ExportFormat.CSV) {
+                writer.write(UTF8_BOM);
+                writeCsvLine(writer, (Object[]) BORROW_HEADER);
+                for (Iterator<BorrowExportRow> it = rows.iterator(); it.hasNext();) {
+                    BorrowExportRow row = it.next();
+                    writeCsvLine(writer, row.getBorrowId(), row.getBorrowDate(), row.getReturnDate(),
+                            row.getActualReturnDate(), row.getStatus(), row.getCreatedAt(), row.getUpdatedAt(),
+                            row.getUserId(), row.getFullName(), row.getDetailId(), row.getBookId(),
+                            row.getBookTitle(), row.getQuantity());
+                }
+            } else {
+                // Các dòng cùng phiếu đứng liền nhau (ORDER BY b.id) nên chỉ cần giữ phiếu đang gom
+                JsonGenerator generator = newLineGenerator(writer);
+                BorrowGetsResponse current = null;
+                for (Iterator<BorrowExportRow> it = rows.iterator(); it.hasNext();) {
+                    BorrowExportRow row = it.next();
+                    if (current == null || !current.getId().equals(row.getBorrowId())) {
+                        if (current != null) {
+                            writeJsonLine(generator, current);
+                        }
+                        current = toBorrow(row);
+                    }
+                    if (row.getDetailId() != null) {
+                        current.getDetails().add(BorrowDetailGetsResponse.builder()
+                                .id(row.getDetailId())
+                                .borrowId(row.getBorrowId())
+                                .bookId(row.getBookId())
+                                .quantity(row.getQuantity())
+                                .build());
+                    }
+                }
+                if (current != null) {
+                    writeJsonLine(generator, current);
+                }
+                generator.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private BorrowGetsResponse toBorrow(BorrowExportRow row) {
+        return BorrowGetsResponse.builder()
+                .id(row.getBorrowId())
+                .borrowDate(row.getBorrowDate())
+                .returnDate(row.getReturnDate())
+                .actualReturnDate(row.getActualReturnDate())
+                .status(row.getStatus() != null ? row.getStatus().getCode() : null)
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .userId(row.getUserId())
+                .fullName(row.getFullName() != null ? row.getFullName() : "")
+                .details(new ArrayList<>())
+                .build();
+    }
+
+    // Một generator cho cả luồng, không đóng output stream của response
+    private JsonGenerator newLineGenerator(Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private void writeJsonLine(JsonGenerator generator, Object value) throws IOException {
+        lineWriter.writeValue(generator, value);
+        generator.writeRaw('\n');
+    }
+
+    private void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // Theo RFC 4180: bọc trong ngoặc kép khi có dấu phẩy, ngoặc kép hoặc xuống dòng
+    private void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
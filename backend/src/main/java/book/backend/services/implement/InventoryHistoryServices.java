@@ -0,0 +1,188 @@
+package book.backend.services.implement;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import book.backend.models.dtos.borrowdetail.BorrowDetailGetsResponse;
+import book.backend.models.dtos.inventory.InventoryHistoryResponse;
+import book.backend.models.entities.InventoryHistory;
+import book.backend.models.entities.InventoryOutbox;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
+import book.backend.models.global.KeysetCursor;
+import book.backend.repositories.BorrowRepository;
+import book.backend.repositories.InventoryHistoryRepository;
+import book.backend.repositories.InventoryOutboxRepository;
+import book.backend.repositories.QueryLimits;
+import book.backend.services.interfaces.IInventoryHistoryServices;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Lịch sử kho theo mô hình transactional outbox: request chỉ thêm dòng vào InventoryOutbox trong chính
+ * transaction thay đổi kho (một lô INSERT, không phụ thuộc số sự kiện đã tích lũy), bộ chuyển chạy nền
+ * chép từng lô sang InventoryHistory rồi xóa khỏi outbox.
+ * Giả định một instance chạy bộ chuyển; chạy song song thì chỉ mục duy nhất trên outboxId chặn ghi trùng,
+ * lô bị đụng sẽ rollback và được chuyển lại ở lượt sau.
+ */
+@Service
+public class InventoryHistoryServices implements IInventoryHistoryServices {
+    // Mỗi lượt chạy chuyển tối đa chừng này lô rồi nhường lại cho lần lập lịch sau
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final InventoryOutboxRepository outboxRepository;
+    private final InventoryHistoryRepository historyRepository;
+    private final BorrowRepository borrowRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter dispatched = Metrics.counter("inventory.history.dispatched");
+
+    public InventoryHistoryServices(InventoryOutboxRepository outboxRepository,
+            InventoryHistoryRepository historyRepository, BorrowRepository borrowRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory-history.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.historyRepository = historyRepository;
+        this.borrowRepository = borrowRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.min(Math.max(batchSize, 1), QueryLimits.MAX_IN_PARAMETERS);
+    }
+
+    // Gọi trong transaction đang đổi kho: outbox commit hoặc rollback cùng thay đổi đó
+    @Override
+    @Transactional
+    public void record(List<InventoryOutbox> events) {
+        List<InventoryOutbox> moved = events.stream().filter(event -> event.getQuantity() != 0).toList();
+        if (moved.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> userIds = userIdsOf(moved);
+        String actor = currentActor();
+        LocalDateTime now = LocalDateTime.now();
+        for (InventoryOutbox event : moved) {
+            event.setUserId(userIds.get(event.getBorrowId()));
+            event.setActor(actor);
+            event.setOccurredAt(now);
+        }
+        outboxRepository.saveAll(moved);
+    }
+
+    // Xóa chi tiết / phiếu mượn: toàn bộ số lượng của từng dòng được hoàn về kho
+    @Override
+    @Transactional
+    public void recordCancelled(List<BorrowDetailGetsResponse> details) {
+        record(details.stream()
+                .filter(detail -> detail.getBookId() != null)
+                .map(detail -> InventoryOutbox.of(CANCELLED, detail.getBorrowId(), detail.getId(),
+                        detail.getBookId(), detail.getQuantity()))
+                .toList());
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${inventory-history.dispatch-interval-ms:1000}",
+            fixedDelayString = "${inventory-history.dispatch-interval-ms:1000}")
+    public int dispatch() {
+        int total = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            Integer moved = transactionTemplate.execute(status -> dispatchBatch());
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int dispatchBatch() {
+        // Chỉ chuyển đúng những id đã đọc được: dòng của transaction chưa commit sẽ vào lượt sau
+        List<Long> ids = outboxRepository.findNextIds(PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        historyRepository.copyFromOutbox(ids, LocalDateTime.now());
+        outboxRepository.deleteByIdIn(ids);
+        dispatched.increment(ids.size());
+        return ids.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResult<CursorPage<InventoryHistoryResponse>> getsByBook(Long bookId, String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<InventoryHistory> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = historyRepository.findBookFirstPage(bookId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = historyRepository.findBookPageAfter(bookId, after.getCreatedAt(), after.getId(), limit);
+        }
+        return ApiResult.success(toPage(rows, pageSize), "Lấy lịch sử mượn trả của sách thành công");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResult<CursorPage<InventoryHistoryResponse>> getsByUser(Long userId, String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<InventoryHistory> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = historyRepository.findUserFirstPage(userId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = historyRepository.findUserPageAfter(userId, after.getCreatedAt(), after.getId(), limit);
+        }
+        return ApiResult.success(toPage(rows, pageSize), "Lấy lịch sử mượn trả của người dùng thành công");
+    }
+
+    private Map<Long, Long> userIdsOf(List<InventoryOutbox> events) {
+        List<Long> borrowIds = events.stream().map(InventoryOutbox::getBorrowId)
+                .filter(Objects::nonNull).distinct().toList();
+        Map<Long, Long> userIds = new HashMap<>();
+        for (int from = 0; from < borrowIds.size(); from += QueryLimits.MAX_IN_PARAMETERS) {
+            List<Long> batch = borrowIds.subList(from, Math.min(from + QueryLimits.MAX_IN_PARAMETERS, borrowIds.size()));
+            for (Object[] row : borrowRepository.findUserIdsByIdIn(batch)) {
+                userIds.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return userIds;
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    private static CursorPage<InventoryHistoryResponse> toPage(List<InventoryHistory> rows, int pageSize) {
+        return CursorPage.of(rows, pageSize, page -> page.stream().map(InventoryHistoryServices::toResponse).toList(),
+                last -> new KeysetCursor(last.getOccurredAt(), last.getId()));
+    }
+
+    private static InventoryHistoryResponse toResponse(InventoryHistory row) {
+        return InventoryHistoryResponse.builder()
+                .id(row.getId())
+                .type(row.getType())
+                .borrowId(row.getBorrowId())
+                .borrowDetailId(row.getBorrowDetailId())
+                .bookId(row.getBookId())
+                .userId(row.getUserId())
+                .quantity(row.getQuantity())
+                .actor(row.getActor())
+                .occurredAt(row.getOccurredAt())
+                .build();
+    }
+}
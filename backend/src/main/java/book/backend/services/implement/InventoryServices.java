@@ -0,0 +1,136 @@
+package book.backend.services.implement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.repositories.BookRepository;
+import book.backend.services.interfaces.IInventoryServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.BusinessMetrics;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+
+/**
+ * Mọi thay đổi Book.quantityAvailable đều đi qua đây dưới dạng câu UPDATE có điều kiện,
+ * database tự đảm bảo tính nguyên tử nên không bị bán quá số lượng hay mất cập nhật khi mượn đồng thời.
+ */
+@Service
+public class InventoryServices implements IInventoryServices {
+    private static final int RESERVE_BATCH_SIZE = 400;
+
+    private final BookRepository bookRepository;
+    private final IStatsServices statsServices;
+
+    public InventoryServices(BookRepository bookRepository, IStatsServices statsServices) {
+        this.bookRepository = bookRepository;
+        this.statsServices = statsServices;
+    }
+
+    @Override
+    @Transactional
+    public void reserve(Long bookId, int quantity) {
+        if (quantity <= 0) {
+            throw new UserMessageException("Số lượng phải lớn hơn 0!");
+        }
+        if (bookRepository.reserve(bookId, quantity) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                BusinessMetrics.stockRejected("missing");
+                throw new UserMessageException("Sách không tồn tại!");
+            }
+            BusinessMetrics.stockRejected("insufficient");
+            throw new UserMessageException("Số lượng sách không đủ để mượn!");
+        }
+        statsServices.adjustBooks(0, 0, -quantity);
+        TableVersions.bump(Table.BOOKS);
+    }
+
+    @Override
+    @Transactional
+    public void release(Long bookId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        if (bookRepository.release(bookId, quantity) == 0) {
+            throw new UserMessageException("Sách không tồn tại!");
+        }
+        statsServices.adjustBooks(0, 0, quantity);
+        TableVersions.bump(Table.BOOKS);
+    }
+
+    // delta âm: lấy sách ra khỏi kho, delta dương: trả sách về kho
+    @Override
+    @Transactional
+    public void adjust(Long bookId, int delta) {
+        if (delta < 0) {
+            reserve(bookId, -delta);
+        } else if (delta > 0) {
+            release(bookId, delta);
+        }
+    }
+
+    // Trừ kho cho cả phiếu mượn: mỗi lô tối đa RESERVE_BATCH_SIZE sách là một câu UPDATE,
+    // thiếu một sách thì ném lỗi và toàn bộ transaction được rollback
+    @Override
+    @Transactional
+    public void reserveAll(Map<Long, Integer> quantities) {
+        int total = sumQuantities(quantities);
+        for (Map<Long, Integer> chunk : chunks(quantities)) {
+            if (bookRepository.reserveAll(chunk) < chunk.size()) {
+                if (bookRepository.countByIdIn(chunk.keySet()) < chunk.size()) {
+                    BusinessMetrics.stockRejected("missing");
+                    throw new UserMessageException("Sách không tồn tại!");
+                }
+                BusinessMetrics.stockRejected("insufficient");
+                throw new UserMessageException("Số lượng sách không đủ để mượn!");
+            }
+        }
+        statsServices.adjustBooks(0, 0, -total);
+        TableVersions.bump(Table.BOOKS);
+    }
+
+    @Override
+    @Transactional
+    public void releaseAll(Map<Long, Integer> quantities) {
+        int total = sumQuantities(quantities);
+        for (Map<Long, Integer> chunk : chunks(quantities)) {
+            if (bookRepository.releaseAll(chunk) < chunk.size()) {
+                throw new UserMessageException("Sách không tồn tại!");
+            }
+        }
+        statsServices.adjustBooks(0, 0, total);
+        TableVersions.bump(Table.BOOKS);
+    }
+
+    private int sumQuantities(Map<Long, Integer> quantities) {
+        int total = 0;
+        for (Integer quantity : quantities.values()) {
+            if (quantity == null || quantity <= 0) {
+                throw new UserMessageException("Số lượng phải lớn hơn 0!");
+            }
+            total += quantity;
+        }
+        return total;
+    }
+
+    private List<Map<Long, Integer>> chunks(Map<Long, Integer> quantities) {
+        List<Map<Long, Integer>> chunks = new ArrayList<>();
+        Map<Long, Integer> chunk = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == RESERVE_BATCH_SIZE) {
+                chunks.add(chunk);
+                chunk = new LinkedHashMap<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,145 @@
+package book.backend.services.implement;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import book.backend.models.dtos.borrow.OverdueReminderResponse;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.OverdueReminder;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.BorrowStatus;
+import book.backend.repositories.BorrowRepository;
+import book.backend.repositories.OverdueReminderRepository;
+import book.backend.repositories.QueryLimits;
+import book.backend.services.interfaces.IOverdueServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.BusinessMetrics;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+import book.backend.services.support.TransactionHooks;
+
+/**
+ * Quét phiếu quá hạn theo mốc: mỗi lượt chỉ đọc các phiếu MUON có returnDate trong [mốc, hôm nay)
+ * qua chỉ mục (status, returnDate), đánh dấu QUA HAN và xếp nhắc nhở theo từng lô cố định.
+ * Phiếu đã đánh dấu rời khỏi khoảng status = MUON nên thời gian chạy chỉ phụ thuộc số phiếu vừa tới hạn,
+ * không phụ thuộc tổng số phiếu đã có.
+ * Mốc giữ trong bộ nhớ: khởi động lại thì lượt đầu quét từ đầu khoảng MUON (vẫn chỉ là phiếu đang mượn).
+ */
+@Service
+public class OverdueServices implements IOverdueServices {
+    // Mốc ban đầu; LocalDate.MIN nằm ngoài miền kiểu date của SQL Server
+    private static final LocalDate BEGINNING = LocalDate.of(1900, 1, 1);
+    private static final int DEFAULT_CLAIM_SIZE = 100;
+    // Mỗi lượt xử lý tối đa chừng này lô, phần còn lại để lượt sau tiếp tục từ mốc
+    private static final int MAX_CHUNKS_PER_RUN = 20;
+
+    private final BorrowRepository borrowRepository;
+    private final OverdueReminderRepository reminderRepository;
+    private final IStatsServices statsServices;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final AtomicReference<LocalDate> watermark = new AtomicReference<>(BEGINNING);
+
+    public OverdueServices(BorrowRepository borrowRepository, OverdueReminderRepository reminderRepository,
+            IStatsServices statsServices, PlatformTransactionManager transactionManager,
+            @Value("${overdue.chunk-size:500}") int chunkSize) {
+        this.borrowRepository = borrowRepository;
+        this.reminderRepository = reminderRepository;
+        this.statsServices = statsServices;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.min(Math.max(chunkSize, 1), QueryLimits.MAX_IN_PARAMETERS);
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${overdue.scan-interval-ms:60000}",
+            fixedDelayString = "${overdue.scan-interval-ms:60000}")
+    public int detect() {
+        LocalDate start = watermark.get();
+        LocalDate today = LocalDate.now();
+        LocalDate from = start;
+        int total = 0;
+        for (int chunk = 0; chunk < MAX_CHUNKS_PER_RUN; chunk++) {
+            List<Object[]> due = borrowRepository.findDueSince(from, today, PageRequest.of(0, chunkSize));
+            if (due.isEmpty()) {
+                from = today;
+                break;
+            }
+            List<Long> ids = new ArrayList<>(due.size());
+            for (Object[] row : due) {
+                ids.add((Long) row[0]);
+            }
+            total += transactionTemplate.execute(status -> markChunk(ids, today));
+            // Phiếu cùng ngày với dòng cuối có thể còn ở lô sau nên mốc chỉ tiến tới ngày đó
+            from = (LocalDate) due.get(due.size() - 1)[1];
+            if (due.size() < chunkSize) {
+                from = today;
+                break;
+            }
+        }
+        // rewind xen vào giữa lượt thì giữ mốc đã lùi, lượt sau quét lại từ đó
+        watermark.compareAndSet(start, from);
+        return total;
+    }
+
+    private int markChunk(List<Long> ids, LocalDate today) {
+        // Cắt về mili giây để giá trị lưu trong cột datetime2 so khớp đúng với tham số ở câu INSERT
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        int marked = borrowRepository.markOverdue(ids, BorrowStatus.OVERDUE, today, now);
+        if (marked > 0) {
+            reminderRepository.enqueueMarked(ids, BorrowStatus.OVERDUE, now);
+        }
+        for (int i = 0; i < marked; i++) {
+            statsServices.adjustBorrowStatus(BorrowStatus.BORROWING, BorrowStatus.OVERDUE);
+        }
+        if (marked > 0) {
+            TransactionHooks.afterCommit(() -> BusinessMetrics.borrowsOverdue(marked));
+            TableVersions.bump(Table.BORROWS);
+        }
+        return marked;
+    }
+
+    // Phiếu vừa tạo/sửa thành MUON với hạn trả đã qua nằm dưới mốc: lùi mốc sau commit để lượt sau quét tới
+    @Override
+    public void rewind(Borrow borrow) {
+        LocalDate returnDate = borrow.getReturnDate();
+        if (borrow.getStatus() != BorrowStatus.BORROWING || borrow.getActualReturnDate() != null
+                || returnDate == null || !returnDate.isBefore(LocalDate.now())) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> watermark.accumulateAndGet(returnDate,
+                (current, candidate) -> candidate.isBefore(current) ? candidate : current));
+    }
+
+    // Lấy ra và xóa khỏi hàng đợi trong cùng transaction: bên gửi lỗi thì rollback, nhắc nhở vẫn còn
+    @Override
+    @Transactional
+    public ApiResult<List<OverdueReminderResponse>> claimReminders(Integer size) {
+        int limit = size == null ? DEFAULT_CLAIM_SIZE : Math.min(Math.max(size, 1), QueryLimits.MAX_IN_PARAMETERS);
+        List<OverdueReminder> reminders = reminderRepository.findNext(PageRequest.of(0, limit));
+        if (!reminders.isEmpty()) {
+            reminderRepository.deleteByIdIn(reminders.stream().map(OverdueReminder::getId).toList());
+        }
+        List<OverdueReminderResponse> items = reminders.stream()
+                .map(reminder -> OverdueReminderResponse.builder()
+                        .id(reminder.getId())
+                        .borrowId(reminder.getBorrowId())
+                        .userId(reminder.getUserId())
+                        .returnDate(reminder.getReturnDate())
+                        .queuedAt(reminder.getQueuedAt())
+                        .build())
+                .toList();
+        return ApiResult.success(items, "Lấy danh sách nhắc trả sách thành công");
+    }
+}
@@ -3,8 +3,11 @@ package book.backend.services.implement;
 import java.util.Comparator;
 import java.util.List;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.dtos.publisher.PublisherGetsResponse;
 import book.backend.models.dtos.publisher.PublisherRequest;
 import book.backend.models.dtos.publisher.PublisherUpdateRequest;
@@ -12,19 +15,32 @@ import book.backend.models.entities.Publisher;
 import book.backend.models.global.ApiResult;
 import book.backend.repositories.PublisherRepository;
 import book.backend.services.interfaces.IPublisherServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.ReferenceListCache;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
 
 @Service
 public class PublisherServices implements IPublisherServices {
     private final PublisherRepository publisherRepository;
+    private final IStatsServices statsServices;
+    private final ReferenceListCache referenceLists;
 
-    public PublisherServices(PublisherRepository publisherRepository) {
+    public PublisherServices(PublisherRepository publisherRepository, IStatsServices statsServices, ReferenceListCache referenceLists) {
         this.publisherRepository = publisherRepository;
+        this.statsServices = statsServices;
+        this.referenceLists = referenceLists;
     }
 
     @Override
     public ApiResult<List<PublisherGetsResponse>> getsPublisher() {
+        List<PublisherGetsResponse> publishers = referenceLists.get(CacheNames.PUBLISHERS, this::loadPublishers);
+        return ApiResult.success(publishers, "Lấy danh sách nhà xuất bản thành công");
+    }
+
+    private List<PublisherGetsResponse> loadPublishers() {
         List<Publisher> publishers = publisherRepository.findAll();
-        List<PublisherGetsResponse> responseList = publishers.stream()
+        return publishers.stream()
                 .map(publisher -> new PublisherGetsResponse(
                         publisher.getId(),
                         publisher.getPublisherName(),
@@ -36,10 +52,10 @@ public class PublisherServices implements IPublisherServices {
                         publisher.getCreatedAt()))
                 .sorted(Comparator.comparing(PublisherGetsResponse::getCreatedAt).reversed())
                 .toList();
-        return ApiResult.success(responseList, "Lấy danh sách nhà xuất bản thành công");
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.PUBLISHERS, allEntries = true)
     public ApiResult<Long> createPublisher(PublisherRequest request) {
         Publisher pub = new Publisher();
         pub.setPublisherName(request.getPublisherName());
@@ -49,10 +65,16 @@ public class PublisherServices implements IPublisherServices {
         pub.setWebsite(request.getWebsite());
         pub.setIsActive(request.getIsActive());
         publisherRepository.save(pub);
+        statsServices.adjustPublishers(1);
+        TableVersions.bump(Table.PUBLISHERS);
         return ApiResult.success(pub.getId(), "Tạo nhà xuất bản thành công");           
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheNames.PUBLISHERS, allEntries = true),
+        @CacheEvict(cacheNames = CacheNames.PUBLISHER_IDS_BY_NAME, allEntries = true)
+    })
     public ApiResult<String> updatePublisher(Long id, PublisherUpdateRequest request) {
         Publisher pub = publisherRepository.findById(id).orElseThrow(() -> new RuntimeException("Nhà xuất bản không tồn tại"));
         pub.setPublisherName(request.getPublisherName());
@@ -62,13 +84,20 @@ public class PublisherServices implements IPublisherServices {
         pub.setWebsite(request.getWebsite());
         pub.setIsActive(request.getIsActive());
         publisherRepository.save(pub);
+        TableVersions.bump(Table.PUBLISHERS);
         return ApiResult.success(null, "Cập nhật nhà xuất bản thành công");
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheNames.PUBLISHERS, allEntries = true),
+        @CacheEvict(cacheNames = CacheNames.PUBLISHER_IDS_BY_NAME, allEntries = true)
+    })
     public ApiResult<String> deletePublisher(Long id) {
         Publisher pub = publisherRepository.findById(id).orElseThrow(() -> new RuntimeException("Nhà xuất bản không tồn tại"));
         publisherRepository.delete(pub);
+        statsServices.adjustPublishers(-1);
+        TableVersions.bump(Table.PUBLISHERS);
         return ApiResult.success(null, "Xóa nhà xuất bản thành công");
     }
 
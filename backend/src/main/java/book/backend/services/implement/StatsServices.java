@@ -0,0 +1,157 @@
+package book.backend.services.implement;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import book.backend.models.dtos.stats.BookTotals;
+import book.backend.models.dtos.stats.StatsResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.BorrowStatus;
+import book.backend.repositories.AuthorRepository;
+import book.backend.repositories.BookRepository;
+import book.backend.repositories.BorrowRepository;
+import book.backend.repositories.CategoryRepository;
+import book.backend.repositories.PublisherRepository;
+import book.backend.repositories.UserRepository;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.TransactionHooks;
+
+/**
+ * Bộ đếm thống kê giữ trong bộ nhớ.
+ * Các service cộng/trừ delta sau khi commit, định kỳ đối soát lại với database
+ * để sửa sai lệch (ví dụ dữ liệu bị sửa trực tiếp trong DB) và tính lại số phiếu quá hạn.
+ */
+@Service
+public class StatsServices implements IStatsServices {
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final PublisherRepository publisherRepository;
+    private final UserRepository userRepository;
+    private final BorrowRepository borrowRepository;
+
+    private final AtomicLong totalBooks = new AtomicLong();
+    private final AtomicLong totalCopies = new AtomicLong();
+    private final AtomicLong availableCopies = new AtomicLong();
+    private final AtomicLong totalAuthors = new AtomicLong();
+    private final AtomicLong totalCategories = new AtomicLong();
+    private final AtomicLong totalPublishers = new AtomicLong();
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong overdueBorrows = new AtomicLong();
+    private final Map<BorrowStatus, AtomicLong> borrowsByStatus = new ConcurrentHashMap<>();
+    private final AtomicReference<LocalDateTime> reconciledAt = new AtomicReference<>();
+
+    public StatsServices(BookRepository bookRepository, AuthorRepository authorRepository,
+            CategoryRepository categoryRepository, PublisherRepository publisherRepository,
+            UserRepository userRepository, BorrowRepository borrowRepository) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.categoryRepository = categoryRepository;
+        this.publisherRepository = publisherRepository;
+        this.userRepository = userRepository;
+        this.borrowRepository = borrowRepository;
+    }
+
+    @Override
+    public ApiResult<StatsResponse> getStats() {
+        long copies = totalCopies.get();
+        long available = availableCopies.get();
+        StatsResponse response = StatsResponse.builder()
+                .totalBooks(totalBooks.get())
+                .totalCopies(copies)
+                .availableCopies(available)
+                .booksOnLoan(Math.max(copies - available, 0))
+                .totalAuthors(totalAuthors.get())
+                .totalCategories(totalCategories.get())
+                .totalPublishers(totalPublishers.get())
+                .totalUsers(totalUsers.get())
+                .totalBorrows(borrowsByStatus.values().stream().mapToLong(AtomicLong::get).sum())
+                .activeBorrows(statusCounter(BorrowStatus.BORROWING).get())
+                .returnedBorrows(statusCounter(BorrowStatus.RETURNED).get())
+                .overdueBorrows(overdueBorrows.get())
+                .reconciledAt(reconciledAt.get())
+                .build();
+        return ApiResult.success(response, "Lấy thống kê thành công");
+    }
+
+    // Đối soát định kỳ; chạy ngay khi khởi động để nạp giá trị ban đầu
+    @Override
+    @Scheduled(initialDelayString = "${stats.reconcile-initial-delay-ms:0}",
+            fixedDelayString = "${stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        BookTotals books = bookRepository.findTotals();
+        totalBooks.set(books.getTitles());
+        totalCopies.set(books.getCopies());
+        availableCopies.set(books.getAvailable());
+        totalAuthors.set(authorRepository.count());
+        totalCategories.set(categoryRepository.count());
+        totalPublishers.set(publisherRepository.count());
+        totalUsers.set(userRepository.count());
+
+        Map<BorrowStatus, Long> counts = new ConcurrentHashMap<>();
+        for (Object[] row : borrowRepository.countByStatus()) {
+            counts.merge((BorrowStatus) row[0], (Long) row[1], Long::sum);
+        }
+        borrowsByStatus.keySet().retainAll(counts.keySet());
+        counts.forEach((status, count) -> statusCounter(status).set(count));
+
+        overdueBorrows.set(borrowRepository.countOverdue(LocalDate.now()));
+        reconciledAt.set(LocalDateTime.now());
+    }
+
+    @Override
+    public void adjustBooks(long titles, long copies, long available) {
+        TransactionHooks.afterCommit(() -> {
+            totalBooks.addAndGet(titles);
+            totalCopies.addAndGet(copies);
+            availableCopies.addAndGet(available);
+        });
+    }
+
+    @Override
+    public void adjustAuthors(long delta) {
+        TransactionHooks.afterCommit(() -> totalAuthors.addAndGet(delta));
+    }
+
+    @Override
+    public void adjustCategories(long delta) {
+        TransactionHooks.afterCommit(() -> totalCategories.addAndGet(delta));
+    }
+
+    @Override
+    public void adjustPublishers(long delta) {
+        TransactionHooks.afterCommit(() -> totalPublishers.addAndGet(delta));
+    }
+
+    @Override
+    public void adjustUsers(long delta) {
+        TransactionHooks.afterCommit(() -> totalUsers.addAndGet(delta));
+    }
+
+    // oldStatus = null khi tạo mới, newStatus = null khi xóa phiếu mượn
+    @Override
+    public void adjustBorrowStatus(BorrowStatus oldStatus, BorrowStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            if (oldStatus != null) {
+                statusCounter(oldStatus).decrementAndGet();
+            }
+            if (newStatus != null) {
+                statusCounter(newStatus).incrementAndGet();
+            }
+        });
+    }
+
+    private AtomicLong statusCounter(BorrowStatus status) {
+        return borrowsByStatus.computeIfAbsent(status, key -> new AtomicLong());
+    }
+}
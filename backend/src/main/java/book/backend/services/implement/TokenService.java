@@ -1,26 +1,50 @@
 package book.backend.services.implement;
 
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import book.backend.models.dtos.auth.TokenResponse;
+import book.backend.models.security.JwtAuthenticationCache;
 import book.backend.models.security.JwtTokenProvider;
+import book.backend.models.security.RefreshTokenStore;
+import book.backend.models.security.TokenRevocationList;
+import book.backend.models.security.UserPrincipal;
 import book.backend.services.interfaces.ITokenService;
+import book.backend.services.support.BusinessMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 
 @Service
 public class TokenService implements ITokenService {
     private final JwtTokenProvider tokenProvider;
-    
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationList revocationList;
+    private final JwtAuthenticationCache authenticationCache;
 
     // Constructor injection
-    public TokenService(JwtTokenProvider tokenProvider) {
+    public TokenService(JwtTokenProvider tokenProvider, RefreshTokenStore refreshTokenStore,
+            TokenRevocationList revocationList, JwtAuthenticationCache authenticationCache) {
         this.tokenProvider = tokenProvider;
+        this.refreshTokenStore = refreshTokenStore;
+        this.revocationList = revocationList;
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
     public TokenResponse generateTokens(UserDetails userDetails) {
         String accessToken = tokenProvider.generateAccessToken(userDetails);
-        String refreshToken = tokenProvider.generateRefreshToken(userDetails);
+        String refreshToken = null;
+        // Mỗi lần đăng nhập mở một họ refresh token mới
+        if (userDetails instanceof UserPrincipal principal) {
+            String familyId = UUID.randomUUID().toString();
+            refreshTokenStore.open(familyId, principal.getId(),
+                    System.currentTimeMillis() + tokenProvider.getRefreshExpiration());
+            refreshToken = tokenProvider.generateRefreshToken(principal.getUsername(), principal.getId(), familyId, 0);
+        }
 
         return TokenResponse.builder()
                 .accessToken(accessToken)
@@ -30,4 +54,76 @@ public class TokenService implements ITokenService {
                 .build();
     }
 
+    // Chỉ kiểm chữ ký HMAC và sổ họ token trong bộ nhớ: không nạp user, không chạy BCrypt
+    @Override
+    public TokenResponse refreshTokens(String refreshToken) {
+        Claims claims = parseRefreshToken(refreshToken);
+        if (claims == null) {
+            BusinessMetrics.tokenRefreshed("invalid");
+            throw new BadCredentialsException("Refresh token không hợp lệ, vui lòng đăng nhập lại");
+        }
+        Long userId = tokenProvider.extractUserId(claims);
+        String familyId = claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class);
+        Long sequence = claims.get(JwtTokenProvider.SEQUENCE_CLAIM, Long.class);
+        if (userId == null || familyId == null || sequence == null) {
+            BusinessMetrics.tokenRefreshed("invalid");
+            throw new BadCredentialsException("Refresh token không hợp lệ, vui lòng đăng nhập lại");
+        }
+
+        RefreshTokenStore.Outcome outcome = refreshTokenStore.rotate(familyId, userId, sequence,
+                System.currentTimeMillis() + tokenProvider.getRefreshExpiration());
+        BusinessMetrics.tokenRefreshed(outcome.name().toLowerCase(Locale.ROOT));
+        if (outcome == RefreshTokenStore.Outcome.REUSED) {
+            throw new BadCredentialsException("Refresh token đã được sử dụng, vui lòng đăng nhập lại");
+        }
+        if (outcome != RefreshTokenStore.Outcome.ROTATED) {
+            throw new BadCredentialsException("Phiên đăng nhập đã hết hạn, vui lòng đăng nhập lại");
+        }
+
+        String accessToken = tokenProvider.generateAccessToken(claims.getSubject(), userId);
+        return TokenResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(tokenProvider.generateRefreshToken(claims.getSubject(), userId, familyId, sequence + 1))
+                .tokenType("Bearer")
+                .expiresIn(tokenProvider.extractExpiration(accessToken).getTime())
+                .userId(userId)
+                .build();
+    }
+
+    @Override
+    public void revokeRefreshToken(String refreshToken) {
+        Claims claims = parseRefreshToken(refreshToken);
+        if (claims != null && claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class) != null) {
+            refreshTokenStore.revoke(claims.get(JwtTokenProvider.FAMILY_CLAIM, String.class));
+        }
+    }
+
+    @Override
+    public void revokeAccessToken(String accessToken) {
+        if (accessToken == null || accessToken.isBlank()) {
+            return;
+        }
+        try {
+            Claims claims = tokenProvider.parseClaims(accessToken);
+            if (!tokenProvider.isRefreshToken(claims)) {
+                revocationList.revoke(claims.getId(), claims.getExpiration());
+            }
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Token sai chữ ký hoặc đã hết hạn thì vốn không dùng được nữa
+        }
+        authenticationCache.invalidate(accessToken);
+    }
+
+    // null nếu token sai chữ ký, hết hạn hoặc không phải refresh token
+    private Claims parseRefreshToken(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return null;
+        }
+        try {
+            Claims claims = tokenProvider.parseClaims(refreshToken);
+            return tokenProvider.isRefreshToken(claims) ? claims : null;
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
 }
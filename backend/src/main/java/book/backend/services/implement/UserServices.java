@@ -1,13 +1,16 @@
 package book.backend.services.implement;
 
 
+import book.backend.models.configuration.CacheNames;
 import book.backend.models.global.ApiResult;
 import book.backend.repositories.UserRepository;
+import book.backend.services.interfaces.IStatsServices;
 import book.backend.services.interfaces.IUserServices;
 
 import java.util.Comparator;
 import java.util.List;
 
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -16,16 +19,28 @@ import book.backend.models.dtos.user.UserGetsResponse;
 import book.backend.models.dtos.user.UserRequest;
 import book.backend.models.dtos.user.UserUpdateRequest;
 import book.backend.models.entities.User;
+import book.backend.models.security.JwtAuthenticationCache;
+import book.backend.models.security.RefreshTokenStore;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+import book.backend.services.support.TransactionHooks;
 
 @Service
 public class UserServices implements IUserServices {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final IStatsServices statsServices;
+    private final JwtAuthenticationCache authenticationCache;
+    private final RefreshTokenStore refreshTokenStore;
 
-    public UserServices(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServices(UserRepository userRepository, PasswordEncoder passwordEncoder, IStatsServices statsServices,
+            JwtAuthenticationCache authenticationCache, RefreshTokenStore refreshTokenStore) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.statsServices = statsServices;
+        this.authenticationCache = authenticationCache;
+        this.refreshTokenStore = refreshTokenStore;
     }
 
     @Override
@@ -47,6 +62,8 @@ public class UserServices implements IUserServices {
         user.setRole(request.getRole());
         user.setFullName(request.getFullName());
         userRepository.save(user);
+        statsServices.adjustUsers(1);
+        TableVersions.bump(Table.USERS);
         return ApiResult.success(user.getId(), "Tạo người dùng thành công");  
     }
 
@@ -65,6 +82,7 @@ public class UserServices implements IUserServices {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.USER_IDS_BY_FULL_NAME, allEntries = true)
     public ApiResult<String> updateUser(Long userId, UserUpdateRequest apiRequest) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserMessageException("Người dùng không tồn tại"));
@@ -73,13 +91,27 @@ public class UserServices implements IUserServices {
         user.setRole(apiRequest.getRole());
         user.setFullName(apiRequest.getFullName());
         userRepository.save(user);
+        // Token cũ vẫn giữ username/role cũ trong cache, buộc xác thực lại ở request kế tiếp;
+        // refresh token mang username cũ nên cũng bị thu hồi
+        TransactionHooks.afterCommit(() -> {
+            authenticationCache.invalidateUser(userId);
+            refreshTokenStore.revokeUser(userId);
+        });
+        TableVersions.bump(Table.USERS);
         return ApiResult.success(null, "Cập nhật người dùng thành công");
     }
     @Override
+    @CacheEvict(cacheNames = CacheNames.USER_IDS_BY_FULL_NAME, allEntries = true)
     public ApiResult<String> deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserMessageException("Người dùng không tồn tại"));
         userRepository.delete(user);
+        statsServices.adjustUsers(-1);
+        TransactionHooks.afterCommit(() -> {
+            authenticationCache.invalidateUser(userId);
+            refreshTokenStore.revokeUser(userId);
+        });
+        TableVersions.bump(Table.USERS);
         return ApiResult.success(null, "Xoá người dùng thành công");
     }
 
@@ -0,0 +1,111 @@
+package book.backend.services.importing;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import book.backend.models.dtos.book.BookImportError;
+import book.backend.models.dtos.book.BookImportJobResponse;
+
+// Tiến độ của một lần nhập sách, được các luồng của pipeline cập nhật đồng thời
+public class BookImportJob {
+    public static final String QUEUED = "CHO";
+    public static final String RUNNING = "DANG CHAY";
+    public static final String COMPLETED = "HOAN THANH";
+    public static final String FAILED = "LOI";
+
+    private static final int MAX_ERRORS = 1000;
+
+    private final String id;
+    private final String fileName;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final Queue<BookImportError> errors = new ConcurrentLinkedQueue<>();
+    private volatile String status = QUEUED;
+    private volatile String message;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    public BookImportJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        startedNanos = System.nanoTime();
+        status = RUNNING;
+    }
+
+    public void complete() {
+        finish(COMPLETED, null);
+    }
+
+    public void fail(String reason) {
+        finish(FAILED, reason);
+    }
+
+    void read() {
+        rowsRead.incrementAndGet();
+    }
+
+    void inserted(int count) {
+        rowsInserted.addAndGet(count);
+    }
+
+    // rowsFailed luôn được đếm, chi tiết lỗi chỉ giữ MAX_ERRORS dòng đầu để không phình bộ nhớ với file lỗi hàng loạt
+    void reject(long line, String reason) {
+        if (rowsFailed.incrementAndGet() <= MAX_ERRORS) {
+            errors.add(new BookImportError(line, reason));
+        }
+    }
+
+    public BookImportJobResponse toResponse() {
+        List<BookImportError> sortedErrors = new ArrayList<>(errors);
+        sortedErrors.sort(Comparator.comparingLong(BookImportError::getLine));
+        long end = finishedAt != null ? finishedNanos : System.nanoTime();
+        return BookImportJobResponse.builder()
+                .jobId(id)
+                .fileName(fileName)
+                .status(status)
+                .rowsRead(rowsRead.get())
+                .rowsInserted(rowsInserted.get())
+                .rowsFailed(rowsFailed.get())
+                .errors(sortedErrors)
+                .message(message)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .elapsedMs(startedAt != null ? (end - startedNanos) / 1_000_000 : 0)
+                .build();
+    }
+
+    private void finish(String finalStatus, String reason) {
+        finishedNanos = System.nanoTime();
+        message = reason;
+        status = finalStatus;
+        finishedAt = LocalDateTime.now();
+    }
+}
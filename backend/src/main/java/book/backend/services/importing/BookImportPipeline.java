@@ -0,0 +1,311 @@
+package book.backend.services.importing;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import book.backend.models.dtos.book.BookRequest;
+import book.backend.repositories.AuthorRepository;
+import book.backend.repositories.CategoryRepository;
+import book.backend.repositories.PublisherRepository;
+import book.backend.repositories.UserRepository;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Nhập sách hàng loạt theo 4 bước nối nhau bằng hàng đợi có giới hạn:
+ * đọc file -> tra tên tác giả/thể loại/NXB/người tạo -> kiểm tra dữ liệu -> INSERT theo lô JDBC.
+ * Dữ liệu đi qua các hàng đợi theo khối chunkSize dòng; hàng đợi đầy thì bước trước phải chờ,
+ * nên bộ nhớ dùng chỉ phụ thuộc vào kích thước khối chứ không phụ thuộc vào độ lớn của file.
+ */
+@Component
+public class BookImportPipeline {
+    // Tên cột theo chiến lược đặt tên mặc định của Spring (camelCase -> snake_case)
+    private static final String INSERT_SQL = "INSERT INTO Books (title, author_id, category_id, publisher_id, "
+            + "year_published, price, quantity, quantity_available, description, language, user_id, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Tín hiệu hết dữ liệu, so bằng tham chiếu: phải là đối tượng riêng, không dùng List.of() vì bản rỗng
+    // đó là singleton dùng chung, một bước trả List.of() sẽ bị hiểu nhầm là kết thúc
+    private static final List<BookImportRow> END = new ArrayList<>(0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final PublisherRepository publisherRepository;
+    private final UserRepository userRepository;
+    private final IStatsServices statsServices;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final int validateThreads;
+    private final int insertThreads;
+    private final boolean virtualThreads;
+
+    public BookImportPipeline(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            Validator validator, ObjectMapper objectMapper, AuthorRepository authorRepository,
+            CategoryRepository categoryRepository, PublisherRepository publisherRepository,
+            UserRepository userRepository, IStatsServices statsServices,
+            @Value("${book-import.chunk-size:1000}") int chunkSize,
+            @Value("${book-import.queue-capacity:8}") int queueCapacity,
+            @Value("${book-import.validate-threads:2}") int validateThreads,
+            @Value("${book-import.insert-threads:4}") int insertThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.authorRepository = authorRepository;
+        this.categoryRepository = categoryRepository;
+        this.publisherRepository = publisherRepository;
+        this.userRepository = userRepository;
+        this.statsServices = statsServices;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.validateThreads = validateThreads;
+        this.insertThreads = insertThreads;
+        this.virtualThreads = virtualThreads;
+    }
+
+    // Chạy đồng bộ trên luồng gọi cho tới khi mọi bước kết thúc; lỗi của bất kỳ bước nào dừng toàn bộ pipeline
+    public void run(BookImportJob job, Path file, boolean json) throws Exception {
+        NameIds names = loadNames();
+        BlockingQueue<List<BookImportRow>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<BookImportRow>> resolved = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<BookImportRow>> validated = new ArrayBlockingQueue<>(queueCapacity);
+
+        Thread.Builder threads = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        ExecutorService executor = Executors.newFixedThreadPool(2 + validateThreads + insertThreads,
+                threads.name("book-import-", 1).factory());
+        CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+        try {
+            stages.submit(() -> parse(job, file, json, parsed));
+            stages.submit(worker(parsed, resolved, new AtomicInteger(1), rows -> resolve(job, names, rows)));
+            AtomicInteger validators = new AtomicInteger(validateThreads);
+            for (int i = 0; i < validateThreads; i++) {
+                stages.submit(worker(resolved, validated, validators, rows -> validate(job, rows)));
+            }
+            AtomicInteger inserters = new AtomicInteger(insertThreads);
+            for (int i = 0; i < insertThreads; i++) {
+                stages.submit(worker(validated, null, inserters, rows -> insert(job, rows)));
+            }
+
+            int running = 2 + validateThreads + insertThreads;
+            for (int i = 0; i < running; i++) {
+                try {
+                    stages.take().get();
+                } catch (ExecutionException ex) {
+                    throw ex.getCause() instanceof Exception cause ? cause : ex;
+                }
+            }
+        } finally {
+            // Ngắt các luồng còn chờ trên hàng đợi khi một bước bị lỗi
+            executor.shutdownNow();
+        }
+    }
+
+    private Void parse(BookImportJob job, Path file, boolean json, BlockingQueue<List<BookImportRow>> out)
+            throws Exception {
+        BookImportReader reader = new BookImportReader(objectMapper, job);
+        List<List<BookImportRow>> chunk = new ArrayList<>(1);
+        chunk.add(new ArrayList<>(chunkSize));
+        BookImportReader.RowSink sink = row -> {
+            chunk.get(0).add(row);
+            if (chunk.get(0).size() == chunkSize) {
+                out.put(chunk.get(0));
+                chunk.set(0, new ArrayList<>(chunkSize));
+            }
+        };
+        try (Reader input = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (json) {
+                reader.readJson(input, sink);
+            } else {
+                reader.readCsv(input, sink);
+            }
+        }
+        if (!chunk.get(0).isEmpty()) {
+            out.put(chunk.get(0));
+        }
+        out.put(END);
+        return null;
+    }
+
+    // Một bước gồm nhiều luồng cùng lấy khối từ hàng đợi vào. Tín hiệu kết thúc được chuyền lại cho
+    // các luồng cùng bước, luồng cuối cùng mới chuyển nó sang bước sau
+    private Callable<Void> worker(BlockingQueue<List<BookImportRow>> in, BlockingQueue<List<BookImportRow>> out,
+            AtomicInteger liveWorkers, Function<List<BookImportRow>, List<BookImportRow>> step) {
+        return () -> {
+            List<BookImportRow> rows;
+            while ((rows = in.take()) != END) {
+                List<BookImportRow> result = step.apply(rows);
+                if (out != null && !result.isEmpty()) {
+                    out.put(result);
+                }
+            }
+            if (liveWorkers.decrementAndGet() > 0) {
+                in.put(END);
+            } else if (out != null) {
+                out.put(END);
+            }
+            return null;
+        };
+    }
+
+    private List<BookImportRow> resolve(BookImportJob job, NameIds names, List<BookImportRow> rows) {
+        List<BookImportRow> result = new ArrayList<>(rows.size());
+        for (BookImportRow row : rows) {
+            BookRequest request = row.request;
+            // Tên để trống được để nguyên cho bước kiểm tra báo lỗi theo thông điệp của BookRequest
+            row.authorId = names.authors.get(request.getAuthorName());
+            row.categoryId = names.categories.get(request.getCategory());
+            row.publisherId = names.publishers.get(request.getPublisher());
+            row.userId = names.users.get(request.getUser());
+            if (row.authorId == null && !isBlank(request.getAuthorName())) {
+                job.reject(row.line, "Không tìm thấy tác giả: " + request.getAuthorName());
+            } else if (row.categoryId == null && !isBlank(request.getCategory())) {
+                job.reject(row.line, "Không tìm thấy thể loại: " + request.getCategory());
+            } else if (row.publisherId == null && !isBlank(request.getPublisher())) {
+                job.reject(row.line, "Không tìm thấy nhà xuất bản: " + request.getPublisher());
+            } else if (row.userId == null && !isBlank(request.getUser())) {
+                job.reject(row.line, "Không tìm thấy người dùng: " + request.getUser());
+            } else {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private List<BookImportRow> validate(BookImportJob job, List<BookImportRow> rows) {
+        List<BookImportRow> result = new ArrayList<>(rows.size());
+        for (BookImportRow row : rows) {
+            Set<ConstraintViolation<BookRequest>> violations = validator.validate(row.request);
+            String error = violations.isEmpty() ? checkColumnLimits(row.request) : violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            if (error != null) {
+                job.reject(row.line, error);
+            } else {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    // Các giới hạn cột của bảng Books mà BookRequest không khai báo
+    private String checkColumnLimits(BookRequest request) {
+        if (request.getTitle().length() > 1000) {
+            return "Tiêu đề sách quá dài";
+        }
+        if (request.getYearPublished() < 0 || request.getYearPublished() > 9999) {
+            return "Năm xuất bản không hợp lệ";
+        }
+        if (request.getPrice().precision() - request.getPrice().scale() > 8) {
+            return "Giá sách quá lớn";
+        }
+        if (request.getDescription().length() > 10000) {
+            return "Mô tả sách quá dài";
+        }
+        if (request.getLanguage().length() > 50) {
+            return "Ngôn ngữ quá dài";
+        }
+        return null;
+    }
+
+    // Mỗi khối là một transaction; khối lỗi được ghi lại từng dòng để chỉ bỏ qua đúng những dòng hỏng
+    private List<BookImportRow> insert(BookImportJob job, List<BookImportRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            List<Object[]> args = rows.stream().map(row -> toArgs(row, now)).collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+            inserted(job, rows);
+        } catch (DataAccessException batchError) {
+            for (BookImportRow row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, toArgs(row, now)));
+                    inserted(job, List.of(row));
+                } catch (DataAccessException ex) {
+                    job.reject(row.line, "Không ghi được vào database: "
+                            + NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private void inserted(BookImportJob job, List<BookImportRow> rows) {
+        long copies = rows.stream().mapToLong(row -> row.request.getQuantity()).sum();
+        job.inserted(rows.size());
+        statsServices.adjustBooks(rows.size(), copies, copies);
+        TableVersions.bump(Table.BOOKS);
+    }
+
+    private Object[] toArgs(BookImportRow row, Timestamp createdAt) {
+        BookRequest request = row.request;
+        return new Object[] {
+            request.getTitle(), row.authorId, row.categoryId, row.publisherId, request.getYearPublished(),
+            request.getPrice(), request.getQuantity(), request.getQuantity(), request.getDescription(),
+            request.getLanguage(), row.userId, createdAt
+        };
+    }
+
+    // Nạp sẵn toàn bộ bảng tên -> id một lần cho cả lần nhập thay vì bốn câu truy vấn cho mỗi sách
+    private NameIds loadNames() {
+        return new NameIds(
+                toMap(authorRepository.findAllNameIds()),
+                toMap(categoryRepository.findAllNameIds()),
+                toMap(publisherRepository.findAllNameIds()),
+                toMap(userRepository.findAllNameIds()));
+    }
+
+    // Tên trùng nhau: giữ id nhỏ nhất để kết quả ổn định giữa các lần nhập
+    private Map<String, Long> toMap(List<Object[]> rows) {
+        Map<String, Long> ids = new HashMap<>(rows.size() * 2);
+        rows.stream()
+                .sorted(Comparator.comparing(row -> (Long) row[1]))
+                .forEach(row -> ids.putIfAbsent((String) row[0], (Long) row[1]));
+        return ids;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record NameIds(Map<String, Long> authors, Map<String, Long> categories,
+            Map<String, Long> publishers, Map<String, Long> users) {
+    }
+}
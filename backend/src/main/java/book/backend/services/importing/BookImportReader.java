@@ -0,0 +1,110 @@
+package book.backend.services.importing;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.book.BookRequest;
+
+// Bước đọc file: chuyển từng bản ghi CSV / JSON thành BookImportRow, lỗi định dạng của từng dòng được ghi vào job
+class BookImportReader {
+    interface RowSink {
+        void accept(BookImportRow row) throws InterruptedException;
+    }
+
+    private static final Map<String, String> CSV_COLUMNS = Map.ofEntries(
+            Map.entry("title", "title"),
+            Map.entry("author", "authorName"),
+            Map.entry("authorname", "authorName"),
+            Map.entry("category", "category"),
+            Map.entry("publisher", "publisher"),
+            Map.entry("yearpublished", "yearPublished"),
+            Map.entry("price", "price"),
+            Map.entry("quantity", "quantity"),
+            Map.entry("description", "description"),
+            Map.entry("language", "language"),
+            Map.entry("user", "user"));
+
+    private final ObjectMapper objectMapper;
+    private final BookImportJob job;
+
+    BookImportReader(ObjectMapper objectMapper, BookImportJob job) {
+        this.objectMapper = objectMapper;
+        this.job = job;
+    }
+
+    // Hỗ trợ cả mảng JSON lẫn NDJSON (mỗi dòng một đối tượng)
+    void readJson(Reader reader, RowSink sink) throws IOException, InterruptedException {
+        long index = 0;
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(reader)) {
+            while (nodes.hasNextValue()) {
+                JsonNode node = nodes.nextValue();
+                index++;
+                job.read();
+                try {
+                    sink.accept(new BookImportRow(index, objectMapper.treeToValue(node, BookRequest.class)));
+                } catch (JsonProcessingException ex) {
+                    job.reject(index, "Dữ liệu không hợp lệ: " + ex.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    void readCsv(Reader reader, RowSink sink) throws IOException, InterruptedException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new UserMessageException("File nhập không có dữ liệu!");
+        }
+        String[] fields = new String[header.size()];
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            fields[i] = CSV_COLUMNS.get(name);
+        }
+        if (!List.of(fields).contains("title")) {
+            throw new UserMessageException("File CSV thiếu cột title!");
+        }
+
+        List<String> values;
+        while ((values = csv.next()) != null) {
+            long line = csv.recordLine();
+            job.read();
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < fields.length && i < values.size(); i++) {
+                if (fields[i] != null && !values.get(i).isBlank()) {
+                    record.put(fields[i], values.get(i).trim());
+                }
+            }
+            try {
+                sink.accept(new BookImportRow(line, toRequest(record)));
+            } catch (NumberFormatException ex) {
+                job.reject(line, "Năm xuất bản, giá hoặc số lượng không phải là số");
+            }
+        }
+    }
+
+    private BookRequest toRequest(Map<String, String> record) {
+        BookRequest request = new BookRequest();
+        request.setTitle(record.get("title"));
+        request.setAuthorName(record.get("authorName"));
+        request.setCategory(record.get("category"));
+        request.setPublisher(record.get("publisher"));
+        request.setYearPublished(record.containsKey("yearPublished") ? Integer.valueOf(record.get("yearPublished")) : null);
+        request.setPrice(record.containsKey("price") ? new BigDecimal(record.get("price")) : null);
+        request.setQuantity(record.containsKey("quantity") ? Integer.valueOf(record.get("quantity")) : null);
+        request.setDescription(record.get("description"));
+        request.setLanguage(record.get("language"));
+        request.setUser(record.get("user"));
+        return request;
+    }
+}
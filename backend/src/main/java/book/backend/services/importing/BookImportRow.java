@@ -0,0 +1,18 @@
+package book.backend.services.importing;
+
+import book.backend.models.dtos.book.BookRequest;
+
+// Một bản ghi đi qua các bước của pipeline, các id được điền ở bước tra tên
+class BookImportRow {
+    final long line;
+    final BookRequest request;
+    Long authorId;
+    Long categoryId;
+    Long publisherId;
+    Long userId;
+
+    BookImportRow(long line, BookRequest request) {
+        this.line = line;
+        this.request = request;
+    }
+}
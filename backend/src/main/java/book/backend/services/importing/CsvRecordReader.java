@@ -0,0 +1,95 @@
+package book.backend.services.importing;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Đọc CSV theo RFC 4180 từng bản ghi một (trường trong ngoặc kép được phép chứa dấu phẩy và xuống dòng)
+class CsvRecordReader {
+    private final Reader reader;
+    // Tự đệm thay cho BufferedReader.read() để không phải lấy khóa cho từng ký tự
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private final StringBuilder field = new StringBuilder();
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = -1;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Dòng bắt đầu của bản ghi vừa đọc
+    long recordLine() {
+        return recordLine;
+    }
+
+    // Trả về null khi hết file
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> values = new ArrayList<>();
+        boolean quoted = false;
+        field.setLength(0);
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Thiếu dấu ngoặc kép đóng cho bản ghi ở dòng " + recordLine);
+                }
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        pushedBack = n;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                values.add(field.toString());
+                return values;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -1) {
+            c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,11 @@
+package book.backend.services.interfaces;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import book.backend.models.dtos.book.BookImportJobResponse;
+import book.backend.models.global.ApiResult;
+
+public interface IBookImportServices {
+    ApiResult<BookImportJobResponse> startImport(MultipartFile file);
+    ApiResult<BookImportJobResponse> getImportJob(String jobId);
+}
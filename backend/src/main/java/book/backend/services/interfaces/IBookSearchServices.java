@@ -0,0 +1,9 @@
+package book.backend.services.interfaces;
+
+import book.backend.models.dtos.book.BookSearchResponse;
+import book.backend.models.global.ApiResult;
+
+public interface IBookSearchServices {
+    ApiResult<BookSearchResponse> search(String query, String category, String publisher, String language, Integer page, Integer size);
+    void rebuild();
+}
@@ -6,10 +6,12 @@ import book.backend.models.dtos.book.BookGetsResponse;
 import book.backend.models.dtos.book.BookRequest;
 import book.backend.models.dtos.book.BookUpdateRequest;
 import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
 
 public interface IBookServices {
     ApiResult<BookGetsResponse> getBookDetail(Long id);
     ApiResult<List<BookGetsResponse>> getsBook();
+    ApiResult<CursorPage<BookGetsResponse>> getsBookPage(String cursor, Integer size);
     ApiResult<Long> createBook(BookRequest request);
     ApiResult<String> updateBook(Long id, BookUpdateRequest request);
     ApiResult<String> deleteBook(Long id);
@@ -2,12 +2,19 @@ package book.backend.services.interfaces;
 
 import java.util.List;
 
+import book.backend.models.dtos.borrow.BorrowFilter;
 import book.backend.models.dtos.borrow.BorrowGetsResponse;
 import book.backend.models.dtos.borrow.BorrowRequest;
+import book.backend.models.dtos.borrow.UserBorrowResponse;
 import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
 
 public interface IBorrowServices {
     ApiResult<List<BorrowGetsResponse>> getsBorrow();
+    ApiResult<CursorPage<BorrowGetsResponse>> getsBorrowPage(String cursor, Integer size);
+    ApiResult<CursorPage<BorrowGetsResponse>> searchBorrows(BorrowFilter filter, String cursor, Integer size);
+    ApiResult<CursorPage<UserBorrowResponse>> getsUserBorrows(Long userId, String cursor, Integer size);
+    ApiResult<CursorPage<BorrowGetsResponse>> getsOverdue(String cursor, Integer size);
     ApiResult<BorrowGetsResponse> getBorrowDetail(Long id); 
     ApiResult<Long> createBorrow(Long userId, BorrowRequest request);
     ApiResult<String> updateBorrow(Long id, BorrowRequest request);
@@ -0,0 +1,10 @@
+package book.backend.services.interfaces;
+
+import java.util.List;
+
+import book.backend.models.dtos.stats.CacheStatsResponse;
+import book.backend.models.global.ApiResult;
+
+public interface ICacheServices {
+    ApiResult<List<CacheStatsResponse>> getCacheStats();
+}
@@ -0,0 +1,11 @@
+package book.backend.services.interfaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import book.backend.models.global.ExportFormat;
+
+public interface IExportServices {
+    void exportBooks(ExportFormat format, OutputStream out) throws IOException;
+    void exportBorrows(ExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,23 @@
+package book.backend.services.interfaces;
+
+import java.util.List;
+
+import book.backend.models.dtos.borrowdetail.BorrowDetailGetsResponse;
+import book.backend.models.dtos.inventory.InventoryHistoryResponse;
+import book.backend.models.entities.InventoryOutbox;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.CursorPage;
+
+public interface IInventoryHistoryServices {
+    // Loại biến động kho
+    String BORROWED = "MUON";
+    String RETURNED = "TRA";
+    String CANCELLED = "HUY";
+    String BOOK_CHANGED = "DOI SACH";
+
+    void record(List<InventoryOutbox> events);
+    void recordCancelled(List<BorrowDetailGetsResponse> details);
+    int dispatch();
+    ApiResult<CursorPage<InventoryHistoryResponse>> getsByBook(Long bookId, String cursor, Integer size);
+    ApiResult<CursorPage<InventoryHistoryResponse>> getsByUser(Long userId, String cursor, Integer size);
+}
@@ -0,0 +1,11 @@
+package book.backend.services.interfaces;
+
+import java.util.Map;
+
+public interface IInventoryServices {
+    void reserve(Long bookId, int quantity);
+    void release(Long bookId, int quantity);
+    void adjust(Long bookId, int delta);
+    void reserveAll(Map<Long, Integer> quantities);
+    void releaseAll(Map<Long, Integer> quantities);
+}
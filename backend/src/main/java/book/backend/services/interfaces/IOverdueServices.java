@@ -0,0 +1,13 @@
+package book.backend.services.interfaces;
+
+import java.util.List;
+
+import book.backend.models.dtos.borrow.OverdueReminderResponse;
+import book.backend.models.entities.Borrow;
+import book.backend.models.global.ApiResult;
+
+public interface IOverdueServices {
+    int detect();
+    void rewind(Borrow borrow);
+    ApiResult<List<OverdueReminderResponse>> claimReminders(Integer size);
+}
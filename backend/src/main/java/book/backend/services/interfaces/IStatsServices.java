@@ -0,0 +1,16 @@
+package book.backend.services.interfaces;
+
+import book.backend.models.dtos.stats.StatsResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.models.global.BorrowStatus;
+
+public interface IStatsServices {
+    ApiResult<StatsResponse> getStats();
+    void reconcile();
+    void adjustBooks(long titles, long copies, long available);
+    void adjustAuthors(long delta);
+    void adjustCategories(long delta);
+    void adjustPublishers(long delta);
+    void adjustUsers(long delta);
+    void adjustBorrowStatus(BorrowStatus oldStatus, BorrowStatus newStatus);
+}
@@ -7,4 +7,11 @@ import book.backend.models.dtos.auth.TokenResponse;
 public interface ITokenService {
     TokenResponse generateTokens(UserDetails userDetails);
 
+    // Đổi refresh token lấy cặp token mới; refresh token cũ hết hiệu lực ngay
+    TokenResponse refreshTokens(String refreshToken);
+
+    void revokeRefreshToken(String refreshToken);
+
+    // Access token bị từ chối ngay ở request kế tiếp thay vì còn dùng được tới khi hết hạn
+    void revokeAccessToken(String accessToken);
 }
@@ -0,0 +1,28 @@
+package book.backend.services.search;
+
+import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.entities.Book;
+
+// Các trường của sách được đưa vào chỉ mục tìm kiếm
+public record BookDocument(
+        Long id,
+        String title,
+        String author,
+        String category,
+        String publisher,
+        String language,
+        String description) {
+
+    public static BookDocument from(BookGetsResponse book) {
+        return new BookDocument(book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(),
+                book.getPublisher(), book.getLanguage(), book.getDescription());
+    }
+
+    public static BookDocument from(Book book) {
+        return new BookDocument(book.getId(), book.getTitle(),
+                book.getAuthor() != null ? book.getAuthor().getAuthorname() : null,
+                book.getCategory() != null ? book.getCategory().getCategoryname() : null,
+                book.getPublisher() != null ? book.getPublisher().getPublisherName() : null,
+                book.getLanguage(), book.getDescription());
+    }
+}
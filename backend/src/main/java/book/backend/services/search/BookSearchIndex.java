@@ -0,0 +1,530 @@
+package book.backend.services.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Chỉ mục đảo ngược (inverted index) của sách, giữ hoàn toàn trong bộ nhớ.
+ *
+ * Mỗi sách được đánh một số thứ tự nội bộ (doc); mỗi từ khóa giữ danh sách (doc, trọng số).
+ * Sửa sách thì đánh doc mới và đánh dấu doc cũ đã xóa, khi số doc đã xóa nhiều thì nén lại toàn bộ.
+ * Điểm xếp hạng = tổng trọng số trường * idf của từng từ khóa; từ cuối của câu truy vấn được tìm theo tiền tố.
+ */
+@Component
+public class BookSearchIndex {
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_PUBLISHER = "publisher";
+    public static final String FACET_LANGUAGE = "language";
+    private static final String[] FACETS = { FACET_CATEGORY, FACET_PUBLISHER, FACET_LANGUAGE };
+
+    private static final float TITLE_BOOST = 3f;
+    private static final float AUTHOR_BOOST = 2f;
+    private static final float CATEGORY_BOOST = 1.5f;
+    private static final float PUBLISHER_BOOST = 1f;
+    private static final float DESCRIPTION_BOOST = 1f;
+    // Mô tả dài tới 10.000 ký tự, chỉ lấy các từ đầu tiên để chỉ mục không phình theo độ dài mô tả
+    private static final int MAX_DESCRIPTION_TERMS = 100;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MAX_FACET_VALUES = 20;
+    // Chỉ xếp hạng tới chừng này kết quả đầu (offset + limit); heap top-k bắt đầu nhỏ và tự lớn dần
+    public static final int MAX_WINDOW = 10_000;
+    private static final int INITIAL_HEAP_CAPACITY = 128;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Mỗi lúc chỉ một lần dựng lại, lần sau chờ lần trước đổi chỉ mục xong
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private TreeMap<String, Postings> terms = new TreeMap<>();
+    private Map<Long, Integer> docByBookId = new HashMap<>();
+    private BitSet live = new BitSet();
+    private FacetDictionary[] facetDictionaries = new FacetDictionary[FACETS.length];
+    private long[] bookIds = new long[1024];
+    private int[][] facetValues = new int[FACETS.length][1024];
+    private int maxDoc;
+    private int deleted;
+    // Thay đổi theo id sách xảy ra trong lúc dựng lại (null = đã xóa), phát lại lên chỉ mục mới trước khi đổi
+    private Map<Long, BookDocument> changesDuringRebuild;
+
+    // Mảng tạm cho mỗi truy vấn, tái sử dụng để không cấp phát lại mảng cỡ số sách mỗi lần tìm
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+    private final int maxPooledScratch = Runtime.getRuntime().availableProcessors() * 2;
+
+    public BookSearchIndex() {
+        for (int f = 0; f < FACETS.length; f++) {
+            facetDictionaries[f] = new FacetDictionary();
+        }
+    }
+
+    public void index(BookDocument document) {
+        Map<String, Float> weights = weigh(document);
+        lock.writeLock().lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(document.id(), document);
+            }
+            removeLocked(document.id());
+            int doc = maxDoc++;
+            ensureCapacity(maxDoc);
+            bookIds[doc] = document.id();
+            facetValues[0][doc] = facetDictionaries[0].idOf(document.category());
+            facetValues[1][doc] = facetDictionaries[1].idOf(document.publisher());
+            facetValues[2][doc] = facetDictionaries[2].idOf(document.language());
+            live.set(doc);
+            docByBookId.put(document.id(), doc);
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(bookId, null);
+            }
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ chỉ mục: loader nạp sách vào một chỉ mục mới, chỉ mục đang dùng vẫn phục vụ tìm kiếm
+     * đầy đủ trong lúc đó. Các lần index/remove xen vào được ghi lại và phát lại lên chỉ mục mới rồi mới đổi,
+     * nên sách bị xóa trong lúc dựng không quay lại từ một lô đã đọc trước khi xóa.
+     * Loader lỗi thì chỉ mục cũ được giữ nguyên.
+     */
+    public void rebuild(Consumer<BookSearchIndex> loader) {
+        rebuildLock.lock();
+        try {
+            BookSearchIndex rebuilt = new BookSearchIndex();
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                loader.accept(rebuilt);
+                lock.writeLock().lock();
+                try {
+                    changesDuringRebuild.forEach((bookId, document) -> {
+                        if (document != null) {
+                            rebuilt.index(document);
+                        } else {
+                            rebuilt.remove(bookId);
+                        }
+                    });
+                    adoptLocked(rebuilt);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    changesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByBookId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tìm sách khớp mọi từ trong query (từ cuối khớp theo tiền tố), lọc theo facet nếu có.
+     * Query rỗng thì trả về mọi sách thỏa bộ lọc, mới nhất trước.
+     */
+    public SearchHits search(String query, String category, String publisher, String language, int offset, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        String[] filters = { category, publisher, language };
+
+        lock.readLock().lock();
+        Scratch scratch = acquireScratch();
+        try {
+            int[] filterIds = new int[FACETS.length];
+            for (int f = 0; f < FACETS.length; f++) {
+                filterIds[f] = filters[f] == null || filters[f].isBlank() ? FacetDictionary.ANY : facetDictionaries[f].find(filters[f]);
+                if (filterIds[f] == FacetDictionary.MISSING) {
+                    return emptyHits();
+                }
+            }
+
+            List<List<Postings>> groups = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                List<Postings> group = lookup(tokens.get(i), i == tokens.size() - 1);
+                if (group.isEmpty()) {
+                    return emptyHits();
+                }
+                groups.add(group);
+            }
+            // Bắt đầu từ nhóm ít doc nhất, các nhóm sau chỉ cộng điểm cho doc đã khớp trước đó
+            groups.sort(Comparator.comparingLong(BookSearchIndex::postingCount));
+
+            scratch.ensureCapacity(maxDoc);
+            int candidates = groups.isEmpty() ? collectAll(scratch) : collectMatches(groups, scratch);
+            return rank(scratch, candidates, groups.size(), filterIds, offset, limit);
+        } finally {
+            scratch.reset();
+            releaseScratch(scratch);
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Float> weigh(BookDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, document.title(), TITLE_BOOST, Integer.MAX_VALUE);
+        addField(weights, document.author(), AUTHOR_BOOST, Integer.MAX_VALUE);
+        addField(weights, document.category(), CATEGORY_BOOST, Integer.MAX_VALUE);
+        addField(weights, document.publisher(), PUBLISHER_BOOST, Integer.MAX_VALUE);
+        addField(weights, document.description(), DESCRIPTION_BOOST, MAX_DESCRIPTION_TERMS);
+        return weights;
+    }
+
+    // Trọng số một trường = boost * (1 + ln(tần suất từ trong trường))
+    private static void addField(Map<String, Float> weights, String text, float boost, int maxTerms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : TextNormalizer.tokenize(text)) {
+            if (frequencies.size() >= maxTerms && !frequencies.containsKey(token)) {
+                continue;
+            }
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            float weight = boost * (1f + (float) Math.log(entry.getValue()));
+            weights.merge(entry.getKey(), weight, Float::sum);
+        }
+    }
+
+    private List<Postings> lookup(String token, boolean prefix) {
+        List<Postings> group = new ArrayList<>();
+        if (prefix && token.length() >= MIN_PREFIX_LENGTH) {
+            for (Postings postings : terms.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                group.add(postings);
+                if (group.size() == MAX_PREFIX_TERMS) {
+                    break;
+                }
+            }
+        } else {
+            Postings postings = terms.get(token);
+            if (postings != null) {
+                group.add(postings);
+            }
+        }
+        return group;
+    }
+
+    private static long postingCount(List<Postings> group) {
+        long count = 0;
+        for (Postings postings : group) {
+            count += postings.size;
+        }
+        return count;
+    }
+
+    private int collectAll(Scratch scratch) {
+        int count = 0;
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            scratch.touched[count++] = doc;
+        }
+        return count;
+    }
+
+    // hits[doc] = số nhóm từ khóa doc đã khớp; một doc khớp nhiều từ mở rộng của cùng tiền tố chỉ tính một lần
+    private int collectMatches(List<List<Postings>> groups, Scratch scratch) {
+        int liveDocs = docByBookId.size();
+        int count = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            for (Postings postings : groups.get(g)) {
+                float idf = (float) Math.log(1.0 + (double) liveDocs / postings.size);
+                for (int j = 0; j < postings.size; j++) {
+                    int doc = postings.docs[j];
+                    int hits = scratch.hits[doc];
+                    if (hits == g) {
+                        if (g == 0) {
+                            if (!live.get(doc)) {
+                                continue;
+                            }
+                            scratch.touched[count++] = doc;
+                        }
+                        scratch.hits[doc] = g + 1;
+                        scratch.scores[doc] += postings.weights[j] * idf;
+                    } else if (hits == g + 1) {
+                        scratch.scores[doc] += postings.weights[j] * idf;
+                    }
+                }
+            }
+        }
+        scratch.touchedCount = count;
+        return count;
+    }
+
+    private SearchHits rank(Scratch scratch, int candidates, int groupCount, int[] filterIds, int offset, int limit) {
+        int[][] facetCounts = new int[FACETS.length][];
+        for (int f = 0; f < FACETS.length; f++) {
+            facetCounts[f] = new int[facetDictionaries[f].size()];
+        }
+
+        int from = Math.min(Math.max(0, offset), MAX_WINDOW);
+        int topSize = from + Math.min(Math.max(0, limit), MAX_WINDOW - from);
+        float[] scores = scratch.scores;
+        // Heap nhỏ nhất theo (điểm, id sách): phần tử đầu là kết quả yếu nhất trong top hiện tại,
+        // cùng điểm thì sách id lớn hơn (mới hơn) đứng trước
+        long[] ids = bookIds;
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, Math.min(topSize, INITIAL_HEAP_CAPACITY)),
+                (a, b) -> scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Long.compare(ids[a], ids[b]));
+        long total = 0;
+        for (int i = 0; i < candidates; i++) {
+            int doc = scratch.touched[i];
+            if (groupCount > 0 && scratch.hits[doc] != groupCount) {
+                continue;
+            }
+            if (!matchesFilters(doc, filterIds)) {
+                continue;
+            }
+            total++;
+            for (int f = 0; f < FACETS.length; f++) {
+                int value = facetValues[f][doc];
+                if (value >= 0) {
+                    facetCounts[f][value]++;
+                }
+            }
+            if (topSize == 0) {
+                continue;
+            }
+            if (top.size() < topSize) {
+                top.add(doc);
+            } else if (top.comparator().compare(doc, top.peek()) > 0) {
+                top.poll();
+                top.add(doc);
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(bookIds[top.poll()]);
+        }
+        Collections.reverse(ranked);
+        List<Long> page = from >= ranked.size() ? List.of() : ranked.subList(from, ranked.size());
+
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (int f = 0; f < FACETS.length; f++) {
+            facets.put(FACETS[f], facetDictionaries[f].topCounts(facetCounts[f], MAX_FACET_VALUES));
+        }
+        return new SearchHits(new ArrayList<>(page), total, facets);
+    }
+
+    private boolean matchesFilters(int doc, int[] filterIds) {
+        for (int f = 0; f < FACETS.length; f++) {
+            if (filterIds[f] != FacetDictionary.ANY && facetValues[f][doc] != filterIds[f]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SearchHits emptyHits() {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (String facet : FACETS) {
+            facets.put(facet, Map.of());
+        }
+        return new SearchHits(List.of(), 0, facets);
+    }
+
+    private void removeLocked(Long bookId) {
+        Integer doc = docByBookId.remove(bookId);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        deleted++;
+        if (deleted >= MIN_DELETED_TO_COMPACT && deleted * 4 >= maxDoc) {
+            compactLocked();
+        }
+    }
+
+    // Lấy toàn bộ dữ liệu của chỉ mục vừa dựng; chỉ mục đó không còn được dùng sau khi đổi
+    private void adoptLocked(BookSearchIndex rebuilt) {
+        terms = rebuilt.terms;
+        docByBookId = rebuilt.docByBookId;
+        live = rebuilt.live;
+        facetDictionaries = rebuilt.facetDictionaries;
+        bookIds = rebuilt.bookIds;
+        facetValues = rebuilt.facetValues;
+        maxDoc = rebuilt.maxDoc;
+        deleted = rebuilt.deleted;
+    }
+
+    // Đánh lại số doc liên tục, bỏ các doc đã xóa khỏi mọi danh sách từ khóa
+    private void compactLocked() {
+        int[] remap = new int[maxDoc];
+        int next = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (live.get(doc)) {
+                remap[doc] = next;
+                bookIds[next] = bookIds[doc];
+                for (int f = 0; f < FACETS.length; f++) {
+                    facetValues[f][next] = facetValues[f][doc];
+                }
+                docByBookId.put(bookIds[next], next);
+                next++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        live.clear();
+        live.set(0, next);
+        terms.values().removeIf(postings -> postings.compact(remap) == 0);
+        maxDoc = next;
+        deleted = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= bookIds.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, bookIds.length * 2);
+        bookIds = Arrays.copyOf(bookIds, newLength);
+        for (int f = 0; f < FACETS.length; f++) {
+            facetValues[f] = Arrays.copyOf(facetValues[f], newLength);
+        }
+    }
+
+    private Scratch acquireScratch() {
+        Scratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    private void releaseScratch(Scratch scratch) {
+        if (scratchPool.size() < maxPooledScratch) {
+            scratchPool.offer(scratch);
+        }
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    // Giá trị facet (thể loại, NXB, ngôn ngữ) được so khớp theo dạng đã bỏ dấu, hiển thị theo tên gặp đầu tiên
+    private static final class FacetDictionary {
+        static final int ANY = -1;
+        static final int MISSING = -2;
+
+        private final Map<String, Integer> idsByKey = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int idOf(String value) {
+            if (value == null || value.isBlank()) {
+                return ANY;
+            }
+            return idsByKey.computeIfAbsent(TextNormalizer.fold(value.trim()), key -> {
+                names.add(value.trim());
+                return names.size() - 1;
+            });
+        }
+
+        int find(String value) {
+            Integer id = idsByKey.get(TextNormalizer.fold(value.trim()));
+            return id != null ? id : MISSING;
+        }
+
+        int size() {
+            return names.size();
+        }
+
+        Map<String, Long> topCounts(int[] counts, int max) {
+            List<Integer> ids = new ArrayList<>();
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) {
+                    ids.add(id);
+                }
+            }
+            ids.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size() && i < max; i++) {
+                result.put(names.get(ids.get(i)), (long) counts[ids.get(i)]);
+            }
+            return result;
+        }
+    }
+
+    private static final class Scratch {
+        private int[] hits = new int[0];
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        void ensureCapacity(int capacity) {
+            if (hits.length < capacity) {
+                hits = new int[capacity];
+                scores = new float[capacity];
+                touched = new int[capacity];
+            }
+        }
+
+        // Chỉ xóa các ô đã dùng, không phải cả mảng
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                hits[doc] = 0;
+                scores[doc] = 0f;
+            }
+            touchedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package book.backend.services.search;
+
+import java.util.List;
+import java.util.Map;
+
+// Kết quả tra chỉ mục: id sách của trang hiện tại theo thứ tự điểm, tổng số kết quả và số lượng theo từng facet
+public record SearchHits(List<Long> bookIds, long total, Map<String, Map<String, Long>> facets) {
+}
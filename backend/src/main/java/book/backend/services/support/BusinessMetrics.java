@@ -0,0 +1,36 @@
+package book.backend.services.support;
+
+import io.micrometer.core.instrument.Metrics;
+
+// Bộ đếm nghiệp vụ ghi vào registry toàn cục; Spring Boot gắn registry Prometheus vào đó khi khởi động
+public final class BusinessMetrics {
+    private BusinessMetrics() {
+    }
+
+    public static void borrowCreated() {
+        Metrics.counter("book.borrows.created").increment();
+    }
+
+    public static void borrowsOverdue(long count) {
+        Metrics.counter("book.borrows.overdue").increment(count);
+    }
+
+    // reason: insufficient (không đủ sách) hoặc missing (sách không tồn tại)
+    public static void stockRejected(String reason) {
+        Metrics.counter("book.inventory.rejections", "reason", reason).increment();
+    }
+
+    public static void loginFailed(String reason) {
+        Metrics.counter("book.auth.login.failures", "reason", reason).increment();
+    }
+
+    // scope: user (bucket của người dùng) hoặc route (giới hạn chung của route)
+    public static void rateLimited(String scope) {
+        Metrics.counter("book.http.rate_limited", "scope", scope).increment();
+    }
+
+    // outcome: rotated, reused (token cũ bị dùng lại), unknown (họ đã hết hạn/thu hồi) hoặc invalid
+    public static void tokenRefreshed(String outcome) {
+        Metrics.counter("book.auth.refresh", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,32 @@
+package book.backend.services.support;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+/**
+ * Danh sách danh mục (tác giả, thể loại, NXB) dùng chung giữa các request qua Spring Cache.
+ * Chỉ cache bản List.copyOf bất biến, ApiResult được tạo mới ở mỗi lần gọi: người gọi sort hay sửa
+ * danh sách thì nhận lỗi ngay thay vì làm hỏng dữ liệu trong cache của request khác.
+ * Khóa trùng với khóa mặc định của @Cacheable không tham số nên @CacheEvict hiện có vẫn xóa đúng entry.
+ */
+@Component
+public class ReferenceListCache {
+    private final CacheManager cacheManager;
+
+    public ReferenceListCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public <T> List<T> get(String cacheName, Supplier<List<T>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return List.copyOf(loader.get());
+        }
+        return cache.get(SimpleKey.EMPTY, () -> List.copyOf(loader.get()));
+    }
+}
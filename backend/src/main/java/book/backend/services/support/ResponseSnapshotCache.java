@@ -0,0 +1,125 @@
+package book.backend.services.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Cache mức response cho các API danh sách: giữ sẵn byte JSON cuối cùng kèm một bản gzip nén sẵn,
+ * lần sau trả thẳng mảng byte, không map entity, không sort, không serialize lại.
+ * Mỗi bản chụp gắn với ETag lúc tạo (phiên bản các bảng trong {@link TableVersions}), service ghi dữ liệu
+ * là ETag đổi và bản chụp cũ tự hết hiệu lực ở lần đọc kế tiếp.
+ * Tổng dung lượng bị giới hạn theo byte, vượt ngân sách thì Caffeine loại bản ít dùng gần đây nhất.
+ */
+@Component
+public class ResponseSnapshotCache {
+    // gzip null khi body quá nhỏ, nén xong còn lớn hơn bản gốc
+    public record Snapshot(String etag, byte[] json, byte[] gzip) {
+        int weight() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Snapshot> snapshots;
+    // Tự đếm trúng/trượt: bản chụp của phiên bản cũ vẫn nằm trong Caffeine nhưng phải tính là trượt
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong serializationBytesSaved = new AtomicLong();
+    private final AtomicLong transferBytesSaved = new AtomicLong();
+    private final Counter serializationSaved;
+    private final Counter transferSaved;
+
+    public ResponseSnapshotCache(ObjectMapper objectMapper,
+            @Value("${response-snapshot.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.snapshots = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, Snapshot snapshot) -> snapshot.weight())
+            .recordStats()
+            .build();
+        this.serializationSaved = Metrics.counter("response.snapshot.saved.bytes", "kind", "serialization");
+        this.transferSaved = Metrics.counter("response.snapshot.saved.bytes", "kind", "transfer");
+        Metrics.gauge("response.snapshot.size.bytes", this, cache -> cache.weightedSize());
+    }
+
+    // Trả null nếu chưa có hoặc bản chụp thuộc phiên bản dữ liệu cũ
+    public Snapshot lookup(String key, String etag) {
+        Snapshot snapshot = snapshots.getIfPresent(key);
+        if (snapshot == null || !snapshot.etag().equals(etag)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        serializationBytesSaved.addAndGet(snapshot.json().length);
+        serializationSaved.increment(snapshot.json().length);
+        return snapshot;
+    }
+
+    // Hai request cùng trượt có thể cùng tạo bản chụp; chấp nhận để không giữ khóa trong lúc truy vấn DB
+    public Snapshot store(String key, String etag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = gzip(json);
+            Snapshot snapshot = new Snapshot(etag, json, gzip.length < json.length ? gzip : null);
+            snapshots.put(key, snapshot);
+            stores.incrementAndGet();
+            return snapshot;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void servedGzip(Snapshot snapshot) {
+        long saved = snapshot.json().length - snapshot.gzip().length;
+        transferBytesSaved.addAndGet(saved);
+        transferSaved.increment(saved);
+    }
+
+    public CacheStats stats() {
+        CacheStats evictions = snapshots.stats();
+        return CacheStats.of(hits.get(), misses.get(), stores.get(), 0, 0,
+            evictions.evictionCount(), evictions.evictionWeight());
+    }
+
+    public long size() {
+        return snapshots.estimatedSize();
+    }
+
+    public long weightedSize() {
+        return snapshots.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    // Byte không phải serialize lại (trúng cache) cộng byte không phải truyền đi (gửi bản gzip)
+    public long bytesSaved() {
+        return serializationBytesSaved.get() + transferBytesSaved.get();
+    }
+
+    // Nén một lần lúc tạo nên dùng mức nén cao nhất, chi phí chia đều cho mọi lần đọc sau
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
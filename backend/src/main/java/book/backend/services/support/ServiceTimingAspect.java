@@ -0,0 +1,43 @@
+package book.backend.services.support;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Đo thời gian mọi method khai báo trong các interface I*Services (metric book.service)
+@Aspect
+@Component
+public class ServiceTimingAspect {
+    private final MeterRegistry registry;
+
+    public ServiceTimingAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* book.backend.services.interfaces.I*Services.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (UserMessageException ex) {
+            outcome = "rejected";
+            throw ex;
+        } catch (Throwable ex) {
+            outcome = "error";
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("book.service")
+                    .description("Thời gian xử lý của các method service")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package book.backend.services.support;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bộ đếm phiên bản của từng bảng, service tăng sau khi ghi dữ liệu commit thành công.
+ * ETag của các API GET ghép từ phiên bản các bảng mà response đọc tới, nên so If-None-Match
+ * chỉ là so chuỗi trong bộ nhớ: không truy vấn DB, không serialize rồi băm body.
+ * Bộ đếm nằm trong bộ nhớ từng instance, chạy nhiều instance thì ETag giữa các node không khớp nhau
+ * (client chỉ mất 304, không bao giờ nhận dữ liệu cũ).
+ */
+public final class TableVersions {
+    public enum Table {
+        BOOKS, AUTHORS, CATEGORIES, PUBLISHERS, USERS, BORROWS, BORROW_DETAILS
+    }
+
+    // Khác nhau giữa các lần khởi động để ETag client giữ từ lần chạy trước không trùng bộ đếm vừa về 0
+    private static final String EPOCH = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    private static final AtomicLongArray VERSIONS = new AtomicLongArray(Table.values().length);
+
+    private TableVersions() {
+    }
+
+    // Tăng sau commit chứ không phải trước: nếu tăng trước, một request đọc xen vào lúc transaction chưa commit
+    // sẽ nhận dữ liệu cũ kèm ETag mới và client giữ bản cũ đó cho tới lần ghi sau
+    public static void bump(Table... tables) {
+        TransactionHooks.afterCommit(() -> {
+            for (Table table : tables) {
+                VERSIONS.incrementAndGet(table.ordinal());
+            }
+        });
+    }
+
+    public static long version(Table table) {
+        return VERSIONS.get(table.ordinal());
+    }
+
+    // Phải lấy ETag trước khi đọc dữ liệu; lệch thì chỉ theo hướng ETag cũ hơn dữ liệu (lần sau trả 200 thừa)
+    public static String etag(Table... tables) {
+        StringBuilder etag = new StringBuilder(16 + tables.length * 4).append('"').append(EPOCH);
+        for (Table table : tables) {
+            etag.append('-').append(Long.toString(version(table), 36));
+        }
+        return etag.append('"').toString();
+    }
+}
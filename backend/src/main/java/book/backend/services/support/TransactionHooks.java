@@ -0,0 +1,23 @@
+package book.backend.services.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionHooks {
+    private TransactionHooks() {
+    }
+
+    // Chạy action sau khi transaction hiện tại commit thành công; nếu không có transaction thì chạy ngay
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
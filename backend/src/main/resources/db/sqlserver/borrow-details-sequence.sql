@@ -0,0 +1,38 @@
+-- Chuyển BorrowDetails.id từ IDENTITY sang sequence BorrowDetails_seq (SQL Server).
+-- ddl-auto=update không bỏ được thuộc tính IDENTITY của cột có sẵn, nên database tạo trước khi đổi sang sequence
+-- phải chạy script này một lần, lúc ứng dụng đang dừng. Chạy lại nhiều lần vẫn an toàn.
+-- Khóa ngoại của BorrowDetails bị xóa cùng bảng cũ; lần khởi động kế tiếp Hibernate (ddl-auto=update) tạo lại.
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+-- 1. Dựng lại bảng với cột id thường (SQL Server không cho ALTER bỏ IDENTITY)
+IF COLUMNPROPERTY(OBJECT_ID(N'dbo.BorrowDetails'), N'id', N'IsIdentity') = 1
+BEGIN
+    CREATE TABLE dbo.BorrowDetails_migrating (
+        id BIGINT NOT NULL PRIMARY KEY,
+        quantity INT NOT NULL,
+        bookId BIGINT NULL,
+        borrowId BIGINT NULL
+    );
+
+    INSERT INTO dbo.BorrowDetails_migrating (id, quantity, bookId, borrowId)
+    SELECT id, quantity, bookId, borrowId FROM dbo.BorrowDetails WITH (TABLOCKX, HOLDLOCK);
+
+    DROP TABLE dbo.BorrowDetails;
+    EXEC sp_rename N'dbo.BorrowDetails_migrating', N'BorrowDetails';
+END;
+
+-- 2. Sequence phải cấp id lớn hơn MAX(id). Hibernate dùng bộ tối ưu pooled với allocationSize = 100:
+-- giá trị v lấy từ sequence cho khối id (v - 99 .. v], nên khối đầu tiên phải bắt đầu ở MAX(id) + 100
+IF OBJECT_ID(N'dbo.BorrowDetails', N'U') IS NOT NULL
+BEGIN
+    DECLARE @start BIGINT = (SELECT ISNULL(MAX(id), 0) + 100 FROM dbo.BorrowDetails WITH (TABLOCKX, HOLDLOCK));
+
+    IF OBJECT_ID(N'dbo.BorrowDetails_seq', N'SO') IS NULL
+        EXEC (N'CREATE SEQUENCE dbo.BorrowDetails_seq START WITH ' + CAST(@start AS NVARCHAR(20)) + N' INCREMENT BY 100');
+    ELSE IF (SELECT CAST(current_value AS BIGINT) FROM sys.sequences
+             WHERE object_id = OBJECT_ID(N'dbo.BorrowDetails_seq')) < @start
+        EXEC (N'ALTER SEQUENCE dbo.BorrowDetails_seq RESTART WITH ' + CAST(@start AS NVARCHAR(20)) + N' INCREMENT BY 100');
+END;
+
+COMMIT TRANSACTION;
@@ -0,0 +1,46 @@
+package book.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import book.backend.models.dtos.auth.LoginRequest;
+import book.backend.services.interfaces.IStatsServices;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private IStatsServices statsServices;
+
+    @Test
+    void prometheusEndpointExposesHttpServiceHibernatePoolAndBusinessMetrics() {
+        LoginRequest login = new LoginRequest();
+        login.setUsername("khong-ton-tai");
+        login.setPassword("sai");
+        restTemplate.postForEntity("/api/auth/login", login, String.class);
+        statsServices.getStats();
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+            .contains("http_server_requests_seconds_bucket")
+            .contains("book_service_seconds_bucket{application=\"backend\",method=\"getStats\",outcome=\"success\",service=\"StatsServices\"")
+            .contains("book_auth_login_failures_total{application=\"backend\",reason=\"bad_credentials\"}")
+            .contains("hikaricp_connections_pending")
+            .contains("hibernate_query_executions_total")
+            .contains("hibernate_second_level_cache_requests");
+    }
+}
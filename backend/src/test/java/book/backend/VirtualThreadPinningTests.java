@@ -0,0 +1,68 @@
+package book.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+// Quét bytecode của ứng dụng: synchronized (method hoặc khối) giữ virtual thread trên carrier thread
+// trong suốt thời gian chặn I/O bên trong (Java 21), nên code của ta dùng ReentrantLock thay thế
+class VirtualThreadPinningTests {
+
+    @Test
+    void applicationCodeHasNoSynchronizedSections() throws Exception {
+        List<String> sites = new ArrayList<>();
+        Resource[] classes = new PathMatchingResourcePatternResolver().getResources("classpath*:book/backend/**/*.class");
+        for (Resource resource : classes) {
+            if (resource.getURL().toString().contains("/test-classes/")) {
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                new ClassReader(in).accept(new SynchronizedFinder(sites), ClassReader.SKIP_DEBUG);
+            }
+        }
+
+        assertThat(classes).isNotEmpty();
+        assertThat(sites).as("Các vị trí synchronized có thể ghim virtual thread").isEmpty();
+    }
+
+    private static final class SynchronizedFinder extends ClassVisitor {
+        private final List<String> sites;
+        private String className;
+
+        SynchronizedFinder(List<String> sites) {
+            super(Opcodes.ASM9);
+            this.sites = sites;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            String method = className + "." + name;
+            if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                sites.add(method + " (synchronized method)");
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER) {
+                        sites.add(method + " (synchronized block)");
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package book.backend.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import book.backend.models.dtos.author.AuthorResponse;
+import book.backend.models.global.ApiResult;
+import book.backend.services.interfaces.IAuthorServices;
+import book.backend.services.support.ResponseSnapshotCache;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+
+class ConditionalGetTests {
+
+    private IAuthorServices authorServices;
+    private ResponseSnapshotCache snapshotCache;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        authorServices = mock(IAuthorServices.class);
+        when(authorServices.getsAuthor()).thenReturn(ApiResult.success(
+            List.of(new AuthorResponse(1L, "Nam Cao", 1915, "Việt Nam", null)), "Lấy danh sách tác giả thành công"));
+        snapshotCache = new ResponseSnapshotCache(Jackson2ObjectMapperBuilder.json().build(), 1 << 20);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AuthorController(authorServices, snapshotCache)).build();
+    }
+
+    @Test
+    void matchingIfNoneMatchReturns304WithoutCallingService() throws Exception {
+        String etag = mockMvc.perform(get("/api/authors"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/authors").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+
+        verify(authorServices, times(1)).getsAuthor();
+    }
+
+    @Test
+    void writeToTableInvalidatesEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/authors"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Bảng khác đổi không ảnh hưởng
+        TableVersions.bump(Table.BOOKS);
+        mockMvc.perform(get("/api/authors").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        TableVersions.bump(Table.AUTHORS);
+        mockMvc.perform(get("/api/authors").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, TableVersions.etag(Table.AUTHORS)));
+
+        verify(authorServices, times(2)).getsAuthor();
+    }
+
+    @Test
+    void listIsServedFromPrecompressedSnapshot() throws Exception {
+        when(authorServices.getsAuthor()).thenReturn(ApiResult.success(LongStream.rangeClosed(1, 200)
+            .mapToObj(id -> new AuthorResponse(id, "Tác giả " + id, 1900, "Việt Nam", null)).toList(), "OK"));
+
+        byte[] plain = mockMvc.perform(get("/api/authors"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] gzipped = mockMvc.perform(get("/api/authors").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain);
+        }
+        assertThat(new String(plain, "UTF-8")).contains("\"authorname\":\"Tác giả 200\"");
+        // Lần thứ hai trả lại bản chụp, service chỉ chạy một lần
+        verify(authorServices, times(1)).getsAuthor();
+        assertThat(snapshotCache.stats().hitCount()).isEqualTo(1);
+        assertThat(gzipped.length).isLessThan(plain.length);
+        assertThat(snapshotCache.bytesSaved()).isEqualTo(plain.length + (plain.length - gzipped.length));
+    }
+}
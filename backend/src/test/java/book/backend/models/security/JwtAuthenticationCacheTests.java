@@ -0,0 +1,75 @@
+package book.backend.models.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+class JwtAuthenticationCacheTests {
+
+    @Test
+    void entriesHitUntilExpAndCountMisses() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(100, now::get);
+        UserPrincipal reader = principal(1L, "user");
+
+        assertThat(cache.get("token-a")).isNull();
+        cache.put("token-a", claims("reader", now.get() + 60_000), reader, cache.generation(1L));
+        assertThat(cache.get("token-a").principal()).isSameAs(reader);
+        assertThat(cache.get("token-b")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+
+        // Đúng thời điểm exp thì entry không còn dùng được và bị gỡ khỏi cache
+        now.set(1_060_000);
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.size()).isZero();
+
+        cache.put("token-c", claims("reader", now.get() + 1_000), reader, cache.generation(1L));
+        now.addAndGet(1_000);
+        cache.purgeExpired();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidateUserDropsEntriesAndRejectsPrincipalsLoadedBefore() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(100, now::get);
+        Claims claims = claims("reader", now.get() + 60_000);
+
+        cache.put("token-a", claims, principal(1L, "user"), cache.generation(1L));
+        cache.put("token-b", claims("other", now.get() + 60_000), principal(2L, "user"), cache.generation(2L));
+
+        // Request đã đọc số thế hệ và nạp principal với role cũ, rồi người dùng bị đổi role
+        long before = cache.generation(1L);
+        cache.invalidateUser(1L);
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.get("token-b")).isNotNull();
+
+        assertThat(cache.put("token-a", claims, principal(1L, "user"), before)).isNull();
+        assertThat(cache.get("token-a")).isNull();
+
+        // Lần nạp sau khi đổi đọc số thế hệ mới nên được cache bình thường
+        UserPrincipal promoted = principal(1L, "admin");
+        assertThat(cache.put("token-a", claims, promoted, cache.generation(1L))).isNotNull();
+        assertThat(cache.get("token-a").principal()).isSameAs(promoted);
+
+        cache.invalidate("token-a");
+        assertThat(cache.get("token-a")).isNull();
+    }
+
+    private static Claims claims(String subject, long expiresAtMillis) {
+        return Jwts.claims().setSubject(subject).setExpiration(new Date(expiresAtMillis));
+    }
+
+    private static UserPrincipal principal(Long id, String role) {
+        return new UserPrincipal(id, "user" + id, "x", "Người dùng " + id, List.of(new SimpleGrantedAuthority(role)));
+    }
+}
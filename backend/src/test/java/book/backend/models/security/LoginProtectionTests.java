@@ -0,0 +1,87 @@
+package book.backend.models.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class LoginProtectionTests {
+
+    @Test
+    void throttleBlocksRepeatedFailuresAndSlidesOpenAgain() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        LoginThrottle throttle = new LoginThrottle(60_000, 3, 5, 1_000, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.blockedForSeconds("Reader", "10.0.0.1")).isZero();
+            throttle.recordFailure("reader", "10.0.0.1");
+        }
+        // Không phân biệt hoa thường; tài khoản khác cùng IP vẫn được thử cho tới khi IP chạm ngưỡng
+        assertThat(throttle.blockedForSeconds("READER", "10.0.0.2")).isPositive();
+        assertThat(throttle.blockedForSeconds("other", "10.0.0.1")).isZero();
+        throttle.recordFailure("other", "10.0.0.1");
+        throttle.recordFailure("other", "10.0.0.1");
+        assertThat(throttle.blockedForSeconds("third", "10.0.0.1")).isPositive();
+
+        // Qua hết cửa sổ kế tiếp thì số lần sai cũ không còn tính
+        now.addAndGet(120_000);
+        assertThat(throttle.blockedForSeconds("reader", "10.0.0.1")).isZero();
+
+        throttle.recordFailure("reader", "10.0.0.3");
+        throttle.reset("reader");
+        throttle.purgeExpired();
+        assertThat(throttle.size()).isEqualTo(1);
+    }
+
+    @Test
+    void encoderRejectsWhenQueueIsFullAndFlagsWeakHashes() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 4, 1, 1);
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        try {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("secret", hash));
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("wrong", hash));
+            while (encoder.getQueueDepth() == 0) {
+                Thread.sleep(5);
+            }
+
+            assertThatThrownBy(() -> encoder.matches("secret", hash)).isInstanceOf(PasswordHashingBusyException.class);
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(queued.get(10, TimeUnit.SECONDS)).isFalse();
+        } finally {
+            release.countDown();
+            encoder.close();
+        }
+
+        // Hash cũ có work factor thấp hơn cấu hình thì được đánh dấu để băm lại khi đăng nhập đúng
+        try (BoundedPasswordEncoder stronger = new BoundedPasswordEncoder(5, 1, 4)) {
+            assertThat(stronger.upgradeEncoding(hash)).isTrue();
+            assertThat(stronger.matches("secret", hash)).isTrue();
+            assertThat(stronger.upgradeEncoding(stronger.encode("secret"))).isFalse();
+        }
+        assertThat(BoundedPasswordEncoder.calibrate(4, 0)).isEqualTo(BoundedPasswordEncoder.MIN_STRENGTH);
+    }
+}
@@ -0,0 +1,124 @@
+package book.backend.models.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RateLimitFilterTests {
+    private static final String[] ROUTES = { "GET /api/books 10 3", "GET /api/export/** 20" };
+
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userBucketChargesRouteWeightAndRefillsOverTime() throws Exception {
+        // 10 token/giây, sức chứa 20: đủ cho 2 lần GET /api/books (trọng số 10) hoặc 20 lần gọi thường
+        RateLimitFilter filter = new RateLimitFilter(true, 10, 20, 16, 1, ROUTES, new ObjectMapper(), now::get);
+        signIn(1L);
+
+        assertThat(call(filter, "GET", "/api/books").getStatus()).isEqualTo(200);
+        assertThat(call(filter, "GET", "/api/books").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = call(filter, "GET", "/api/books");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("quá nhiều yêu cầu");
+
+        // Người dùng khác có bucket riêng; ngoài /api thì không tính
+        signIn(2L);
+        assertThat(call(filter, "GET", "/api/books").getStatus()).isEqualTo(200);
+        signIn(1L);
+        assertThat(call(filter, "GET", "/swagger-ui/index.html").getStatus()).isEqualTo(200);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(call(filter, "GET", "/api/books").getStatus()).isEqualTo(200);
+        // Khớp tiền tố: mọi GET dưới /api/export có trọng số 20, vượt số token còn lại
+        assertThat(call(filter, "GET", "/api/export/books").getStatus()).isEqualTo(429);
+
+        // 0,1 giây nạp lại 1 token: đủ cho chi tiết sách (trọng số mặc định) nhưng không đủ cho cả danh sách
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(call(filter, "GET", "/api/books").getStatus()).isEqualTo(429);
+        assertThat(call(filter, "GET", "/api/books/7").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void routeBucketCapsAllUsersAndRefundsTheUser() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(true, 10, 20, 16, 1, ROUTES, new ObjectMapper(), now::get);
+        for (long uid = 1; uid <= 3; uid++) {
+            signIn(uid);
+            assertThat(call(filter, "GET", "/api/books").getStatus()).isEqualTo(200);
+        }
+        signIn(4L);
+        assertThat(call(filter, "GET", "/api/books").getStatus()).isEqualTo(429);
+        // Lần bị route từ chối không làm mất token của người dùng: vẫn còn đủ 20 lần gọi thường
+        for (int i = 0; i < 20; i++) {
+            assertThat(call(filter, "GET", "/api/authors").getStatus()).isEqualTo(200);
+        }
+        assertThat(call(filter, "GET", "/api/authors").getStatus()).isEqualTo(429);
+    }
+
+    // Chạy bằng: mvn test -Dtest=RateLimitFilterTests -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void overheadBenchmark() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(true, 1_000_000_000, 1_000_000_000, 65_536, 1, ROUTES,
+            new ObjectMapper(), System::nanoTime);
+        signIn(1L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/authors");
+        request.setServletPath("/api/authors");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        String filteredAttribute = RateLimitFilter.class.getName() + ".FILTERED";
+        for (int round = 0; round < 5; round++) {
+            int iterations = 1_000_000;
+            // Chi phí của chính MockFilterChain/MockHttpServletRequest, trừ đi để ra phần của filter
+            long started = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                chain.reset();
+                request.removeAttribute(filteredAttribute);
+                chain.doFilter(request, response);
+            }
+            long baseline = System.nanoTime() - started;
+            started = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                chain.reset();
+                request.removeAttribute(filteredAttribute);
+                filter.doFilter(request, response, chain);
+            }
+            long filtered = System.nanoTime() - started;
+            System.out.printf("rate-limit filter: %.1f ns/request (mock overhead %.1f ns)%n",
+                (double) (filtered - baseline) / iterations, (double) baseline / iterations);
+        }
+    }
+
+    private static void signIn(Long uid) {
+        UserPrincipal principal = new UserPrincipal(uid, "user" + uid, "x", "Bạn đọc", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String method, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
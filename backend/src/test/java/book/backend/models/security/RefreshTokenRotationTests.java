@@ -0,0 +1,77 @@
+package book.backend.models.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import book.backend.models.dtos.auth.TokenResponse;
+import book.backend.services.implement.TokenService;
+
+class RefreshTokenRotationTests {
+    private JwtTokenProvider tokenProvider;
+    private RefreshTokenStore store;
+    private TokenService tokenService;
+    private UserPrincipal reader;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secret", "khoa-bi-mat-dung-cho-test-dai-it-nhat-256-bit-0123456789");
+        ReflectionTestUtils.setField(tokenProvider, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(tokenProvider, "refreshExpiration", 86_400_000L);
+        tokenProvider.init();
+        store = new RefreshTokenStore(2, 100);
+        tokenService = new TokenService(tokenProvider, store, new TokenRevocationList(100, 0.01),
+            new JwtAuthenticationCache(100));
+        reader = new UserPrincipal(7L, "reader", "hash", "Bạn đọc", List.of(new SimpleGrantedAuthority("ROLE_user")));
+    }
+
+    @Test
+    void rotatedTokenCannotBeReusedAndReuseRevokesFamily() {
+        TokenResponse login = tokenService.generateTokens(reader);
+        // Refresh token không được dùng thay access token
+        assertThat(tokenProvider.isRefreshToken(tokenProvider.parseClaims(login.getRefreshToken()))).isTrue();
+        assertThat(tokenProvider.isRefreshToken(tokenProvider.parseClaims(login.getAccessToken()))).isFalse();
+
+        TokenResponse first = tokenService.refreshTokens(login.getRefreshToken());
+        assertThat(tokenProvider.extractUsername(first.getAccessToken())).isEqualTo("reader");
+        assertThat(tokenProvider.extractUserId(first.getAccessToken())).isEqualTo(7L);
+        TokenResponse second = tokenService.refreshTokens(first.getRefreshToken());
+
+        // Token đã đổi bị dùng lại: cả họ bị thu hồi, kể cả token mới nhất
+        assertThatThrownBy(() -> tokenService.refreshTokens(first.getRefreshToken()))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> tokenService.refreshTokens(second.getRefreshToken()))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> tokenService.refreshTokens(login.getAccessToken()))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void familiesAreBoundedPerUserAndRevokedOnLogout() {
+        TokenResponse oldest = tokenService.generateTokens(reader);
+        TokenResponse middle = tokenService.generateTokens(reader);
+        TokenResponse newest = tokenService.generateTokens(reader);
+
+        // Mỗi người dùng giữ tối đa 2 phiên: phiên cũ nhất bị bỏ
+        assertThat(store.size()).isEqualTo(2);
+        assertThatThrownBy(() -> tokenService.refreshTokens(oldest.getRefreshToken()))
+            .isInstanceOf(BadCredentialsException.class);
+
+        tokenService.revokeRefreshToken(middle.getRefreshToken());
+        assertThatThrownBy(() -> tokenService.refreshTokens(middle.getRefreshToken()))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThat(tokenService.refreshTokens(newest.getRefreshToken()).getAccessToken()).isNotBlank();
+
+        store.revokeUser(7L);
+        assertThat(store.size()).isZero();
+    }
+}
@@ -0,0 +1,56 @@
+package book.backend.models.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TokenRevocationTests {
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void revokedIdsAreFoundAndOthersAreNotEvenWhenBloomIsSaturated() {
+        AtomicLong now = new AtomicLong(100 * HOUR);
+        // Bloom cố ý quá nhỏ so với số token thu hồi: báo nhầm nhiều nhưng tập chính xác giữ kết quả đúng
+        TokenRevocationList revocations = new TokenRevocationList(4, 0.1, now::get);
+        Date expiresAt = new Date(now.get() + HOUR / 2);
+        for (int i = 0; i < 500; i++) {
+            revocations.revoke("revoked-" + i, expiresAt);
+        }
+
+        assertThat(revocations.isRevoked("revoked-42", expiresAt)).isTrue();
+        for (int i = 0; i < 500; i++) {
+            assertThat(revocations.isRevoked(UUID.randomUUID().toString(), expiresAt)).isFalse();
+        }
+        // Cùng jti nhưng exp thuộc giờ khác là token khác ngăn
+        assertThat(revocations.isRevoked("revoked-42", new Date(now.get() + 3 * HOUR))).isFalse();
+        assertThat(revocations.isRevoked(null, expiresAt)).isFalse();
+    }
+
+    @Test
+    void partitionsAreDroppedOnceTheirTokensHaveExpired() {
+        AtomicLong now = new AtomicLong(100 * HOUR);
+        TokenRevocationList revocations = new TokenRevocationList(1_000, 0.01, now::get);
+        Date soon = new Date(now.get() + HOUR / 2);
+        Date later = new Date(now.get() + HOUR + HOUR / 2);
+        revocations.revoke("soon", soon);
+        revocations.revoke("later", later);
+        // Token đã hết hạn không cần ghi lại
+        revocations.revoke("expired", new Date(now.get() - 1));
+        assertThat(revocations.partitionCount()).isEqualTo(2);
+        assertThat(revocations.size()).isEqualTo(2);
+
+        now.addAndGet(HOUR);
+        revocations.purgeExpired();
+        assertThat(revocations.partitionCount()).isEqualTo(1);
+        assertThat(revocations.isRevoked("soon", soon)).isFalse();
+        assertThat(revocations.isRevoked("later", later)).isTrue();
+
+        now.addAndGet(HOUR);
+        revocations.purgeExpired();
+        assertThat(revocations.partitionCount()).isZero();
+    }
+}
@@ -0,0 +1,138 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.book.BookGetsResponse;
+import book.backend.models.entities.Author;
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Category;
+import book.backend.models.entities.Publisher;
+import book.backend.models.entities.User;
+import book.backend.models.global.CursorPage;
+import book.backend.repositories.AuthorRepository;
+import book.backend.repositories.BookRepository;
+import book.backend.repositories.CategoryRepository;
+import book.backend.repositories.PublisherRepository;
+import book.backend.repositories.UserRepository;
+import book.backend.services.implement.BookServices;
+import book.backend.services.interfaces.IInventoryServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.search.BookSearchIndex;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class BookListingQueryCountTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PublisherRepository publisherRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private BookServices bookServices;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        bookServices = new BookServices(bookRepository, categoryRepository, authorRepository, publisherRepository, userRepository,
+            mock(IInventoryServices.class), mock(IStatsServices.class), new BookSearchIndex());
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25, 200})
+    void listingRunsInSingleStatementRegardlessOfRowCount(int rows) {
+        for (int i = 0; i < rows; i++) {
+            // Mỗi sách có tác giả, thể loại, NXB, người tạo riêng để N+1 (nếu có) lộ ra rõ ràng
+            Author author = entityManager.persist(new Author(null, "Tác giả " + i, 1980, "Việt Nam", null));
+            Category category = entityManager.persist(new Category(null, "Thể loại " + i, null));
+            Publisher publisher = entityManager.persist(new Publisher(null, "NXB " + i, null, null, null, null, true, null));
+            User user = entityManager.persist(new User(null, "user" + i, "x", "user", "Người dùng " + i, null));
+            entityManager.persist(new Book(null, "Sách " + i, author, category, publisher, 2020,
+                BigDecimal.TEN, 5, null, "Mô tả", "vi", user, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        var listing = bookServices.getsBook().getData();
+        var page = bookServices.getsBookPage(null, 20).getData();
+
+        assertThat(listing).hasSize(rows);
+        assertThat(listing).allSatisfy(book -> {
+            assertThat(book.getAuthor()).isNotNull();
+            assertThat(book.getCategory()).isNotNull();
+            assertThat(book.getPublisher()).isNotNull();
+            assertThat(book.getUser()).isNotNull();
+        });
+        assertThat(page.getItems()).hasSize(Math.min(rows, 20));
+        // Một câu lệnh cho danh sách đầy đủ và một câu lệnh cho trang đầu
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void pagesVisitEveryDatedBookOnceAndRejectBrokenCursors() {
+        // Ba sách cùng createdAt để trang phải tách nhau theo id
+        LocalDateTime sameTime = LocalDateTime.of(2024, 5, 1, 8, 0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            LocalDateTime createdAt = i < 3 ? sameTime : sameTime.plusDays(i);
+            expected.add(entityManager.persist(new Book(null, "Sách " + i, null, null, null, 2020,
+                BigDecimal.TEN, 5, null, "Mô tả", "vi", null, createdAt)).getId());
+        }
+        Long legacy = entityManager.persist(new Book(null, "Sách cũ", null, null, null, 2020,
+            BigDecimal.TEN, 5, null, "Mô tả", "vi", null, null)).getId();
+        entityManager.flush();
+        entityManager.getEntityManager().createQuery("UPDATE Book b SET b.createdAt = NULL WHERE b.id = :id")
+            .setParameter("id", legacy).executeUpdate();
+        entityManager.clear();
+
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        CursorPage<BookGetsResponse> page;
+        do {
+            page = bookServices.getsBookPage(cursor, 3).getData();
+            page.getItems().forEach(book -> visited.add(book.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        // Mới nhất trước; cùng createdAt thì id lớn trước; dòng không có createdAt bị bỏ qua
+        assertThat(visited).containsExactly(expected.get(6), expected.get(5), expected.get(4), expected.get(3),
+            expected.get(2), expected.get(1), expected.get(0));
+        assertThat(page.getNextCursor()).isNull();
+
+        assertThatThrownBy(() -> bookServices.getsBookPage("không-phải-con-trỏ", 3))
+            .isInstanceOf(UserMessageException.class)
+            .hasMessage("Con trỏ phân trang không hợp lệ");
+        assertThatThrownBy(() -> bookServices.getsBookPage("YWJj", 3))
+            .isInstanceOf(UserMessageException.class);
+    }
+}
@@ -0,0 +1,242 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import book.backend.models.dtos.borrow.BorrowFilter;
+import book.backend.models.dtos.borrow.BorrowGetsResponse;
+import book.backend.models.dtos.borrow.UserBorrowItemResponse;
+import book.backend.models.dtos.borrow.UserBorrowResponse;
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.BorrowDetail;
+import book.backend.models.entities.User;
+import book.backend.models.global.BorrowStatus;
+import book.backend.models.global.CursorPage;
+import book.backend.services.implement.BorrowDetailService;
+import book.backend.services.implement.BorrowServices;
+import book.backend.services.implement.InventoryHistoryServices;
+import book.backend.services.implement.InventoryServices;
+import book.backend.services.implement.OverdueServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.interfaces.IBorrowServices;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BorrowServices.class, BorrowDetailService.class, InventoryServices.class, StatsServices.class,
+    InventoryHistoryServices.class, OverdueServices.class})
+class BorrowListingQueryCountTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private IBorrowServices borrowServices;
+
+    private Statistics statistics;
+    private User seedUser;
+    private Book seedBook;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingUsesFixedNumberOfQueries() {
+        seed(1_000, 2);
+        statistics.clear();
+
+        List<BorrowGetsResponse> borrows = borrowServices.getsBorrow().getData();
+
+        assertThat(borrows).hasSize(1_000);
+        assertThat(borrows).allSatisfy(borrow -> assertThat(borrow.getDetails()).hasSize(2));
+        // Một câu lệnh cho phiếu mượn + một câu lệnh IN cho mỗi lô 1000 phiếu
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void pagesAreStableAndCoverEveryBorrowOnce() {
+        seed(45, 1);
+        statistics.clear();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<BorrowGetsResponse> page = borrowServices.getsBorrowPage(cursor, 10).getData();
+            page.getItems().forEach(borrow -> seen.add(borrow.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(seen).hasSize(45).doesNotHaveDuplicates();
+        // Mỗi trang: một câu lệnh cho phiếu mượn + một câu lệnh cho chi tiết
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(pages * 2L);
+    }
+
+    @Test
+    void searchReturnsOnlyMatchingBorrows() {
+        seed(30, 1);
+        LocalDate today = LocalDate.now();
+        User reader = entityManager.persist(new User(null, "desk", "x", "user", "Bạn đọc khác", null));
+        Borrow late = entityManager.persist(new Borrow(null, null, reader,
+            today.minusDays(20), today.minusDays(6), null, BorrowStatus.OVERDUE, null, null));
+        Borrow notFlaggedYet = entityManager.persist(new Borrow(null, null, reader,
+            today.minusDays(10), today.minusDays(1), null, BorrowStatus.BORROWING, null, null));
+        entityManager.persist(new Borrow(null, null, reader,
+            today.minusDays(10), today.minusDays(2), today.minusDays(3), BorrowStatus.RETURNED, null, null));
+        entityManager.persist(new Borrow(null, null, reader,
+            today, today.plusDays(7), null, BorrowStatus.PENDING, null, null));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        BorrowFilter currentLoans = BorrowFilter.builder()
+            .userId(reader.getId())
+            .statuses(Set.of(BorrowStatus.BORROWING, BorrowStatus.OVERDUE))
+            .build();
+        assertThat(borrowServices.searchBorrows(currentLoans, null, null).getData().getItems())
+            .extracting(BorrowGetsResponse::getId).containsExactlyInAnyOrder(late.getId(), notFlaggedYet.getId());
+        // Chỉ nạp đúng 2 phiếu khớp và người mượn chung của chúng: một câu lọc + một câu lấy chi tiết
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        BorrowFilter overdue = BorrowFilter.builder().overdueOnly(true).returnFrom(today.minusDays(3)).build();
+        assertThat(borrowServices.searchBorrows(overdue, null, null).getData().getItems())
+            .extracting(BorrowGetsResponse::getId).containsExactly(notFlaggedYet.getId());
+
+        BorrowFilter borrowedLastWeek = BorrowFilter.builder()
+            .borrowFrom(today.minusDays(14)).borrowTo(today.minusDays(7)).build();
+        assertThat(borrowServices.searchBorrows(borrowedLastWeek, null, null).getData().getItems())
+            .extracting(BorrowGetsResponse::getStatus).containsOnly("MUON", "DA TRA").hasSize(2);
+    }
+
+    @Test
+    void userBorrowsArePagedWithDetailsInOneStatementPerPage() {
+        seed(20, 2);
+        LocalDate today = LocalDate.now();
+        User reader = entityManager.persist(new User(null, "me", "x", "user", "Tôi", null));
+        Book book = entityManager.persist(new Book(null, "Dế Mèn phiêu lưu ký", null, null, null, 1941,
+            BigDecimal.TEN, 100, null, "Mô tả", "vi", reader, null));
+        List<Long> mine = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Borrow borrow = entityManager.persist(new Borrow(null, null, reader,
+                today.minusDays(i), today.plusDays(7), null, BorrowStatus.BORROWING, null, null));
+            entityManager.persist(new BorrowDetail(null, borrow, book, 1));
+            entityManager.persist(new BorrowDetail(null, borrow, book, 2));
+            mine.add(borrow.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<UserBorrowResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<UserBorrowResponse> page = borrowServices.getsUserBorrows(reader.getId(), cursor, 3).getData();
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        // Mới mượn nhất trước, không lẫn phiếu của người khác
+        assertThat(seen).extracting(UserBorrowResponse::getId).containsExactlyElementsOf(mine);
+        assertThat(seen).allSatisfy(borrow -> {
+            assertThat(borrow.getTotalQuantity()).isEqualTo(3);
+            assertThat(borrow.getDetails()).extracting(UserBorrowItemResponse::getBookTitle)
+                .containsOnly("Dế Mèn phiêu lưu ký").hasSize(2);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(pages);
+    }
+
+    @Test
+    void userBorrowsSkipBorrowsWithoutBorrowDate() {
+        LocalDate today = LocalDate.now();
+        User reader = entityManager.persist(new User(null, "me", "x", "user", "Tôi", null));
+        List<Long> dated = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            dated.add(entityManager.persist(new Borrow(null, null, reader,
+                today.minusDays(i), today.plusDays(7), null, BorrowStatus.BORROWING, null, null)).getId());
+        }
+        // Phiếu nhập tay thiếu ngày mượn xếp sau cùng; nếu lọt vào cuối trang đầu thì không dựng được cursor
+        for (int i = 0; i < 2; i++) {
+            entityManager.persist(new Borrow(null, null, reader, null, today.plusDays(7), null,
+                BorrowStatus.BORROWING, null, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        CursorPage<UserBorrowResponse> page = borrowServices.getsUserBorrows(reader.getId(), null, 3).getData();
+
+        assertThat(page.getItems()).extracting(UserBorrowResponse::getId).containsExactlyElementsOf(dated);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    // Chạy bằng: mvn test -Dtest=BorrowListingQueryCountTests -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void scalingBenchmark() {
+        int seeded = 0;
+        for (int target : new int[] {1_000, 10_000, 100_000}) {
+            seed(target - seeded, 2);
+            seeded = target;
+
+            statistics.clear();
+            long started = System.nanoTime();
+            int size = borrowServices.getsBorrow().getData().size();
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            entityManager.clear();
+
+            System.out.printf("borrows=%d queries=%d latency=%dms%n",
+                size, statistics.getPrepareStatementCount(), elapsedMs);
+        }
+    }
+
+    // Gọi nhiều lần trong một test (benchmark) thì dùng lại người mượn và sách đã tạo
+    private void seed(int borrowCount, int detailsPerBorrow) {
+        User user = seedUser == null
+            ? entityManager.persist(new User(null, "reader", "x", "user", "Bạn đọc", null))
+            : entityManager.find(User.class, seedUser.getId());
+        Book book = seedBook == null
+            ? entityManager.persist(new Book(null, "Sách", null, null, null, 2020,
+                BigDecimal.TEN, 1_000_000, null, "Mô tả", "vi", user, null))
+            : entityManager.find(Book.class, seedBook.getId());
+        seedUser = user;
+        seedBook = book;
+        for (int i = 0; i < borrowCount; i++) {
+            Borrow borrow = entityManager.persist(new Borrow(null, null, user,
+                LocalDate.now(), LocalDate.now().plusDays(7), null, BorrowStatus.BORROWING, null, null));
+            for (int d = 0; d < detailsPerBorrow; d++) {
+                entityManager.persist(new BorrowDetail(null, borrow, book, 1));
+            }
+            if (i % 1_000 == 999) {
+                entityManager.flush();
+                entityManager.clear();
+                user = entityManager.find(User.class, user.getId());
+                book = entityManager.find(Book.class, book.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,189 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.borrowdetail.BorrowDetailRequest;
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.BorrowDetail;
+import book.backend.models.entities.User;
+import book.backend.models.global.BorrowStatus;
+import book.backend.services.implement.BorrowDetailService;
+import book.backend.services.implement.BorrowServices;
+import book.backend.services.implement.InventoryHistoryServices;
+import book.backend.services.implement.InventoryServices;
+import book.backend.services.implement.OverdueServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.interfaces.IBorrowDetailServices;
+import book.backend.services.interfaces.IBorrowServices;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BorrowServices.class, BorrowDetailService.class, InventoryServices.class, StatsServices.class,
+    InventoryHistoryServices.class, OverdueServices.class})
+class BorrowSlipBulkTests {
+    private static final int LINES = 500;
+    private static final int SLIP_LINES = 1_000;
+    private static final int BOOKS = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private IBorrowDetailServices borrowDetailServices;
+    @Autowired
+    private IBorrowServices borrowServices;
+
+    private Statistics statistics;
+    private Borrow borrow;
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+
+        User user = entityManager.persist(new User(null, "reader", "x", "user", "Bạn đọc", null));
+        borrow = entityManager.persist(new Borrow(null, null, user,
+            LocalDate.now(), LocalDate.now().plusDays(7), null, BorrowStatus.BORROWING, null, null));
+        books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(entityManager.persist(new Book(null, "Sách " + i, null, null, null, 2020,
+                BigDecimal.TEN, 100, null, "Mô tả", "vi", user, null)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void checkoutUsesHandfulOfStatements() {
+        List<BorrowDetailRequest> requests = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            requests.add(request(books.get(i % BOOKS).getId(), 1));
+        }
+        statistics.clear();
+
+        List<Long> ids = borrowDetailServices.createBorrowDetails(requests).getData();
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(ids).hasSize(LINES).doesNotContainNull().doesNotHaveDuplicates();
+        // 1 kiểm tra phiếu mượn + 1 UPDATE kho + 5 lần lấy khối id + 5 lô INSERT,
+        // cộng outbox lịch sử kho: 1 SELECT người mượn + tối đa 2 lần lấy khối id + lô INSERT
+        assertThat(statements).isLessThanOrEqualTo(16);
+        entityManager.clear();
+        assertThat(entityManager.find(Book.class, books.get(0).getId()).getQuantityAvailable())
+            .isEqualTo(100 - LINES / BOOKS);
+    }
+
+    @Test
+    void shortStockRejectsWholeCheckout() {
+        List<BorrowDetailRequest> requests = List.of(
+            request(books.get(0).getId(), 1),
+            request(books.get(1).getId(), 101));
+
+        assertThatThrownBy(() -> borrowDetailServices.createBorrowDetails(requests))
+            .isInstanceOf(UserMessageException.class)
+            .hasMessage("Số lượng sách không đủ để mượn!");
+    }
+
+    @Test
+    void deletingDetailsRestoresStockInBulk() {
+        List<Long> ids = seedSlip();
+        statistics.clear();
+
+        borrowDetailServices.deleteBorrowDetails(ids);
+        entityManager.flush();
+
+        // 1 SELECT chi tiết + 1 UPDATE kho + 1 DELETE,
+        // cộng outbox lịch sử kho: 1 SELECT người mượn + tối đa 2 lần lấy khối id + 1 INSERT theo lô
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(7);
+        assertStockRestored();
+        assertThat(entityManager.find(BorrowDetail.class, ids.get(0))).isNull();
+    }
+
+    @Test
+    void deletingBorrowRestoresStockInBulk() {
+        List<Long> ids = seedSlip();
+        statistics.clear();
+
+        borrowServices.deleteBorrow(borrow.getId());
+        entityManager.flush();
+
+        // 1 SELECT trạng thái + 1 SELECT chi tiết + 1 UPDATE kho + 2 DELETE,
+        // cộng outbox lịch sử kho: 1 SELECT người mượn + tối đa 2 lần lấy khối id + 1 INSERT theo lô
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(9);
+        assertStockRestored();
+        assertThat(entityManager.find(Borrow.class, borrow.getId())).isNull();
+        assertThat(entityManager.find(BorrowDetail.class, ids.get(0))).isNull();
+    }
+
+    @Test
+    void switchingBookAlwaysReservesTheNewBook() {
+        Long detailId = borrowDetailServices.createBorrowDetails(List.of(request(books.get(0).getId(), 2)))
+            .getData().get(0);
+
+        // Không gửi trạng thái: sách cũ được trả lại, sách mới vẫn bị trừ đủ số lượng
+        borrowDetailServices.updateBorrowDetail(detailId, request(books.get(1).getId(), 3), null);
+        assertThat(available(0)).isEqualTo(100);
+        assertThat(available(1)).isEqualTo(97);
+
+        // DA TRA khi đổi sách không cộng thêm bản nào cho sách mới chưa từng cho mượn
+        borrowDetailServices.updateBorrowDetail(detailId, request(books.get(2).getId(), 3), "DA TRA");
+        assertThat(available(1)).isEqualTo(100);
+        assertThat(available(2)).isEqualTo(97);
+
+        // Đổi sang sách không đủ số lượng thì bị từ chối dù không gửi trạng thái
+        assertThatThrownBy(() -> borrowDetailServices.updateBorrowDetail(detailId,
+                request(books.get(3).getId(), 101), null))
+            .isInstanceOf(UserMessageException.class)
+            .hasMessage("Số lượng sách không đủ để mượn!");
+    }
+
+    private int available(int book) {
+        entityManager.flush();
+        entityManager.clear();
+        return entityManager.find(Book.class, books.get(book).getId()).getQuantityAvailable();
+    }
+
+    private List<Long> seedSlip() {
+        Borrow managed = entityManager.find(Borrow.class, borrow.getId());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < SLIP_LINES; i++) {
+            Book book = entityManager.getEntityManager().getReference(Book.class, books.get(i % BOOKS).getId());
+            ids.add(entityManager.persist(new BorrowDetail(null, managed, book, 1)).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    // Chi tiết được seed thẳng vào bảng nên xóa xong mỗi sách được cộng thêm SLIP_LINES / BOOKS bản
+    private void assertStockRestored() {
+        entityManager.clear();
+        for (Book book : books) {
+            assertThat(entityManager.find(Book.class, book.getId()).getQuantityAvailable())
+                .isEqualTo(100 + SLIP_LINES / BOOKS);
+        }
+    }
+
+    private BorrowDetailRequest request(Long bookId, int quantity) {
+        return BorrowDetailRequest.builder().borrowId(borrow.getId()).bookId(bookId).quantity(quantity).build();
+    }
+}
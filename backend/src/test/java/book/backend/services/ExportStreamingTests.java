@@ -0,0 +1,109 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.BorrowDetail;
+import book.backend.models.entities.User;
+import book.backend.models.global.BorrowStatus;
+import book.backend.models.global.ExportFormat;
+import book.backend.services.implement.ExportServices;
+import book.backend.services.interfaces.IExportServices;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(ExportServices.class)
+class ExportStreamingTests {
+    private static final int BORROWS = 300;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private IExportServices exportServices;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+
+        User user = entityManager.persist(new User(null, "reader", "x", "user", "Bạn đọc", null));
+        Book plain = entityManager.persist(new Book(null, "Sách", null, null, null, 2020,
+            BigDecimal.TEN, 100, null, "Mô tả", "vi", user, null));
+        Book quoted = entityManager.persist(new Book(null, "Dế Mèn, \"phiêu lưu\" ký", null, null, null, 1941,
+            new BigDecimal("25000.50"), 100, null, "Dòng 1\nDòng 2", "vi", user, null));
+        for (int i = 0; i < BORROWS; i++) {
+            Borrow borrow = entityManager.persist(new Borrow(null, null, user,
+                LocalDate.now(), LocalDate.now().plusDays(7), null, BorrowStatus.BORROWING, null, null));
+            // Phiếu cuối không có chi tiết nào
+            if (i < BORROWS - 1) {
+                entityManager.persist(new BorrowDetail(null, borrow, plain, 1));
+                entityManager.persist(new BorrowDetail(null, borrow, quoted, 2));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void borrowsAreGroupedIntoOneJsonLinePerSlipWithASingleQuery() throws Exception {
+        statistics.clear();
+
+        List<String> lines = export(ExportFormat.NDJSON, false).lines().toList();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(lines).hasSize(BORROWS);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("fullName").asText()).isEqualTo("Bạn đọc");
+        assertThat(first.get("borrowDate").asText()).isEqualTo(LocalDate.now().toString());
+        assertThat(first.get("details")).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(BORROWS - 1)).get("details")).isEmpty();
+    }
+
+    @Test
+    void csvQuotesFieldsContainingSeparatorsAndNewLines() throws Exception {
+        String csv = export(ExportFormat.CSV, true);
+
+        assertThat(csv).startsWith("\uFEFFid,title,author,");
+        assertThat(csv).contains(",\"Dế Mèn, \"\"phiêu lưu\"\" ký\",");
+        assertThat(csv).contains(",25000.50,");
+        assertThat(csv).contains("\"Dòng 1\nDòng 2\"");
+        assertThat(csv.split("\r\n")).hasSize(3);
+    }
+
+    private String export(ExportFormat format, boolean books) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (books) {
+            exportServices.exportBooks(format, out);
+        } else {
+            exportServices.exportBorrows(format, out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
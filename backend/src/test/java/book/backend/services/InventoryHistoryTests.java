@@ -0,0 +1,125 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import book.backend.models.dtos.borrowdetail.BorrowDetailRequest;
+import book.backend.models.dtos.inventory.InventoryHistoryResponse;
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.InventoryOutbox;
+import book.backend.models.entities.User;
+import book.backend.models.global.BorrowStatus;
+import book.backend.models.global.CursorPage;
+import book.backend.repositories.InventoryHistoryRepository;
+import book.backend.repositories.InventoryOutboxRepository;
+import book.backend.services.implement.BorrowDetailService;
+import book.backend.services.implement.InventoryHistoryServices;
+import book.backend.services.implement.InventoryServices;
+import book.backend.services.implement.OverdueServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.interfaces.IBorrowDetailServices;
+import book.backend.services.interfaces.IInventoryHistoryServices;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BorrowDetailService.class, InventoryServices.class, StatsServices.class, InventoryHistoryServices.class,
+    OverdueServices.class})
+class InventoryHistoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private IBorrowDetailServices borrowDetailServices;
+    @Autowired
+    private IInventoryHistoryServices inventoryHistoryServices;
+    @Autowired
+    private InventoryOutboxRepository outboxRepository;
+    @Autowired
+    private InventoryHistoryRepository historyRepository;
+
+    private User user;
+    private Book book;
+    private Borrow borrow;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(new User(null, "reader", "x", "user", "Bạn đọc", null));
+        book = entityManager.persist(new Book(null, "Sách", null, null, null, 2020,
+            BigDecimal.TEN, 10, null, "Mô tả", "vi", user, null));
+        borrow = entityManager.persist(new Borrow(null, null, user,
+            LocalDate.now(), LocalDate.now().plusDays(7), null, BorrowStatus.BORROWING, null, null));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void movementsGoThroughOutboxIntoHistory() {
+        Long detailId = borrowDetailServices.createBorrowDetail(BorrowDetailRequest.builder()
+            .borrowId(borrow.getId()).bookId(book.getId()).quantity(2).build()).getData();
+        borrowDetailServices.deleteBorrowDetail(detailId);
+        entityManager.flush();
+
+        assertThat(outboxRepository.count()).isEqualTo(2);
+        assertThat(historyRepository.count()).isZero();
+
+        assertThat(inventoryHistoryServices.dispatch()).isEqualTo(2);
+        entityManager.clear();
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(inventoryHistoryServices.dispatch()).isZero();
+
+        List<InventoryHistoryResponse> byBook = inventoryHistoryServices.getsByBook(book.getId(), null, null)
+            .getData().getItems();
+        assertThat(byBook).extracting(InventoryHistoryResponse::getType).containsExactly("HUY", "MUON");
+        assertThat(byBook).extracting(InventoryHistoryResponse::getQuantity).containsExactly(2, -2);
+        assertThat(byBook).allSatisfy(row -> {
+            assertThat(row.getUserId()).isEqualTo(user.getId());
+            assertThat(row.getBorrowDetailId()).isEqualTo(detailId);
+        });
+        assertThat(inventoryHistoryServices.getsByUser(user.getId(), null, null).getData().getItems()).hasSize(2);
+    }
+
+    @Test
+    void dispatchMovesBacklogInFixedStatementsPerBatch() {
+        List<InventoryOutbox> events = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            events.add(InventoryOutbox.of(IInventoryHistoryServices.BORROWED, borrow.getId(), null, book.getId(), -1));
+        }
+        inventoryHistoryServices.record(events);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(inventoryHistoryServices.dispatch()).isEqualTo(1_200);
+
+        // Mỗi lô 500: 1 SELECT id + 1 INSERT ... SELECT + 1 DELETE; lô cuối ít hơn 500 nên dừng
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(9);
+        assertThat(historyRepository.count()).isEqualTo(1_200);
+
+        String cursor = null;
+        int seen = 0;
+        do {
+            CursorPage<InventoryHistoryResponse> page = inventoryHistoryServices
+                .getsByUser(user.getId(), cursor, 100).getData();
+            seen += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(seen).isEqualTo(1_200);
+    }
+}
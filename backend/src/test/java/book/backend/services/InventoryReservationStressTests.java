@@ -0,0 +1,125 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.entities.Book;
+import book.backend.repositories.BookRepository;
+import book.backend.services.implement.InventoryServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.interfaces.IInventoryServices;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({InventoryServices.class, StatsServices.class})
+// Mỗi lần mượn chạy trong transaction riêng như request thật, không dùng transaction bao ngoài của test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryReservationStressTests {
+    private static final int BORROWERS = 96;
+    private static final int STOCK = 40;
+
+    @Autowired
+    private IInventoryServices inventoryServices;
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        Book book = new Book(null, "Sách hot", null, null, null, 2024, BigDecimal.TEN, STOCK, null, "Mô tả", "vi", null, null);
+        bookId = bookRepository.save(book).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBorrowersNeverOversell() throws Exception {
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+            try {
+                inventoryServices.reserve(bookId, quantity);
+                borrowed.addAndGet(quantity);
+            } catch (UserMessageException ex) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        int available = bookRepository.findById(bookId).orElseThrow().getQuantityAvailable();
+        assertThat(available).isGreaterThanOrEqualTo(0);
+        assertThat(borrowed.get()).isLessThanOrEqualTo(STOCK);
+        assertThat(available).isEqualTo(STOCK - borrowed.get());
+        assertThat(rejected.get()).isPositive();
+    }
+
+    @Test
+    void concurrentBorrowAndReturnKeepsStockConsistent() throws Exception {
+        inventoryServices.reserve(bookId, STOCK);
+        AtomicInteger net = new AtomicInteger();
+
+        runConcurrently(() -> {
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                inventoryServices.release(bookId, 1);
+                net.incrementAndGet();
+            } else {
+                try {
+                    inventoryServices.reserve(bookId, 1);
+                    net.decrementAndGet();
+                } catch (UserMessageException ex) {
+                    // hết sách tại thời điểm mượn
+                }
+            }
+        });
+
+        int available = bookRepository.findById(bookId).orElseThrow().getQuantityAvailable();
+        assertThat(available).isGreaterThanOrEqualTo(0).isEqualTo(net.get());
+    }
+
+    private void runConcurrently(Runnable borrower) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(BORROWERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < BORROWERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    borrower.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.models.dtos.borrow.BorrowGetsResponse;
+import book.backend.models.dtos.borrow.BorrowRequest;
+import book.backend.models.dtos.borrow.OverdueReminderResponse;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.User;
+import book.backend.models.global.BorrowStatus;
+import book.backend.models.global.CursorPage;
+import book.backend.services.implement.BorrowDetailService;
+import book.backend.services.implement.BorrowServices;
+import book.backend.services.implement.InventoryHistoryServices;
+import book.backend.services.implement.InventoryServices;
+import book.backend.services.implement.OverdueServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.interfaces.IBorrowServices;
+import book.backend.services.interfaces.IOverdueServices;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BorrowServices.class, BorrowDetailService.class, InventoryServices.class, StatsServices.class,
+    InventoryHistoryServices.class, OverdueServices.class})
+class OverdueDetectionTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private IOverdueServices overdueServices;
+    @Autowired
+    private IBorrowServices borrowServices;
+
+    @Test
+    void marksOnlyNewlyDueBorrowsAndQueuesReminders() {
+        LocalDate today = LocalDate.now();
+        User user = entityManager.persist(new User(null, "reader", "x", "user", "Bạn đọc", null));
+        Borrow dueEarlier = persist(user, today.minusDays(3), null, BorrowStatus.BORROWING);
+        Borrow dueYesterday = persist(user, today.minusDays(1), null, BorrowStatus.BORROWING);
+        Borrow notDue = persist(user, today.plusDays(2), null, BorrowStatus.BORROWING);
+        Borrow returned = persist(user, today.minusDays(5), null, BorrowStatus.RETURNED);
+        Borrow returnedLate = persist(user, today.minusDays(2), today, BorrowStatus.BORROWING);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(overdueServices.detect()).isEqualTo(2);
+        entityManager.clear();
+
+        assertThat(statusOf(dueEarlier)).isEqualTo(BorrowStatus.OVERDUE);
+        assertThat(statusOf(dueYesterday)).isEqualTo(BorrowStatus.OVERDUE);
+        assertThat(statusOf(notDue)).isEqualTo(BorrowStatus.BORROWING);
+        assertThat(statusOf(returned)).isEqualTo(BorrowStatus.RETURNED);
+        assertThat(statusOf(returnedLate)).isEqualTo(BorrowStatus.BORROWING);
+
+        List<BorrowGetsResponse> overdue = borrowServices.getsOverdue(null, null).getData().getItems();
+        assertThat(overdue).extracting(BorrowGetsResponse::getId)
+            .containsExactly(dueEarlier.getId(), dueYesterday.getId());
+
+        List<OverdueReminderResponse> reminders = overdueServices.claimReminders(null).getData();
+        assertThat(reminders).extracting(OverdueReminderResponse::getBorrowId)
+            .containsExactly(dueEarlier.getId(), dueYesterday.getId());
+        assertThat(reminders).allSatisfy(reminder -> assertThat(reminder.getUserId()).isEqualTo(user.getId()));
+        assertThat(overdueServices.claimReminders(null).getData()).isEmpty();
+
+        // Mốc đã tới hôm nay: lượt sau chỉ còn một câu SELECT trên khoảng rỗng của chỉ mục
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(overdueServices.detect()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void overdueListSkipsBorrowsWithoutReturnDate() {
+        LocalDate today = LocalDate.now();
+        User user = entityManager.persist(new User(null, "reader", "x", "user", "Bạn đọc", null));
+        Borrow first = persist(user, today.minusDays(4), null, BorrowStatus.OVERDUE);
+        Borrow undated = entityManager.persist(new Borrow(null, null, user, today.minusDays(10), null,
+            null, BorrowStatus.OVERDUE, null, null));
+        Borrow second = persist(user, today.minusDays(2), null, BorrowStatus.OVERDUE);
+        entityManager.flush();
+        entityManager.clear();
+
+        CursorPage<BorrowGetsResponse> page = borrowServices.getsOverdue(null, 1).getData();
+        assertThat(page.getItems()).extracting(BorrowGetsResponse::getId).containsExactly(first.getId());
+        page = borrowServices.getsOverdue(page.getNextCursor(), 1).getData();
+        assertThat(page.getItems()).extracting(BorrowGetsResponse::getId).containsExactly(second.getId());
+        assertThat(page.isHasMore()).isFalse();
+
+        // Không cho đặt tay trạng thái QUA HAN khi phiếu chưa có hạn trả
+        BorrowRequest request = BorrowRequest.builder().status(BorrowStatus.OVERDUE.getCode()).build();
+        assertThatThrownBy(() -> borrowServices.updateBorrow(undated.getId(), request))
+            .isInstanceOf(UserMessageException.class)
+            .hasMessage("Phiếu quá hạn phải có ngày trả!");
+    }
+
+    private Borrow persist(User user, LocalDate returnDate, LocalDate actualReturnDate, BorrowStatus status) {
+        return entityManager.persist(new Borrow(null, null, user, returnDate.minusDays(14), returnDate,
+            actualReturnDate, status, null, null));
+    }
+
+    private BorrowStatus statusOf(Borrow borrow) {
+        return entityManager.find(Borrow.class, borrow.getId()).getStatus();
+    }
+}
@@ -0,0 +1,111 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import book.backend.models.configuration.CacheConfig;
+import book.backend.models.dtos.author.AuthorResponse;
+import book.backend.models.dtos.author.AuthorUpdateRequest;
+import book.backend.models.entities.Author;
+import book.backend.models.global.ApiResult;
+import book.backend.repositories.AuthorRepository;
+import book.backend.services.implement.AuthorServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.interfaces.IAuthorServices;
+import book.backend.services.support.ReferenceListCache;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({CacheConfig.class, AuthorServices.class, StatsServices.class, ReferenceListCache.class})
+// Cache chỉ bị xóa sau khi commit nên test chạy ngoài transaction bao ngoài
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReferenceCacheTests {
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private IAuthorServices authorServices;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+    private Long authorId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        authorId = authorRepository.save(new Author(null, "Nguyễn Nhật Ánh", 1955, "Việt Nam", null)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        authorRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void nameLookupIsServedFromCache() {
+        assertThat(authorRepository.findIdByAuthorname("Nguyễn Nhật Ánh")).contains(authorId);
+        statistics.clear();
+
+        assertThat(authorRepository.findIdByAuthorname("Nguyễn Nhật Ánh")).contains(authorId);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void updateEvictsNameLookup() {
+        assertThat(authorRepository.findIdByAuthorname("Nguyễn Nhật Ánh")).contains(authorId);
+
+        authorServices.updateAuthor(authorId, AuthorUpdateRequest.builder()
+            .authorname("Tô Hoài").nationality("Việt Nam").birthYear(1920).build());
+
+        assertThat(authorRepository.findIdByAuthorname("Nguyễn Nhật Ánh")).isEmpty();
+        assertThat(authorRepository.findIdByAuthorname("Tô Hoài")).contains(authorId);
+    }
+
+    @Test
+    void entityLoadsHitSecondLevelCache() {
+        authorRepository.findById(authorId);
+        statistics.clear();
+
+        Author author = authorRepository.findById(authorId).orElseThrow();
+
+        assertThat(author.getAuthorname()).isEqualTo("Nguyễn Nhật Ánh");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedListIsImmutableAndWrappedPerCall() {
+        ApiResult<List<AuthorResponse>> first = authorServices.getsAuthor();
+        statistics.clear();
+        ApiResult<List<AuthorResponse>> second = authorServices.getsAuthor();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getData()).isSameAs(first.getData());
+        // Người gọi không sửa được bản trong cache
+        assertThatThrownBy(() -> first.getData().sort(Comparator.comparing(AuthorResponse::getAuthorname)))
+            .isInstanceOf(UnsupportedOperationException.class);
+        first.setData(List.of());
+        assertThat(authorServices.getsAuthor().getData()).hasSize(1);
+    }
+}
@@ -0,0 +1,174 @@
+package book.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import book.backend.models.dtos.book.BookRequest;
+import book.backend.models.dtos.book.BookUpdateRequest;
+import book.backend.models.dtos.borrow.BorrowRequest;
+import book.backend.models.dtos.stats.StatsResponse;
+import book.backend.models.entities.Author;
+import book.backend.models.entities.Book;
+import book.backend.models.entities.Borrow;
+import book.backend.models.entities.Category;
+import book.backend.models.entities.Publisher;
+import book.backend.models.entities.User;
+import book.backend.models.global.BorrowStatus;
+import book.backend.repositories.AuthorRepository;
+import book.backend.repositories.BookRepository;
+import book.backend.repositories.BorrowDetailRepository;
+import book.backend.repositories.BorrowRepository;
+import book.backend.repositories.CategoryRepository;
+import book.backend.repositories.InventoryOutboxRepository;
+import book.backend.repositories.PublisherRepository;
+import book.backend.repositories.UserRepository;
+import book.backend.services.implement.BookServices;
+import book.backend.services.implement.BorrowDetailService;
+import book.backend.services.implement.BorrowServices;
+import book.backend.services.implement.InventoryHistoryServices;
+import book.backend.services.implement.InventoryServices;
+import book.backend.services.implement.OverdueServices;
+import book.backend.services.implement.StatsServices;
+import book.backend.services.interfaces.IBookServices;
+import book.backend.services.interfaces.IBorrowServices;
+import book.backend.services.interfaces.IStatsServices;
+import book.backend.services.search.BookSearchIndex;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BookServices.class, BorrowServices.class, BorrowDetailService.class, InventoryServices.class,
+    StatsServices.class, InventoryHistoryServices.class, OverdueServices.class, BookSearchIndex.class})
+// Bộ đếm chỉ cộng delta sau khi commit nên mỗi thao tác phải chạy trong transaction riêng như request thật
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatsCounterTests {
+
+    @Autowired
+    private IStatsServices statsServices;
+    @Autowired
+    private IBookServices bookServices;
+    @Autowired
+    private IBorrowServices borrowServices;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BorrowRepository borrowRepository;
+    @Autowired
+    private BorrowDetailRepository borrowDetailRepository;
+    @Autowired
+    private InventoryOutboxRepository outboxRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PublisherRepository publisherRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        authorRepository.save(new Author(null, "Tô Hoài", 1920, "Việt Nam", null));
+        categoryRepository.save(new Category(null, "Thiếu nhi", null));
+        publisherRepository.save(new Publisher(null, "Kim Đồng", null, null, null, null, true, null));
+        user = userRepository.save(new User(null, "reader", "x", "user", "Bạn đọc", null));
+        statsServices.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        borrowDetailRepository.deleteAll();
+        borrowRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        categoryRepository.deleteAll();
+        publisherRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void writesMoveCountersByTheirDeltas() {
+        StatsResponse start = stats();
+        assertThat(start.getTotalBooks()).isZero();
+        assertThat(start.getTotalAuthors()).isEqualTo(1);
+        assertThat(start.getTotalUsers()).isEqualTo(1);
+
+        Long bookId = bookServices.createBook(new BookRequest("Dế Mèn phiêu lưu ký", "Tô Hoài", "Thiếu nhi",
+            "Kim Đồng", 1941, BigDecimal.TEN, 5, "Mô tả", "vi", "Bạn đọc", null)).getData();
+        assertThat(stats()).extracting(StatsResponse::getTotalBooks, StatsResponse::getTotalCopies,
+            StatsResponse::getAvailableCopies).containsExactly(1L, 5L, 5L);
+
+        bookServices.updateBook(bookId, new BookUpdateRequest("Dế Mèn phiêu lưu ký", "Tô Hoài", "Thiếu nhi",
+            "Kim Đồng", 1941, BigDecimal.TEN, 8, "Mô tả", "vi", null));
+        assertThat(stats()).extracting(StatsResponse::getTotalBooks, StatsResponse::getTotalCopies,
+            StatsResponse::getAvailableCopies).containsExactly(1L, 8L, 8L);
+
+        Long borrowId = borrowServices.createBorrow(user.getId(), BorrowRequest.builder()
+            .returnDate(LocalDate.now().plusDays(7)).build()).getData();
+        assertThat(stats().getTotalBorrows()).isEqualTo(1);
+        assertThat(stats().getActiveBorrows()).isZero();
+
+        borrowServices.updateBorrow(borrowId, BorrowRequest.builder().status(BorrowStatus.BORROWING.getCode()).build());
+        assertThat(stats()).extracting(StatsResponse::getTotalBorrows, StatsResponse::getActiveBorrows,
+            StatsResponse::getReturnedBorrows).containsExactly(1L, 1L, 0L);
+
+        borrowServices.updateBorrow(borrowId, BorrowRequest.builder().status(BorrowStatus.RETURNED.getCode()).build());
+        assertThat(stats()).extracting(StatsResponse::getTotalBorrows, StatsResponse::getActiveBorrows,
+            StatsResponse::getReturnedBorrows).containsExactly(1L, 0L, 1L);
+
+        // Mỗi bước đều khớp với số đếm lại từ database
+        assertMatchesReconcile();
+
+        borrowServices.deleteBorrow(borrowId);
+        bookServices.deleteBook(bookId);
+        assertThat(stats()).extracting(StatsResponse::getTotalBooks, StatsResponse::getTotalCopies,
+            StatsResponse::getAvailableCopies, StatsResponse::getTotalBorrows, StatsResponse::getReturnedBorrows)
+            .containsExactly(0L, 0L, 0L, 0L, 0L);
+        assertMatchesReconcile();
+    }
+
+    @Test
+    void reconcileRepairsDriftFromDirectDatabaseWrites() {
+        // Ghi thẳng vào database, không qua service nên bộ đếm không biết
+        bookRepository.save(new Book(null, "Sách nhập tay", null, null, null, 2020,
+            BigDecimal.TEN, 3, null, "Mô tả", "vi", null, null));
+        borrowRepository.save(new Borrow(null, null, user, LocalDate.now().minusDays(10),
+            LocalDate.now().minusDays(3), null, BorrowStatus.BORROWING, null, null));
+        StatsResponse stale = stats();
+        assertThat(stale.getTotalBooks()).isZero();
+        assertThat(stale.getOverdueBorrows()).isZero();
+
+        statsServices.reconcile();
+
+        StatsResponse reconciled = stats();
+        assertThat(reconciled).extracting(StatsResponse::getTotalBooks, StatsResponse::getTotalCopies,
+            StatsResponse::getAvailableCopies, StatsResponse::getBooksOnLoan).containsExactly(1L, 3L, 3L, 0L);
+        assertThat(reconciled).extracting(StatsResponse::getTotalBorrows, StatsResponse::getActiveBorrows,
+            StatsResponse::getOverdueBorrows).containsExactly(1L, 1L, 1L);
+        assertThat(reconciled.getReconciledAt()).isAfterOrEqualTo(stale.getReconciledAt());
+    }
+
+    private StatsResponse stats() {
+        return statsServices.getStats().getData();
+    }
+
+    private void assertMatchesReconcile() {
+        StatsResponse counted = stats();
+        statsServices.reconcile();
+        assertThat(stats()).usingRecursiveComparison().ignoringFields("reconciledAt").isEqualTo(counted);
+    }
+}
@@ -0,0 +1,156 @@
+package book.backend.services.importing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import book.backend.models.dtos.book.BookImportError;
+import book.backend.models.dtos.book.BookImportJobResponse;
+import book.backend.models.entities.Author;
+import book.backend.models.entities.Category;
+import book.backend.models.entities.Publisher;
+import book.backend.models.entities.User;
+import book.backend.repositories.AuthorRepository;
+import book.backend.repositories.BookRepository;
+import book.backend.repositories.CategoryRepository;
+import book.backend.repositories.PublisherRepository;
+import book.backend.repositories.UserRepository;
+import book.backend.services.implement.StatsServices;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({BookImportPipeline.class, StatsServices.class})
+// Các bước của pipeline ghi bằng kết nối riêng nên dữ liệu mẫu phải được commit thật
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookImportPipelineTests {
+    private static final String HEADER = "title,authorName,category,publisher,yearPublished,price,quantity,description,language,user\n";
+
+    @Autowired
+    private BookImportPipeline pipeline;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PublisherRepository publisherRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        authorRepository.save(new Author(null, "Tô Hoài", 1920, "Việt Nam", null));
+        categoryRepository.save(new Category(null, "Thiếu nhi", null));
+        publisherRepository.save(new Publisher(null, "Kim Đồng", null, null, null, null, true, null));
+        userRepository.save(new User(null, "admin", "x", "admin", "Quản trị", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        authorRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        publisherRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void csvRowsAreInsertedAndBadRowsReportedByLine() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 2_500; i++) {
+            csv.append(row("Sách " + i, "Tô Hoài", "1941"));
+        }
+        csv.append(row("Sách lạ", "Không có", "1941"));          // dòng 2502
+        csv.append(row("Năm sai", "Tô Hoài", "năm ngoái"));      // dòng 2503
+        csv.append(row("", "Tô Hoài", "1941"));                  // dòng 2504
+        csv.append("\"Dế Mèn, \"\"phiêu lưu\"\" ký\",Tô Hoài,Thiếu nhi,Kim Đồng,1941,25000.50,3,\"Dòng 1\nDòng 2\",vi,Quản trị\n");
+
+        BookImportJobResponse result = run(csv.toString(), false);
+
+        assertThat(result.getRowsRead()).isEqualTo(2_504);
+        assertThat(result.getRowsInserted()).isEqualTo(2_501);
+        assertThat(result.getRowsFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(BookImportError::getLine).containsExactly(2_502L, 2_503L, 2_504L);
+        assertThat(result.getErrors().get(0).getMessage()).contains("Không tìm thấy tác giả");
+        assertThat(result.getErrors().get(2).getMessage()).contains("Vui lòng nhập tiêu đề sách");
+        assertThat(bookRepository.count()).isEqualTo(2_501);
+        assertThat(bookRepository.findAllResponses())
+            .anySatisfy(book -> {
+                assertThat(book.getTitle()).isEqualTo("Dế Mèn, \"phiêu lưu\" ký");
+                assertThat(book.getDescription()).isEqualTo("Dòng 1\nDòng 2");
+                assertThat(book.getAuthor()).isEqualTo("Tô Hoài");
+                assertThat(book.getQuantityAvailable()).isEqualTo(3);
+            });
+    }
+
+    @Test
+    void jsonArrayIsImported() throws Exception {
+        String json = "[" + String.join(",", List.of(
+            jsonRow("Sách 1", "12"),
+            jsonRow("Sách 2", "\"không phải số\""),
+            jsonRow("Sách 3", "5"))) + "]";
+
+        BookImportJobResponse result = run(json, true);
+
+        assertThat(result.getRowsInserted()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BookImportError::getLine).containsExactly(2L);
+    }
+
+    // Chạy bằng: mvn test -Dtest=BookImportPipelineTests -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void importBenchmark() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 1_000_000; i++) {
+            csv.append(row("Sách " + i, "Tô Hoài", "1941"));
+        }
+
+        BookImportJobResponse result = run(csv.toString(), false);
+
+        System.out.printf("rows=%d inserted=%d elapsed=%dms%n",
+            result.getRowsRead(), result.getRowsInserted(), result.getElapsedMs());
+    }
+
+    private BookImportJobResponse run(String content, boolean json) throws Exception {
+        Path file = tempDir.resolve(json ? "books.json" : "books.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        BookImportJob job = new BookImportJob("test", file.getFileName().toString());
+        job.start();
+        pipeline.run(job, file, json);
+        job.complete();
+        return job.toResponse();
+    }
+
+    private static String row(String title, String author, String year) {
+        return title + "," + author + ",Thiếu nhi,Kim Đồng," + year + ",50000,2,Mô tả,vi,Quản trị\n";
+    }
+
+    private static String jsonRow(String title, String quantity) {
+        return "{\"title\":\"" + title + "\",\"authorName\":\"Tô Hoài\",\"category\":\"Thiếu nhi\","
+            + "\"publisher\":\"Kim Đồng\",\"yearPublished\":1941,\"price\":50000,\"quantity\":" + quantity + ","
+            + "\"description\":\"Mô tả\",\"language\":\"vi\",\"user\":\"Quản trị\"}";
+    }
+}
@@ -0,0 +1,170 @@
+package book.backend.services.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import book.backend.controllers.exceptions.UserMessageException;
+import book.backend.repositories.BookRepository;
+import book.backend.services.implement.BookSearchServices;
+import book.backend.services.support.TableVersions;
+import book.backend.services.support.TableVersions.Table;
+
+class BookSearchIndexTests {
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.index(new BookDocument(1L, "Lập trình Java căn bản", "Nguyễn Văn An", "Công nghệ", "NXB Trẻ", "vi",
+            "Giáo trình nhập môn cho người mới học lập trình"));
+        index.index(new BookDocument(2L, "Đắc nhân tâm", "Dale Carnegie", "Kỹ năng sống", "NXB Tổng hợp", "vi",
+            "Nghệ thuật giao tiếp và đối nhân xử thế"));
+        index.index(new BookDocument(3L, "Clean Code", "Robert Martin", "Công nghệ", "Prentice Hall", "en",
+            "A handbook of agile software craftsmanship, có nhắc tới Java"));
+    }
+
+    @Test
+    void foldsVietnameseDiacritics() {
+        assertThat(index.search("dac nhan tam", null, null, null, 0, 10).bookIds()).containsExactly(2L);
+        assertThat(index.search("ĐẮC NHÂN", null, null, null, 0, 10).bookIds()).containsExactly(2L);
+        assertThat(index.search("cong nghe", null, null, null, 0, 10).bookIds()).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void lastTokenMatchesAsPrefix() {
+        assertThat(index.search("lập tr", null, null, null, 0, 10).bookIds()).containsExactly(1L);
+        assertThat(index.search("carneg", null, null, null, 0, 10).bookIds()).containsExactly(2L);
+        // Chỉ từ cuối mới được mở rộng theo tiền tố
+        assertThat(index.search("carneg dale", null, null, null, 0, 10).bookIds()).isEmpty();
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        assertThat(index.search("java", null, null, null, 0, 10).bookIds()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void countsAndFiltersFacets() {
+        SearchHits hits = index.search("", null, null, null, 0, 10);
+        assertThat(hits.total()).isEqualTo(3);
+        assertThat(hits.facets().get(BookSearchIndex.FACET_CATEGORY))
+            .containsEntry("Công nghệ", 2L).containsEntry("Kỹ năng sống", 1L);
+        assertThat(hits.facets().get(BookSearchIndex.FACET_LANGUAGE)).containsEntry("vi", 2L).containsEntry("en", 1L);
+
+        SearchHits filtered = index.search("", "cong nghe", null, "en", 0, 10);
+        assertThat(filtered.bookIds()).containsExactly(3L);
+        assertThat(index.search("", "không có", null, null, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisibleImmediately() {
+        index.index(new BookDocument(2L, "Nhà giả kim", "Paulo Coelho", "Văn học", "NXB Văn học", "vi", null));
+        assertThat(index.search("dac nhan tam", null, null, null, 0, 10).bookIds()).isEmpty();
+        assertThat(index.search("gia kim", null, null, null, 0, 10).bookIds()).containsExactly(2L);
+
+        index.remove(1L);
+        assertThat(index.search("java", null, null, null, 0, 10).bookIds()).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildSwapsInFreshIndexAndReplaysChangesMadeMeanwhile() {
+        index.rebuild(rebuilt -> {
+            // Chỉ mục cũ vẫn trả đủ kết quả trong lúc dựng lại
+            assertThat(index.search("java", null, null, null, 0, 10).bookIds()).containsExactly(1L, 3L);
+            rebuilt.index(new BookDocument(1L, "Lập trình Java căn bản", null, "Công nghệ", null, "vi", null));
+            rebuilt.index(new BookDocument(2L, "Đắc nhân tâm", null, "Kỹ năng sống", null, "vi", null));
+            // Sách 2 bị xóa, sách 4 được thêm sau khi lô chứa chúng đã đọc xong
+            index.remove(2L);
+            index.index(new BookDocument(4L, "Java nâng cao", null, "Công nghệ", null, "vi", null));
+        });
+
+        assertThat(index.search("dac nhan tam", null, null, null, 0, 10).bookIds()).isEmpty();
+        assertThat(index.search("java", null, null, null, 0, 10).bookIds()).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(index.size()).isEqualTo(2);
+
+        assertThatThrownBy(() -> index.rebuild(rebuilt -> {
+            throw new IllegalStateException("mất kết nối");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(index.search("java", null, null, null, 0, 10).bookIds()).containsExactlyInAnyOrder(1L, 4L);
+        // Lần dựng lỗi không để lại nhật ký thay đổi cho lần dựng sau phát lại
+        index.index(new BookDocument(5L, "Sách lẻ", null, null, null, "vi", null));
+        index.rebuild(rebuilt -> { });
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void serviceRebuildInvalidatesSearchEtags() {
+        long before = TableVersions.version(Table.BOOKS);
+        new BookSearchServices(mock(BookRepository.class), index).rebuild();
+        assertThat(TableVersions.version(Table.BOOKS)).isGreaterThan(before);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void pagesThroughRankedResults() {
+        for (long id = 10; id < 35; id++) {
+            index.index(new BookDocument(id, "Tuyển tập " + id, null, "Văn học", null, "vi", null));
+        }
+        SearchHits first = index.search("tuyen tap", null, null, null, 0, 10);
+        SearchHits third = index.search("tuyen tap", null, null, null, 20, 10);
+        assertThat(first.total()).isEqualTo(25);
+        assertThat(first.bookIds()).hasSize(10).doesNotContainAnyElementsOf(third.bookIds());
+        assertThat(third.bookIds()).hasSize(5);
+    }
+
+    @Test
+    void deepPagesStayInsideTheRankingWindow() {
+        // Offset/limit khổng lồ không dựng heap theo offset + limit, chỉ trả trang rỗng
+        SearchHits beyond = index.search("java", null, null, null, Integer.MAX_VALUE - 5, 100);
+        assertThat(beyond.total()).isEqualTo(2);
+        assertThat(beyond.bookIds()).isEmpty();
+
+        BookSearchServices services = new BookSearchServices(mock(BookRepository.class), index);
+        assertThatThrownBy(() -> services.search("java", null, null, null, 20_000_000, 100))
+            .isInstanceOf(UserMessageException.class);
+        assertThatThrownBy(() -> services.search("java", null, null, null, 100, 100))
+            .isInstanceOf(UserMessageException.class);
+        assertThat(services.search("java", null, null, null, 99, 100).getData().getTotal()).isEqualTo(2);
+    }
+
+    // Chạy bằng: mvn test -Dtest=BookSearchIndexTests -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void latencyBenchmark() {
+        String[] words = { "sach", "tieng", "viet", "lich", "su", "khoa", "hoc", "van", "hoc", "kinh", "te",
+            "tam", "ly", "tre", "em", "tieu", "thuyet", "truyen", "ngan", "tho", "du", "lich", "am", "thuc" };
+        Random random = new Random(42);
+        BookSearchIndex large = new BookSearchIndex();
+        int books = 1_000_000;
+        for (long id = 1; id <= books; id++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < 4; w++) {
+                title.append(words[random.nextInt(words.length)]).append(random.nextInt(500)).append(' ');
+            }
+            large.index(new BookDocument(id, title.toString(), "Tác giả " + random.nextInt(20_000),
+                "Thể loại " + random.nextInt(50), "NXB " + random.nextInt(200), random.nextBoolean() ? "vi" : "en",
+                title.toString()));
+        }
+
+        long[] latencies = new long[2_000];
+        for (int i = 0; i < latencies.length; i++) {
+            String query = words[random.nextInt(words.length)] + random.nextInt(500) + " "
+                + words[random.nextInt(words.length)].substring(0, 2);
+            long started = System.nanoTime();
+            large.search(query, null, null, null, 0, 20);
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("books=%d p50=%.2fms p99=%.2fms%n", books,
+            latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 99 / 100] / 1e6);
+    }
+}
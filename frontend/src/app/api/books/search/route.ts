@@ -0,0 +1,39 @@
+import { NextRequest, NextResponse } from 'next/server';
+import { CONST_API } from '../../constants';
+
+// Tìm kiếm sách qua chỉ mục của backend (q, category, publisher, language, page, size)
+export async function GET(req: NextRequest) {
+  const authToken = req.cookies.get('authToken')?.value;
+
+  if (!authToken) {
+    return NextResponse.json(
+      { status: false, userMessage: 'Bạn chưa đăng nhập hoặc thiếu token!', data: null },
+      { status: 401 }
+    );
+  }
+
+  try {
+    const res = await fetch(`${CONST_API}/books/search?${req.nextUrl.searchParams.toString()}`, {
+      method: 'GET',
+      headers: {
+        'Authorization': `Bearer ${authToken}`,
+      },
+    });
+
+    if (!res.ok) {
+      const errorData = await res.json();
+      return NextResponse.json(
+        { status: false, userMessage: errorData.userMessage || 'Không tìm kiếm được sách', data: null },
+        { status: res.status }
+      );
+    }
+
+    const data = await res.json();
+    return NextResponse.json(data, { status: 200 });
+  } catch (err) {
+    return NextResponse.json(
+      { status: false, userMessage: 'Có lỗi kết nối server backend', data: null },
+      { status: 500 }
+    );
+  }
+}
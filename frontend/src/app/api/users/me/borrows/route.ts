@@ -0,0 +1,45 @@
+import { NextRequest, NextResponse } from 'next/server';
+import { CONST_API } from '../../../constants';
+
+// Lấy lịch sử phiếu mượn của chính người dùng đang đăng nhập (kèm chi tiết sách), phân trang bằng cursor
+export async function GET(req: NextRequest) {
+  const authToken = req.cookies.get('authToken')?.value;
+
+  if (!authToken) {
+    return NextResponse.json(
+      { status: false, userMessage: 'Bạn chưa đăng nhập hoặc thiếu token!', data: null },
+      { status: 401 }
+    );
+  }
+
+  const params = new URLSearchParams();
+  const cursor = req.nextUrl.searchParams.get('cursor');
+  const size = req.nextUrl.searchParams.get('size');
+  if (cursor) params.set('cursor', cursor);
+  if (size) params.set('size', size);
+
+  try {
+    const res = await fetch(`${CONST_API}/users/me/borrows?${params.toString()}`, {
+      method: 'GET',
+      headers: {
+        'Authorization': `Bearer ${authToken}`,
+      },
+    });
+
+    if (!res.ok) {
+      const errorData = await res.json();
+      return NextResponse.json(
+        { status: false, userMessage: errorData.userMessage || 'Không lấy được danh sách phiếu mượn', data: null },
+        { status: res.status }
+      );
+    }
+
+    const data = await res.json();
+    return NextResponse.json(data, { status: 200 });
+  } catch (err) {
+    return NextResponse.json(
+      { status: false, userMessage: 'Có lỗi kết nối server backend', data: null },
+      { status: 500 }
+    );
+  }
+}
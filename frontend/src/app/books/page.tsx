@@ -110,15 +110,29 @@ function BookListContent() {
   // Sắp xếp theo thời gian tạo (createdAt) mới nhất lên đầu
   const sortedBooks = [...books].sort((a, b) => new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime())
 
-  // Filter books by title, author, category, publisher, language
-  const filtered = sortedBooks.filter(
-    book =>
-      book.title.toLowerCase().includes(search.toLowerCase()) ||
-      book.author.toLowerCase().includes(search.toLowerCase()) ||
-      book.category.toLowerCase().includes(search.toLowerCase()) ||
-      book.publisher.toLowerCase().includes(search.toLowerCase()) ||
-      book.language.toLowerCase().includes(search.toLowerCase())
-  )
+  // Tìm kiếm trên server (bỏ dấu, tìm theo tiền tố, xếp hạng), không lọc toàn bộ danh sách ở client
+  const [searchResults, setSearchResults] = useState<Book[] | null>(null)
+  useEffect(() => {
+    const q = search.trim()
+    if (!q) {
+      setSearchResults(null)
+      return
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const res = await fetch(`/api/books/search?q=${encodeURIComponent(q)}&size=100`, { credentials: 'include' })
+        const json = await res.json()
+        if (json.status && json.data) {
+          setSearchResults(json.data.items)
+        }
+      } catch {
+        setSearchResults([])
+      }
+    }, 250)
+    return () => clearTimeout(timer)
+  }, [search, books])
+
+  const filtered = searchResults ?? sortedBooks
 
   // Paging
   const totalPages = Math.ceil(filtered.length / PAGE_SIZE)
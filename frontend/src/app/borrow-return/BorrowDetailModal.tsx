@@ -9,7 +9,7 @@ type Borrow = {
   borrowDate: string
   returnDate: string
   actualReturnDate: string
-  status: string // "MUON", "DA TRA"
+  status: string // "MUON", "QUA HAN", "DA TRA"
   createdAt: string
   totalBooks: number
   totalQuantity: number
@@ -46,7 +46,7 @@ function BorrowDetailModal({ borrow, onClose }: BorrowDetailModalProps) {
   if (!borrow) return null
 
   const getStatusColor = (status: string) =>
-    status === 'MUON' ? '#ef4444' : '#10b981'
+    status === 'MUON' || status === 'QUA HAN' ? '#ef4444' : '#10b981'
 
   const formatDate = (dateString: string) =>
     dateString ? new Date(dateString).toLocaleDateString('vi-VN') : 'Chưa có'
@@ -99,7 +99,7 @@ function BorrowDetailModal({ borrow, onClose }: BorrowDetailModalProps) {
             <div className={modalStyles['detail-row']}>
               <span className={modalStyles['detail-label']}>Trạng thái:</span>
               <span className={modalStyles['detail-value']} style={{ color: getStatusColor(borrow.status), fontWeight: 600 }}>
-                {borrow.status === 'MUON' ? 'MƯỢN' : 'ĐÃ TRẢ'}
+                {borrow.status === 'MUON' ? 'MƯỢN' : borrow.status === 'QUA HAN' ? 'QUÁ HẠN' : 'ĐÃ TRẢ'}
               </span>
             </div>
             <div className={modalStyles['detail-row']}>
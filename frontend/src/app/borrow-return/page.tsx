@@ -52,7 +52,7 @@ type Borrow = {
   borrowDate: string
   returnDate: string
   actualReturnDate: string
-  status: string // "MUON", "DA TRA"
+  status: string // "MUON", "QUA HAN", "DA TRA"
   createdAt: string
   details: {
     id: number
@@ -207,8 +207,10 @@ function BorrowListContent() {
     const badgeClass =
       status === 'MUON'
         ? `${listStyles['status-badge']} ${listStyles['status-muon']}`
+        : status === 'QUA HAN'
+        ? `${listStyles['status-badge']} ${listStyles['status-qua-han']}`
         : `${listStyles['status-badge']} ${listStyles['status-da-tra']}`
-    const badgeText = status === 'MUON' ? 'MƯỢN' : 'ĐÃ TRẢ'
+    const badgeText = status === 'MUON' ? 'MƯỢN' : status === 'QUA HAN' ? 'QUÁ HẠN' : 'ĐÃ TRẢ'
     return (
       <span className={badgeClass} style={{ padding: '4px 8px', borderRadius: '12px' }}>
         {badgeText}
@@ -260,6 +262,7 @@ function BorrowListContent() {
             <option value='Tất cả'>Tất cả</option>
             <option value='MƯỢN'>Mượn</option>
             <option value='ĐÃ TRẢ'>Đã trả</option>
+            <option value='QUA HAN'>Quá hạn</option>
           </select>
         </div>
 
@@ -23,47 +23,24 @@ export default function DashboardPage() {
   useEffect(() => {
     const fetchDashboardStats = async () => {
       try {
-        // Gọi từng API con để tổng hợp dashboard
-        const [booksRes, authorsRes, categoriesRes, publishersRes, usersRes, borrowsRes] = await Promise.all([
-          fetch('/api/books', { credentials: 'include' }),
-          fetch('/api/authors', { credentials: 'include' }),
-          fetch('/api/categories', { credentials: 'include' }),
-          fetch('/api/publishers', { credentials: 'include' }),
-          fetch('/api/users', { credentials: 'include' }),
-          fetch('/api/borrow-return/borrows', { credentials: 'include' })
-        ])
-
-        // Kiểm tra response
-        if (
-          !booksRes.ok ||
-          !authorsRes.ok ||
-          !categoriesRes.ok ||
-          !publishersRes.ok ||
-          !usersRes.ok ||
-          !borrowsRes.ok
-        ) {
+        // Backend trả về số liệu đã tổng hợp sẵn, không cần tải toàn bộ danh sách
+        const statsRes = await fetch('/api/stats', { credentials: 'include' })
+
+        if (!statsRes.ok) {
           throw new Error('Không thể tải dữ liệu thống kê')
         }
 
-        // Đọc dữ liệu trả về
-        const books = await booksRes.json()
-        const authors = await authorsRes.json()
-        const categories = await categoriesRes.json()
-        const publishers = await publishersRes.json()
-        const users = await usersRes.json()
-        const borrows = await borrowsRes.json()
-
-        // Giả sử mỗi API trả về { data: [...] }
-        const borrowData = Array.isArray(borrows.data) ? borrows.data : []
+        const stats = await statsRes.json()
+        const data = stats.data || {}
         const statsData: DashboardStats = {
-          totalBooks: Array.isArray(books.data) ? books.data.length : 0,
-          totalAuthors: Array.isArray(authors.data) ? authors.data.length : 0,
-          totalCategories: Array.isArray(categories.data) ? categories.data.length : 0,
-          totalPublishers: Array.isArray(publishers.data) ? publishers.data.length : 0,
-          totalUsers: Array.isArray(users.data) ? users.data.length : 0,
-          totalBorrows: borrowData.length,
-          activeBorrows: borrowData.filter((b: any) => b.status === 'MUON').length,
-          returnedBorrows: borrowData.filter((b: any) => b.status === 'DA TRA').length
+          totalBooks: data.totalBooks ?? 0,
+          totalAuthors: data.totalAuthors ?? 0,
+          totalCategories: data.totalCategories ?? 0,
+          totalPublishers: data.totalPublishers ?? 0,
+          totalUsers: data.totalUsers ?? 0,
+          totalBorrows: data.totalBorrows ?? 0,
+          activeBorrows: data.activeBorrows ?? 0,
+          returnedBorrows: data.returnedBorrows ?? 0
         }
 
         setStats(statsData)
@@ -5,6 +5,7 @@ import { format } from 'date-fns'
 import { vi } from 'date-fns/locale/vi'
 
 type BorrowDetail = {
+  id: number
   bookId: number
   quantity: number
   bookTitle?: string
@@ -12,102 +13,48 @@ type BorrowDetail = {
 
 type Borrow = {
   id: number
-  userName: string
-  userId: number
   borrowDate: string
   returnDate: string
   actualReturnDate: string | null
   status: string
   createdAt: string
-  totalBooks: number
   totalQuantity: number
-  borrowDetails: BorrowDetail[]
+  details: BorrowDetail[]
 }
 
 function BorrowReturn() {
   const [borrows, setBorrows] = useState<Borrow[]>([])
   const [loading, setLoading] = useState(true)
   const [error, setError] = useState<string | null>(null)
-  const [stats, setStats] = useState({
-    totalBorrows: 0,
-    totalBooks: 0,
-    pendingReturns: 0
-  })
-
-  // Pagination state
-  const [currentPage, setCurrentPage] = useState(1)
-  const [totalPages, setTotalPages] = useState(1)
+
+  // Phân trang bằng cursor: giữ lại cursor của các trang đã đi qua để bấm "Trước"
+  const [cursors, setCursors] = useState<(string | null)[]>([null])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [hasMore, setHasMore] = useState(false)
+  const currentPage = cursors.length
   const itemsPerPage = 6
 
   useEffect(() => {
-    fetchBorrows()
-  }, [currentPage])
+    fetchBorrows(cursors[cursors.length - 1])
+  }, [cursors])
 
-  const fetchBorrows = async () => {
+  const fetchBorrows = async (cursor: string | null) => {
     try {
-      let userId: number | null = null
-      const userJson = localStorage.getItem('user') || sessionStorage.getItem('user')
-      if (userJson) {
-        const userObj = JSON.parse(userJson)
-        userId = userObj.userId
-      }
+      const params = new URLSearchParams({ size: String(itemsPerPage) })
+      if (cursor) params.set('cursor', cursor)
 
-      if (!userId) {
-        setError('Không tìm thấy thông tin người dùng')
-        return
-      }
-
-      // Fetch borrows
-      const res = await fetch(`/api/borrow-return/borrows?page=${currentPage}&size=${itemsPerPage}`, {
+      // Server tự lấy người dùng từ token và trả về phiếu kèm tên sách trong một lần gọi
+      const res = await fetch(`/api/users/me/borrows?${params.toString()}`, {
         credentials: 'include'
       })
       const json = await res.json()
 
-      if (json.status && Array.isArray(json.data)) {
-        const userBorrows = json.data.filter((b: any) => b.userId === userId)
-        
-        // Fetch books data for titles
-        const booksRes = await fetch('/api/books', { credentials: 'include' })
-        const booksJson = await booksRes.json()
-        const booksMap = new Map(
-          booksJson.data.map((book: any) => [book.id, book.title])
-        )
-        
-        const borrowsWithDetails = await Promise.all(
-          userBorrows.map(async (borrow: any) => {
-            // Fetch borrow details
-            const detailsRes = await fetch(`/api/borrow-return/borrow-details?borrowId=${borrow.id}`, {
-              credentials: 'include'
-            })
-            const detailsJson = await detailsRes.json()
-            const details = detailsJson.status ? detailsJson.data : []
-
-            // Add book titles to details
-            const detailsWithTitles = details.map((detail: any) => ({
-              ...detail,
-              bookTitle: booksMap.get(detail.bookId) || `Sách #${detail.bookId}`
-            }))
-
-            return {
-              ...borrow,
-              borrowDetails: detailsWithTitles,
-              totalBooks: details.length,
-              totalQuantity: details.reduce((sum: number, d: any) => sum + d.quantity, 0)
-            }
-          })
-        )
-
-        setBorrows(borrowsWithDetails)
-
-        // Calculate stats
-        setStats({
-          totalBorrows: userBorrows.length,
-          totalBooks: borrowsWithDetails.reduce((acc, b) => acc + b.totalBooks, 0),
-          pendingReturns: borrowsWithDetails.filter(b => b.status === 'MUON').length
-        })
-
-        // Update pagination
-        setTotalPages(Math.ceil(userBorrows.length / itemsPerPage))
+      if (json.status && json.data) {
+        setBorrows(json.data.items)
+        setNextCursor(json.data.nextCursor)
+        setHasMore(json.data.hasMore)
+      } else {
+        setError(json.userMessage || 'Không thể tải danh sách phiếu mượn')
       }
     } catch (err) {
       setError('Không thể tải danh sách phiếu mượn')
@@ -116,6 +63,21 @@ function BorrowReturn() {
     }
   }
 
+  const goNext = () => {
+    if (nextCursor) setCursors(c => [...c, nextCursor])
+  }
+
+  const goPrevious = () => {
+    setCursors(c => (c.length > 1 ? c.slice(0, -1) : c))
+  }
+
+  // Số liệu tính trên trang đang xem
+  const stats = {
+    totalBorrows: borrows.length,
+    totalBooks: borrows.reduce((acc, b) => acc + b.details.length, 0),
+    pendingReturns: borrows.filter(b => b.status === 'MUON' || b.status === 'QUA HAN').length
+  }
+
   const formatDate = (dateString: string) => {
     if (!dateString) return 'N/A'
     return format(new Date(dateString), 'dd/MM/yyyy', { locale: vi })
@@ -162,7 +124,7 @@ function BorrowReturn() {
                 <div className={styles['card-header']}>
                   <div className={styles['borrow-id']}>Phiếu #{borrow.id.toString().padStart(4, '0')}</div>
                   <div className={styles[`status-badge status-${borrow.status.toLowerCase().replace(' ', '-')}`]}>
-                    {borrow.status === 'MUON' ? 'ĐANG MƯỢN' : 'ĐÃ TRẢ'}
+                    {borrow.status === 'MUON' ? 'ĐANG MƯỢN' : borrow.status === 'QUA HAN' ? 'QUÁ HẠN' : 'ĐÃ TRẢ'}
                   </div>
                 </div>
 
@@ -183,7 +145,7 @@ function BorrowReturn() {
                   )}
                   <div className={styles['info-row']}>
                     <span className={styles['info-label']}>Số đầu sách:</span>
-                    <span className={styles['info-value']}>{borrow.totalBooks}</span>
+                    <span className={styles['info-value']}>{borrow.details.length}</span>
                   </div>
                   <div className={styles['info-row']}>
                     <span className={styles['info-label']}>Tổng số lượng:</span>
@@ -193,8 +155,8 @@ function BorrowReturn() {
 
                 <div className={styles['book-list']}>
                   <h4 className={styles['book-list-title']}>Chi tiết sách mượn:</h4>
-                  {borrow.borrowDetails.map((detail, idx) => (
-                    <div key={idx} className={styles['book-item']}>
+                  {borrow.details.map(detail => (
+                    <div key={detail.id} className={styles['book-item']}>
                       <span className={styles['book-title']}>{detail.bookTitle}</span>
                       <span className={styles['book-quantity']}>x{detail.quantity}</span>
                     </div>
@@ -207,24 +169,18 @@ function BorrowReturn() {
           <div className={styles.pagination}>
             <button
               className={styles['page-button']}
-              onClick={() => setCurrentPage(p => Math.max(1, p - 1))}
+              onClick={goPrevious}
               disabled={currentPage === 1}
             >
               Trước
             </button>
-            {Array.from({ length: totalPages }, (_, i) => i + 1).map(page => (
-              <button
-                key={page}
-                className={`${styles['page-button']} ${currentPage === page ? styles.active : ''}`}
-                onClick={() => setCurrentPage(page)}
-              >
-                {page}
-              </button>
-            ))}
+            <button className={`${styles['page-button']} ${styles.active}`}>
+              {currentPage}
+            </button>
             <button
               className={styles['page-button']}
-              onClick={() => setCurrentPage(p => Math.min(totalPages, p + 1))}
-              disabled={currentPage === totalPages}
+              onClick={goNext}
+              disabled={!hasMore}
             >
               Tiếp
             </button>